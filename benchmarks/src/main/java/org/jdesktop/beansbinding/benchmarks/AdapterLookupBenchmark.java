@@ -0,0 +1,40 @@
+package org.jdesktop.beansbinding.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import javax.swing.JTextField;
+import org.jdesktop.beansbinding.ext.BeanAdapterFactory;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * {@code BeanAdapterFactory.getAdapter} for a plain bean, which no provider
+ * adapts, and for an adapted property of a {@code JTextField}, from four
+ * threads at once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class AdapterLookupBenchmark {
+
+    private Bean bean;
+    private JTextField field;
+
+    @Setup
+    public void setup() {
+        bean = new Bean();
+        field = new JTextField();
+    }
+
+    @Benchmark
+    public Object plainBean() {
+        return BeanAdapterFactory.getAdapter(bean, "value");
+    }
+
+    @Benchmark
+    public Object adaptedProperty() {
+        return BeanAdapterFactory.getAdapter(field, "text");
+    }
+}
@@ -0,0 +1,99 @@
+package org.jdesktop.beansbinding.benchmarks;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+
+/**
+ * A bound Java Bean used as the source of the benchmarks. Beans can be
+ * chained through {@code next} to build paths of any length.
+ */
+public class Bean {
+    private final PropertyChangeSupport support = new PropertyChangeSupport(this);
+    private Bean next;
+    private int value;
+    private int count;
+    private String name;
+
+    public Bean() {
+    }
+
+    public Bean(int value, String name) {
+        this.value = value;
+        this.name = name;
+    }
+
+    /**
+     * Creates a chain of {@code length} beans linked through {@code next},
+     * and returns the head.
+     */
+    public static Bean chain(int length) {
+        Bean head = new Bean(0, "bean0");
+        Bean bean = head;
+        for (int i = 1; i < length; i++) {
+            Bean next = new Bean(i, "bean" + i);
+            bean.setNext(next);
+            bean = next;
+        }
+        return head;
+    }
+
+    /**
+     * Returns a {@code BeanProperty} path of {@code segments} segments,
+     * ending in {@code value}.
+     */
+    public static String path(int segments) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 1; i < segments; i++) {
+            builder.append("next.");
+        }
+        return builder.append("value").toString();
+    }
+
+    public Bean getNext() {
+        return next;
+    }
+
+    public void setNext(Bean next) {
+        Bean old = this.next;
+        this.next = next;
+        support.firePropertyChange("next", old, next);
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public void setValue(int value) {
+        int old = this.value;
+        this.value = value;
+        support.firePropertyChange("value", old, value);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        int old = this.count;
+        this.count = count;
+        support.firePropertyChange("count", old, count);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        String old = this.name;
+        this.name = name;
+        support.firePropertyChange("name", old, name);
+    }
+
+    public void addPropertyChangeListener(PropertyChangeListener listener) {
+        support.addPropertyChangeListener(listener);
+    }
+
+    public void removePropertyChangeListener(PropertyChangeListener listener) {
+        support.removePropertyChangeListener(listener);
+    }
+}
@@ -0,0 +1,62 @@
+package org.jdesktop.beansbinding.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.jdesktop.beansbinding.BeanProperty;
+import org.jdesktop.beansbinding.PropertyStateEvent;
+import org.jdesktop.beansbinding.PropertyStateListener;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * {@code BeanProperty.getValue} and {@code setValue} over paths of one,
+ * three and six segments, both without listeners (the whole path is walked
+ * on each call) and with a listener installed (values are cached).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BeanPropertyBenchmark {
+
+    @Param({"1", "3", "6"})
+    public int segments;
+
+    @Param({"false", "true"})
+    public boolean listening;
+
+    private Bean source;
+    private BeanProperty<Bean, Integer> property;
+    private int counter;
+
+    private final PropertyStateListener listener = new PropertyStateListener() {
+        public void propertyStateChanged(PropertyStateEvent pse) {
+        }
+    };
+
+    @Setup
+    public void setup() {
+        source = Bean.chain(segments);
+        property = BeanProperty.create(Bean.path(segments));
+        if (listening) {
+            property.addPropertyStateListener(source, listener);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (listening) {
+            property.removePropertyStateListener(source, listener);
+        }
+    }
+
+    @Benchmark
+    public Integer getValue() {
+        return property.getValue(source);
+    }
+
+    @Benchmark
+    public void setValue() {
+        property.setValue(source, counter++);
+    }
+}
@@ -0,0 +1,89 @@
+package org.jdesktop.beansbinding.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.jdesktop.beansbinding.AutoBinding;
+import org.jdesktop.beansbinding.BeanProperty;
+import org.jdesktop.beansbinding.Binding;
+import org.jdesktop.beansbinding.Bindings;
+import org.jdesktop.beansbinding.Converter;
+import org.jdesktop.beansbinding.Validator;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * {@code Binding.refresh} and {@code save} between two beans, with and
+ * without a converter and a validator.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BindingBenchmark {
+
+    @Param({"false", "true"})
+    public boolean converter;
+
+    @Param({"false", "true"})
+    public boolean validator;
+
+    @Param({"false", "true"})
+    public boolean bound;
+
+    private Bean source;
+    private Bean target;
+    private Binding<Bean, Integer, Bean, Integer> binding;
+    private int counter;
+
+    @Setup
+    public void setup() {
+        source = new Bean(1, "source");
+        target = new Bean(2, "target");
+        binding = Bindings.createAutoBinding(AutoBinding.UpdateStrategy.READ_WRITE,
+                source, BeanProperty.<Bean, Integer>create("value"),
+                target, BeanProperty.<Bean, Integer>create("count"));
+
+        if (converter) {
+            binding.setConverter(new Converter<Integer, Integer>() {
+                public Integer convertForward(Integer value) {
+                    return value + 1;
+                }
+
+                public Integer convertReverse(Integer value) {
+                    return value - 1;
+                }
+            });
+        }
+
+        if (validator) {
+            binding.setValidator(new Validator<Integer>() {
+                public Validator<Integer>.Result validate(Integer value) {
+                    return value < 0 ? new Result(null, "negative") : null;
+                }
+            });
+        }
+
+        if (bound) {
+            binding.bind();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (binding.isBound()) {
+            binding.unbind();
+        }
+    }
+
+    @Benchmark
+    public Object refresh() {
+        source.setValue(counter++ & 0xffff);
+        return binding.refresh();
+    }
+
+    @Benchmark
+    public Object save() {
+        target.setCount(counter++ & 0xffff);
+        return binding.save();
+    }
+}
@@ -0,0 +1,47 @@
+package org.jdesktop.beansbinding.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.jdesktop.beansbinding.ELProperty;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * {@code ELProperty.getValue} for a simple property reference, a nested
+ * path, and arithmetic and conditional expressions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ELPropertyBenchmark {
+
+    @Param({
+        "${value}",
+        "${next.next.value}",
+        "${value + count * 2}",
+        "${value > 10 ? name : next.name}"
+    })
+    public String expression;
+
+    private Bean source;
+    private ELProperty<Bean, Object> property;
+
+    @Setup
+    public void setup() {
+        source = Bean.chain(3);
+        source.setValue(42);
+        source.setCount(7);
+        property = ELProperty.create(expression);
+    }
+
+    @Benchmark
+    public Object getValue() {
+        return property.getValue(source);
+    }
+
+    @Benchmark
+    public ELProperty<Bean, Object> create() {
+        return ELProperty.create(expression);
+    }
+}
@@ -0,0 +1,39 @@
+package org.jdesktop.beansbinding.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.jdesktop.el.impl.lang.ExpressionBuilder;
+import org.jdesktop.el.impl.parser.Node;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * {@code ExpressionBuilder.createNode} for an expression that is always in
+ * the parse cache, and for a stream of distinct expressions that always
+ * miss (and so keep pushing entries out of the cache).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpressionBuilderBenchmark {
+
+    private static final String HIT = "${person.address.city}";
+
+    private long counter;
+
+    @Setup
+    public void setup() {
+        ExpressionBuilder.createNode(HIT);
+    }
+
+    @Benchmark
+    public Node hit() {
+        return ExpressionBuilder.createNode(HIT);
+    }
+
+    @Benchmark
+    public Node miss() {
+        return ExpressionBuilder.createNode("${person.address.city" + (counter++) + "}");
+    }
+}
@@ -0,0 +1,75 @@
+package org.jdesktop.beansbinding.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.swing.JTable;
+import javax.swing.table.TableModel;
+import org.jdesktop.beansbinding.AutoBinding;
+import org.jdesktop.beansbinding.BeanProperty;
+import org.jdesktop.beansbinding.ELProperty;
+import org.jdesktop.swingbinding.JTableBinding;
+import org.jdesktop.swingbinding.SwingBindings;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Cell rendering through a bound {@code JTable}: {@code getValueAt} on the
+ * table model, which goes through {@code ListBindingManager.valueAt}, over
+ * a list of 100,000 beans. Each invocation reads one screen of rows for
+ * all columns, advancing through the list like a scroll.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class JTableBindingBenchmark {
+
+    private static final int SCREEN = 40;
+
+    @Param({"100000"})
+    public int rows;
+
+    private JTableBinding<Bean, List<Bean>, JTable> binding;
+    private TableModel model;
+    private int firstRow;
+
+    @Setup
+    public void setup() {
+        List<Bean> beans = new ArrayList<Bean>(rows);
+        for (int i = 0; i < rows; i++) {
+            beans.add(new Bean(i, "bean" + i));
+        }
+
+        JTable table = new JTable();
+        binding = SwingBindings.createJTableBinding(AutoBinding.UpdateStrategy.READ, beans, table);
+        binding.addColumnBinding(BeanProperty.<Bean, Integer>create("value")).setColumnClass(Integer.class);
+        binding.addColumnBinding(BeanProperty.<Bean, String>create("name"));
+        binding.addColumnBinding(ELProperty.<Bean, Object>create("${value * 2}"));
+        binding.bind();
+        model = table.getModel();
+    }
+
+    @TearDown
+    public void tearDown() {
+        binding.unbind();
+    }
+
+    @Benchmark
+    public int paintScreen() {
+        int hash = 0;
+        int columns = model.getColumnCount();
+        int last = Math.min(firstRow + SCREEN, rows);
+
+        for (int row = firstRow; row < last; row++) {
+            for (int col = 0; col < columns; col++) {
+                Object value = model.getValueAt(row, col);
+                hash += value == null ? 0 : 1;
+            }
+        }
+
+        firstRow = last == rows ? 0 : firstRow + 1;
+        return hash;
+    }
+}
@@ -0,0 +1,90 @@
+package org.jdesktop.beansbinding.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.swing.JTable;
+import javax.swing.table.TableModel;
+import org.jdesktop.beansbinding.AutoBinding;
+import org.jdesktop.beansbinding.BeanProperty;
+import org.jdesktop.swingbinding.JTableBinding;
+import org.jdesktop.swingbinding.SwingBindings;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * The memory retained by a bound {@code JTable} once every cell has been
+ * rendered, which is when {@code ListBindingManager} has registered
+ * listeners for every row. The beans exist before the measurement, so the
+ * {@code retainedBytesPerRow} counter is the cost of the binding alone.
+ * Run with {@code -prof gc} to see the allocations as well.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class ListBindingMemoryBenchmark {
+
+    private static final String[] PROPERTIES = {"value", "name", "count"};
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"20"})
+    public int columns;
+
+    private List<Bean> beans;
+    private JTableBinding<Bean, List<Bean>, JTable> binding;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public long retainedBytesPerRow;
+    }
+
+    @Setup
+    public void setup() {
+        beans = new ArrayList<Bean>(rows);
+        for (int i = 0; i < rows; i++) {
+            beans.add(new Bean(i, "bean" + i));
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void unbind() {
+        if (binding != null) {
+            binding.unbind();
+            binding = null;
+        }
+    }
+
+    @Benchmark
+    public void bindAndRenderAll(Footprint footprint) {
+        long before = usedHeap();
+
+        JTable table = new JTable();
+        binding = SwingBindings.createJTableBinding(AutoBinding.UpdateStrategy.READ, beans, table);
+        for (int col = 0; col < columns; col++) {
+            binding.addColumnBinding(BeanProperty.<Bean, Object>create(PROPERTIES[col % PROPERTIES.length]));
+        }
+        binding.bind();
+
+        TableModel model = table.getModel();
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < columns; col++) {
+                model.getValueAt(row, col);
+            }
+        }
+
+        footprint.retainedBytesPerRow += (usedHeap() - before) / rows;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -88,6 +88,11 @@ package org.jdesktop.beansbinding;
  *   </td>
  * </tr>
  * </table>
+ * <p>
+ * By default, syncs caused by a change to the source happen as part of the
+ * change notification. An {@code AutoBinding} can instead be given an
+ * {@link UpdateCoalescer}, which collects these syncs and runs each one
+ * once, later. See {@link #setUpdateCoalescer}.
  *
  * @param <SS> the type of source object
  * @param <SV> the type of value that the source property represents
@@ -99,6 +104,7 @@ package org.jdesktop.beansbinding;
 public class AutoBinding<SS, SV, TS, TV> extends Binding<SS, SV, TS, TV> {
 
     private UpdateStrategy strategy;
+    private UpdateCoalescer coalescer;
 
     /**
      * An enumeration representing the possible update strategies of an
@@ -158,6 +164,74 @@ public class AutoBinding<SS, SV, TS, TV> extends Binding<SS, SV, TS, TV> {
         return strategy;
     }
 
+    /**
+     * Sets the {@code UpdateCoalescer} that this {@code AutoBinding} hands its
+     * source value changes to, or {@code null} to sync on every change.
+     * With a coalescer, a change to the value of the source doesn't sync
+     * the binding right away. The binding is synced, according to its update
+     * strategy, when the coalescer is next flushed, and only once no matter
+     * how many changes happened in between.
+     * <p>
+     * {@code AutoBinding} fires a property change notification with
+     * property name {@code "updateCoalescer"} when the value of
+     * this property changes.
+     * <p>
+     * This method may not be called on a bound binding.
+     *
+     * @param coalescer the {@code UpdateCoalescer}, or {@code null}
+     * @throws IllegalStateException if the {@code Binding} is bound
+     * @see #isBound()
+     */
+    public final void setUpdateCoalescer(UpdateCoalescer coalescer) {
+        throwIfBound();
+        UpdateCoalescer old = this.coalescer;
+        this.coalescer = coalescer;
+        firePropertyChange("updateCoalescer", old, coalescer);
+    }
+
+    /**
+     * Returns the {@code UpdateCoalescer} of this {@code AutoBinding}, which
+     * may be {@code null}.
+     *
+     * @return the {@code UpdateCoalescer}
+     * @see #setUpdateCoalescer
+     */
+    public final UpdateCoalescer getUpdateCoalescer() {
+        return coalescer;
+    }
+
+    /*
+     * Does the sync that changes were deferred from: for a change to the
+     * source value, the sync of a source change, which wins over the
+     * others, and otherwise the sync of a target change.
+     */
+    void syncChanged(int changes) {
+        if (!isBound()) {
+            return;
+        }
+
+        if (isSuspended()) {
+            noteChangedWhileSuspended(changes);
+            return;
+        }
+
+        if (strategy == UpdateStrategy.READ_ONCE) {
+            // nothing to do
+        } else if ((changes & SOURCE_VALUE_CHANGED) != 0) {
+            if (strategy == UpdateStrategy.READ) {
+                refreshAndNotify();
+            } else {
+                tryRefreshThenSave();
+            }
+        } else if ((changes & TARGET_VALUE_CHANGED) != 0 && strategy == UpdateStrategy.READ_WRITE) {
+            trySaveThenRefresh();
+        } else if ((changes & TARGET_BECAME_WRITEABLE) != 0) {
+            refreshAndNotify();
+        } else if ((changes & SOURCE_BECAME_WRITEABLE) != 0 && strategy == UpdateStrategy.READ_WRITE) {
+            saveAndNotify();
+        }
+    }
+
     private final void tryRefreshThenSave() {
         SyncFailure refreshFailure = refresh();
         if (refreshFailure == null) {
@@ -200,7 +274,11 @@ public class AutoBinding<SS, SV, TS, TV> extends Binding<SS, SV, TS, TV> {
         }
     }
 
-    protected void unbindImpl() {}
+    protected void unbindImpl() {
+        if (coalescer != null) {
+            coalescer.remove(this);
+        }
+    }
 
     /**
      * Returns a string representing the internal state of the {@code Binding}.
@@ -218,6 +296,8 @@ public class AutoBinding<SS, SV, TS, TV> extends Binding<SS, SV, TS, TV> {
     protected void sourceChangedImpl(PropertyStateEvent pse) {
         if (strategy == UpdateStrategy.READ_ONCE) {
             // nothing to do
+        } else if (pse.getValueChanged() && coalescer != null) {
+            coalescer.add(this);
         } else if (strategy == UpdateStrategy.READ) {
             if (pse.getValueChanged()) {
                 refreshAndNotify();
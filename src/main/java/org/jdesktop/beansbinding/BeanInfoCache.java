@@ -0,0 +1,229 @@
+package org.jdesktop.beansbinding;
+
+import java.beans.*;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.jdesktop.el.impl.util.MethodAccessor;
+
+/**
+ * Holds the Java Beans accessor methods that {@code BeanProperty} needs for
+ * a single class: the public read and write method of each property, and the
+ * public methods for adding and removing a {@code PropertyChangeListener}.
+ * The table is built once per class, on first use, so that the introspection
+ * and the search for public forms of the methods are not repeated on every
+ * read, write or listener registration. The methods are invoked through
+ * {@code MethodAccessors}, created the first time each one is needed.
+ * <p>
+ * Tables are stored in a {@code ClassValue}, so they don't keep their class
+ * (or its class loader) from being unloaded.
+ */
+final class BeanInfoCache {
+
+    private static final ClassValue<BeanInfoCache> CACHE = new ClassValue<BeanInfoCache>() {
+        protected BeanInfoCache computeValue(Class<?> type) {
+            return new BeanInfoCache(type);
+        }
+    };
+
+    private final Map<String, PropertyInfo> properties;
+    private final Method addPCLMethod;
+    private final Method removePCLMethod;
+    private MethodAccessor addPCLAccessor;
+    private MethodAccessor removePCLAccessor;
+
+    /**
+     * The resolved accessors for a single, non-indexed, property.
+     */
+    static final class PropertyInfo {
+        private final Method readMethod;
+        private final Method writeMethod;
+        private final Class<?> type;
+        private MethodAccessor reader;
+        private MethodAccessor writer;
+
+        private PropertyInfo(Method readMethod, Method writeMethod, Class<?> type) {
+            this.readMethod = readMethod;
+            this.writeMethod = writeMethod;
+            this.type = type;
+        }
+
+        /**
+         * Returns the public form of the read method, or {@code null}.
+         */
+        Method getReadMethod() {
+            return readMethod;
+        }
+
+        /**
+         * Returns the public form of the write method, or {@code null}.
+         */
+        Method getWriteMethod() {
+            return writeMethod;
+        }
+
+        /**
+         * Returns an accessor for the read method, or {@code null}.
+         */
+        MethodAccessor getReader() {
+            // benign race: at worst, two equivalent accessors are created
+            if (reader == null && readMethod != null) {
+                reader = MethodAccessor.create(readMethod);
+            }
+            return reader;
+        }
+
+        /**
+         * Returns an accessor for the write method, or {@code null}.
+         */
+        MethodAccessor getWriter() {
+            if (writer == null && writeMethod != null) {
+                writer = MethodAccessor.create(writeMethod);
+            }
+            return writer;
+        }
+
+        Class<?> getType() {
+            return type;
+        }
+    }
+
+    /**
+     * @throws PropertyResolutionException
+     */
+    private BeanInfoCache(Class<?> type) {
+        BeanInfo info;
+
+        try {
+            info = Introspector.getBeanInfo(type);
+        } catch (IntrospectionException ie) {
+            throw new PropertyResolutionException("Exception while introspecting " + type.getName(), ie);
+        }
+
+        PropertyDescriptor[] pds = info.getPropertyDescriptors();
+        if (pds == null || pds.length == 0) {
+            properties = Collections.emptyMap();
+        } else {
+            properties = new HashMap<String, PropertyInfo>(pds.length * 2);
+            for (PropertyDescriptor pd : pds) {
+                // the first matching descriptor wins, as with a linear search
+                if (pd instanceof IndexedPropertyDescriptor || properties.containsKey(pd.getName())) {
+                    continue;
+                }
+
+                properties.put(pd.getName(), new PropertyInfo(getPublicForm(type, pd.getReadMethod()),
+                                                              getPublicForm(type, pd.getWriteMethod()),
+                                                              pd.getPropertyType()));
+            }
+        }
+
+        Method add = null;
+        Method remove = null;
+
+        EventSetDescriptor[] eds = info.getEventSetDescriptors();
+        if (eds != null) {
+            for (EventSetDescriptor ed : eds) {
+                if (ed.getListenerType() == PropertyChangeListener.class) {
+                    add = getPublicForm(type, ed.getAddListenerMethod());
+                    remove = getPublicForm(type, ed.getRemoveListenerMethod());
+                    break;
+                }
+            }
+        }
+
+        addPCLMethod = add;
+        removePCLMethod = remove;
+    }
+
+    /**
+     * Returns the accessor table for the given class.
+     *
+     * @throws PropertyResolutionException if the class can't be introspected
+     */
+    static BeanInfoCache get(Class<?> type) {
+        return CACHE.get(type);
+    }
+
+    /**
+     * Returns the accessors for the named property, or {@code null} if the
+     * class has no such (non-indexed) property.
+     */
+    PropertyInfo getProperty(String name) {
+        return properties.get(name);
+    }
+
+    /**
+     * Returns an accessor for the public method for adding a
+     * {@code PropertyChangeListener}, or {@code null} if there isn't one.
+     */
+    MethodAccessor getAddPropertyChangeListener() {
+        if (addPCLAccessor == null && addPCLMethod != null) {
+            addPCLAccessor = MethodAccessor.create(addPCLMethod);
+        }
+        return addPCLAccessor;
+    }
+
+    /**
+     * Returns an accessor for the public method for removing a
+     * {@code PropertyChangeListener}, or {@code null} if there isn't one.
+     */
+    MethodAccessor getRemovePropertyChangeListener() {
+        if (removePCLAccessor == null && removePCLMethod != null) {
+            removePCLAccessor = MethodAccessor.create(removePCLMethod);
+        }
+        return removePCLAccessor;
+    }
+
+    /**
+     * Returns a public form of the given method for the given class.
+     * <p>
+     * If a {@code PropertyDescriptor} is obtained for a non-public class that
+     * implements a public interface, the read/write methods will be for the
+     * class, and therefore inaccessible. To correct this, a version of the
+     * same method must be found in a superclass or interface.
+     *
+     * @param cl the class on which to search for the method
+     * @param method the method
+     * @return a public form of the given method for the given class,
+     *         or {@code null} if one can't be found
+     */
+    static Method getPublicForm(Class cl, Method method) {
+        if (method == null) {
+            return null;
+        }
+
+        if (Modifier.isPublic(cl.getModifiers())) {
+            return method;
+        }
+
+        for (Class c : cl.getInterfaces()) {
+            Method m = null;
+            try {
+                m = c.getMethod(method.getName(), method.getParameterTypes());
+                c = m.getDeclaringClass();
+                if ((m = getPublicForm(c, m)) != null) {
+                    return m;
+                }
+            } catch (NoSuchMethodException ex) {
+            }
+        }
+
+        Class c = cl.getSuperclass();
+        if (c != null) {
+            Method m = null;
+            try {
+                m = c.getMethod(method.getName(), method.getParameterTypes());
+                c = m.getDeclaringClass();
+                if ((m = getPublicForm(c, m)) != null) {
+                    return m;
+                }
+            } catch (NoSuchMethodException ex) {
+            }
+        }
+
+        return null;
+    }
+
+}
@@ -22,13 +22,12 @@ package org.jdesktop.beansbinding;
 
 import java.beans.*;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.*;
 import org.jdesktop.observablecollections.ObservableMap;
 import org.jdesktop.observablecollections.ObservableMapListener;
 import static org.jdesktop.beansbinding.PropertyStateEvent.UNREADABLE;
 import org.jdesktop.beansbinding.ext.BeanAdapterFactory;
+import org.jdesktop.el.impl.util.MethodAccessor;
 
 /**
  * An implementation of {@code Property} that uses a simple dot-separated path
@@ -162,10 +161,13 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
                 baseProperty.addPropertyStateListener(source, this);
             }
 
+            BindingMetrics metrics = BindingMetrics.installed;
+            long start = (metrics == null) ? 0 : System.nanoTime();
             updateCachedBean();
             updateCachedSources(0);
             updateCachedValue();
             updateCachedWriter();
+            cacheUpdated(metrics, start);
         }
 
         private void cleanup() {
@@ -338,14 +340,24 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
             }
         }
 
+        // reports an update of the cache that began at start, if measured
+        private void cacheUpdated(BindingMetrics metrics, long start) {
+            if (metrics != null) {
+                metrics.cacheUpdated(BeanProperty.this, source, System.nanoTime() - start);
+            }
+        }
+
         private void bindingPropertyChanged(PropertyStateEvent pse) {
             validateCache(0);
             Object oldValue = cachedValue;
             boolean wasWriteable = cachedIsWriteable();
+            BindingMetrics metrics = BindingMetrics.installed;
+            long start = (metrics == null) ? 0 : System.nanoTime();
             updateCachedBean();
             updateCachedSources(0);
             updateCachedValue();
             updateCachedWriter();
+            cacheUpdated(metrics, start);
             notifyListeners(wasWriteable, oldValue, this);
         }
         
@@ -355,11 +367,14 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
             boolean wasWriteable = cachedIsWriteable();
             Object oldValue = cachedValue;
             
+            BindingMetrics metrics = BindingMetrics.installed;
+            long start = (metrics == null) ? 0 : System.nanoTime();
             updateCachedSources(index);
             updateCachedValue();
             if (index != path.length()) {
                 updateCachedWriter();
             }
+            cacheUpdated(metrics, start);
             
             notifyListeners(wasWriteable, oldValue, this);
         }
@@ -456,6 +471,28 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
         this.baseProperty = baseProperty;
     }
 
+    /**
+     * Returns the base property that the path of this {@code BeanProperty}
+     * is relative to.
+     *
+     * @return the base property, or {@code null} if the path is relative
+     *         to the source object itself
+     * @see #create(Property, String)
+     */
+    public Property<S, ?> getBaseProperty() {
+        return baseProperty;
+    }
+
+    /**
+     * Returns the path of this {@code BeanProperty}, as property names
+     * separated by dots.
+     *
+     * @return the path
+     */
+    public String getPath() {
+        return path.toString();
+    }
+
     private Object getLastSource(S source) {
         Object src = getBeanFromSource(source);
 
@@ -569,7 +606,10 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
             }
  
             Object oldValue = entry.cachedValue;
+            BindingMetrics metrics = BindingMetrics.installed;
+            long start = (metrics == null) ? 0 : System.nanoTime();
             entry.updateCachedValue();
+            entry.cacheUpdated(metrics, start);
             notifyListeners(entry.cachedIsWriteable(), oldValue, entry);
         } else {
             setProperty(getLastSource(source), path.getLast(), value);
@@ -723,107 +763,39 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
     /**
      * @throws PropertyResolutionException
      */
-    private static BeanInfo getBeanInfo(Object object) {
+    private static BeanInfoCache.PropertyInfo getPropertyInfo(Object object, String string) {
         assert object != null;
 
-        try {
-            return Introspector.getBeanInfo(object.getClass());
-        } catch (IntrospectionException ie) {
-            throw new PropertyResolutionException("Exception while introspecting " + object.getClass().getName(), ie);
-        }
-    }
-
-    /**
-     * Returns a public form of the given method for the given class.
-     * <p>
-     * If a {@code PropertyDescriptor} is obtained for a non-public class that
-     * implements a public interface, the read/write methods will be for the
-     * class, and therefore inaccessible. To correct this, a version of the
-     * same method must be found in a superclass or interface.
-     *
-     * @param cl the class on which to search for the method
-     * @param method the method
-     * @return a public form of the given method for the given class,
-     *         or {@code null} if one can't be found
-     */
-    static private Method getPublicForm(Class cl, Method method) {
-        if (method == null) {
-            return null;
-        }
-
-        if (Modifier.isPublic(cl.getModifiers())) {
-            return method;
-        }
-
-        for (Class c : cl.getInterfaces()) {
-            Method m = null;
-            try {
-                m = c.getMethod(method.getName(), method.getParameterTypes());
-                c = m.getDeclaringClass();
-                if ((m = getPublicForm(c, m)) != null) {
-                    return m;
-                }
-            } catch (NoSuchMethodException ex) {
-            }
-        }
-
-        Class c = cl.getSuperclass();
-        if (c != null) {
-            Method m = null;
-            try {
-                m = c.getMethod(method.getName(), method.getParameterTypes());
-                c = m.getDeclaringClass();
-                if ((m = getPublicForm(c, m)) != null) {
-                    return m;
-                }
-            } catch (NoSuchMethodException ex) {
-            }
-        }
-
-        return null;
+        return BeanInfoCache.get(object.getClass()).getProperty(string);
     }
 
     /**
      * @throws PropertyResolutionException
      */
-    private static PropertyDescriptor getPropertyDescriptor(Object object, String string) {
-        assert object != null;
-
-        PropertyDescriptor[] pds = getBeanInfo(object).getPropertyDescriptors();
-        if (pds == null) {
-            return null;
-        }
-
-        for (PropertyDescriptor pd : pds) {
-            if (!(pd instanceof IndexedPropertyDescriptor) && pd.getName().equals(string)) {
-                return pd;
-            }
-        }
-
-        return null;
-    }
+    private static Object invokeMethod(MethodAccessor accessor, Object object) {
+        Exception reason = null;
 
-    private static EventSetDescriptor getEventSetDescriptor(Object object) {
-        assert object != null;
-        
-        EventSetDescriptor[] eds = getBeanInfo(object).getEventSetDescriptors();
-        for (EventSetDescriptor ed : eds) {
-            if (ed.getListenerType() == PropertyChangeListener.class) {
-                return ed;
-            }
+        try {
+            return accessor.invoke(object);
+        } catch (IllegalArgumentException ex) {
+            reason = ex;
+        } catch (IllegalAccessException ex) {
+            reason = ex;
+        } catch (InvocationTargetException ex) {
+            reason = ex;
         }
 
-        return null;
+        throw new PropertyResolutionException("Exception invoking method " + accessor.getMethod() + " on " + object, reason);
     }
 
     /**
      * @throws PropertyResolutionException
      */
-    private static Object invokeMethod(Method method, Object object, Object... args) {
+    private static Object invokeMethod(MethodAccessor accessor, Object object, Object arg) {
         Exception reason = null;
 
         try {
-            return method.invoke(object, args);
+            return accessor.invoke(object, arg);
         } catch (IllegalArgumentException ex) {
             reason = ex;
         } catch (IllegalAccessException ex) {
@@ -832,7 +804,7 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
             reason = ex;
         }
 
-        throw new PropertyResolutionException("Exception invoking method " + method + " on " + object, reason);
+        throw new PropertyResolutionException("Exception invoking method " + accessor.getMethod() + " on " + object, reason);
     }
 
     private Object getReader(Object object, String string) {
@@ -844,8 +816,8 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
 
         object = getAdapter(object, string);
 
-        PropertyDescriptor pd = getPropertyDescriptor(object, string);
-        return pd == null ? null : getPublicForm(object.getClass(), pd.getReadMethod());
+        BeanInfoCache.PropertyInfo pi = getPropertyInfo(object, string);
+        return pi == null ? null : pi.getReader();
     }
 
     /**
@@ -861,7 +833,7 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
 
         object = getAdapter(object, string);
         
-        return invokeMethod((Method)reader, object);
+        return invokeMethod((MethodAccessor)reader, object);
     }
 
     /**
@@ -894,13 +866,13 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
 
         object = getAdapter(object, string);
         
-        PropertyDescriptor pd = getPropertyDescriptor(object, string);
-        if (pd == null || getPublicForm(object.getClass(), pd.getWriteMethod()) == null) {
+        BeanInfoCache.PropertyInfo pi = getPropertyInfo(object, string);
+        if (pi == null || pi.getWriteMethod() == null) {
             log("getType()", "missing write method");
             throw new UnsupportedOperationException("Unwritable");
         }
 
-        return pd.getPropertyType();
+        return pi.getType();
     }
 
     private Object getWriter(Object object, String string) {
@@ -912,8 +884,8 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
 
         object = getAdapter(object, string);
 
-        PropertyDescriptor pd = getPropertyDescriptor(object, string);
-        return pd == null ? null : getPublicForm(object.getClass(), pd.getWriteMethod());
+        BeanInfoCache.PropertyInfo pi = getPropertyInfo(object, string);
+        return pi == null ? null : pi.getWriter();
     }
 
     /**
@@ -930,7 +902,7 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
 
         object = getAdapter(object, string);
         
-        invokeMethod((Method)writer, object, value);
+        invokeMethod((MethodAccessor)writer, object, value);
     }
 
     /**
@@ -986,10 +958,9 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
      * @throws PropertyResolutionException
      */
     private static void addPropertyChangeListener(Object object, PropertyChangeListener listener) {
-        EventSetDescriptor ed = getEventSetDescriptor(object);
-        Method addPCMethod = null;
+        MethodAccessor addPCMethod = BeanInfoCache.get(object.getClass()).getAddPropertyChangeListener();
 
-        if (ed == null || (addPCMethod = getPublicForm(object.getClass(), ed.getAddListenerMethod())) == null) {
+        if (addPCMethod == null) {
             log("addPropertyChangeListener()", "can't add listener");
             return;
         }
@@ -1001,10 +972,9 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
      * @throws PropertyResolutionException
      */
     private static void removePropertyChangeListener(Object object, PropertyChangeListener listener) {
-        EventSetDescriptor ed = getEventSetDescriptor(object);
-        Method removePCMethod = null;
+        MethodAccessor removePCMethod = BeanInfoCache.get(object.getClass()).getRemovePropertyChangeListener();
 
-        if (ed == null || (removePCMethod = getPublicForm(object.getClass(), ed.getRemoveListenerMethod())) == null) {
+        if (removePCMethod == null) {
             log("removePropertyChangeListener()", "can't remove listener from source");
             return;
         }
@@ -53,6 +53,12 @@ public abstract class Binding<SS, SV, TS, TV> {
     private boolean ignoreChange;
     private boolean isManaged;
     private boolean isBound;
+    private boolean suspended;
+    // the SOURCE_ and TARGET_ flags of the changes made while suspended
+    private int changedWhileSuspended;
+    // the changes made while suspended, to replay; null if none
+    private DeferredChange deferredSourceChange;
+    private DeferredChange deferredTargetChange;
     private PropertyChangeSupport changeSupport;
 
     /**
@@ -820,6 +826,24 @@ public abstract class Binding<SS, SV, TS, TV> {
      * @throws ClassCastException if thrown by a converter or the final cast
      */
     public final ValueResult<TV> getSourceValueForTarget() {
+        BindingMetrics metrics = BindingMetrics.installed;
+        if (metrics == null) {
+            return getSourceValueForTarget0();
+        }
+
+        metrics.operationStarted(this, BindingMetrics.Operation.SOURCE_VALUE);
+        long start = System.nanoTime();
+        ValueResult<TV> result = null;
+        try {
+            result = getSourceValueForTarget0();
+            return result;
+        } finally {
+            metrics.operationCompleted(this, BindingMetrics.Operation.SOURCE_VALUE,
+                                       result == null || result.failed(), System.nanoTime() - start);
+        }
+    }
+
+    private ValueResult<TV> getSourceValueForTarget0() {
         if (!targetProperty.isWriteable(targetObject)) {
             return new ValueResult<TV>(SyncFailure.TARGET_UNWRITEABLE);
         }
@@ -891,6 +915,24 @@ public abstract class Binding<SS, SV, TS, TV> {
      * @throws ClassCastException if thrown by a converter or the final cast
      */
     public final ValueResult<SV> getTargetValueForSource() {
+        BindingMetrics metrics = BindingMetrics.installed;
+        if (metrics == null) {
+            return getTargetValueForSource0();
+        }
+
+        metrics.operationStarted(this, BindingMetrics.Operation.TARGET_VALUE);
+        long start = System.nanoTime();
+        ValueResult<SV> result = null;
+        try {
+            result = getTargetValueForSource0();
+            return result;
+        } finally {
+            metrics.operationCompleted(this, BindingMetrics.Operation.TARGET_VALUE,
+                                       result == null || result.failed(), System.nanoTime() - start);
+        }
+    }
+
+    private ValueResult<SV> getTargetValueForSource0() {
         if (!sourceProperty.isWriteable(sourceObject)) {
             return new ValueResult<SV>(SyncFailure.SOURCE_UNWRITEABLE);
         }
@@ -914,7 +956,7 @@ public abstract class Binding<SS, SV, TS, TV> {
             }
 
             if (validator != null) {
-                Validator.Result vr = validator.validate(value);
+                Validator.Result vr = validate(value);
                 if (vr != null) {
                     return new ValueResult<SV>(SyncFailure.validationFailure(vr));
                 }
@@ -1219,6 +1261,25 @@ public abstract class Binding<SS, SV, TS, TV> {
      * @see #isManaged()
      */
     protected final SyncFailure refreshUnmanaged() {
+        BindingMetrics metrics = BindingMetrics.installed;
+        if (metrics == null) {
+            return refreshUnmanaged0();
+        }
+
+        metrics.operationStarted(this, BindingMetrics.Operation.REFRESH);
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            SyncFailure failure = refreshUnmanaged0();
+            failed = (failure != null);
+            return failure;
+        } finally {
+            metrics.operationCompleted(this, BindingMetrics.Operation.REFRESH,
+                                       failed, System.nanoTime() - start);
+        }
+    }
+
+    private SyncFailure refreshUnmanaged0() {
         ValueResult<TV> vr = getSourceValueForTarget();
         if (vr.failed()) {
             return vr.getFailure();
@@ -1265,6 +1326,25 @@ public abstract class Binding<SS, SV, TS, TV> {
      * @see #isManaged()
      */
     protected final SyncFailure saveUnmanaged() {
+        BindingMetrics metrics = BindingMetrics.installed;
+        if (metrics == null) {
+            return saveUnmanaged0();
+        }
+
+        metrics.operationStarted(this, BindingMetrics.Operation.SAVE);
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            SyncFailure failure = saveUnmanaged0();
+            failed = (failure != null);
+            return failure;
+        } finally {
+            metrics.operationCompleted(this, BindingMetrics.Operation.SAVE,
+                                       failed, System.nanoTime() - start);
+        }
+    }
+
+    private SyncFailure saveUnmanaged0() {
         ValueResult<SV> vr = getTargetValueForSource();
         if (vr.failed()) {
             return vr.getFailure();
@@ -1307,6 +1387,25 @@ public abstract class Binding<SS, SV, TS, TV> {
     }
 
     private final TV convertForward(SV value) {
+        BindingMetrics metrics = BindingMetrics.installed;
+        if (metrics == null) {
+            return convertForward0(value);
+        }
+
+        metrics.operationStarted(this, BindingMetrics.Operation.CONVERT_FORWARD);
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            TV result = convertForward0(value);
+            failed = false;
+            return result;
+        } finally {
+            metrics.operationCompleted(this, BindingMetrics.Operation.CONVERT_FORWARD,
+                                       failed, System.nanoTime() - start);
+        }
+    }
+
+    private final TV convertForward0(SV value) {
         if (converter == null) {
             Class<?> targetType = noPrimitiveType(targetProperty.getWriteType(targetObject));
             return (TV)targetType.cast(Converter.defaultConvert(value, targetType));
@@ -1316,6 +1415,25 @@ public abstract class Binding<SS, SV, TS, TV> {
     }
 
     private final SV convertReverse(TV value) {
+        BindingMetrics metrics = BindingMetrics.installed;
+        if (metrics == null) {
+            return convertReverse0(value);
+        }
+
+        metrics.operationStarted(this, BindingMetrics.Operation.CONVERT_REVERSE);
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            SV result = convertReverse0(value);
+            failed = false;
+            return result;
+        } finally {
+            metrics.operationCompleted(this, BindingMetrics.Operation.CONVERT_REVERSE,
+                                       failed, System.nanoTime() - start);
+        }
+    }
+
+    private final SV convertReverse0(TV value) {
         if (converter == null) {
             Class<?> sourceType = noPrimitiveType(sourceProperty.getWriteType(sourceObject));
             return (SV)sourceType.cast(Converter.defaultConvert(value, sourceType));
@@ -1324,6 +1442,26 @@ public abstract class Binding<SS, SV, TS, TV> {
         return converter.convertReverse(value);
     }
 
+    private final Validator.Result validate(SV value) {
+        BindingMetrics metrics = BindingMetrics.installed;
+        if (metrics == null) {
+            return validator.validate(value);
+        }
+
+        metrics.operationStarted(this, BindingMetrics.Operation.VALIDATE);
+        long start = System.nanoTime();
+        Validator.Result result = null;
+        boolean failed = true;
+        try {
+            result = validator.validate(value);
+            failed = (result != null);
+            return result;
+        } finally {
+            metrics.operationCompleted(this, BindingMetrics.Operation.VALIDATE,
+                                       failed, System.nanoTime() - start);
+        }
+    }
+
     /**
      * Throws an UnsupportedOperationException if the {@code Binding} is managed.
      * Useful for calling at the beginning of method implementations that
@@ -1402,6 +1540,25 @@ public abstract class Binding<SS, SV, TS, TV> {
     }
     
     private void sourceChanged(PropertyStateEvent pse) {
+        BindingMetrics metrics = BindingMetrics.installed;
+        if (metrics == null) {
+            sourceChanged0(pse);
+            return;
+        }
+
+        metrics.operationStarted(this, BindingMetrics.Operation.SOURCE_CHANGED);
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            sourceChanged0(pse);
+            failed = false;
+        } finally {
+            metrics.operationCompleted(this, BindingMetrics.Operation.SOURCE_CHANGED,
+                                       failed, System.nanoTime() - start);
+        }
+    }
+
+    private void sourceChanged0(PropertyStateEvent pse) {
         if (listeners != null) {
             for (BindingListener listener : listeners) {
                 listener.sourceChanged(this, pse);
@@ -1424,6 +1581,25 @@ public abstract class Binding<SS, SV, TS, TV> {
     }
 
     private void targetChanged(PropertyStateEvent pse) {
+        BindingMetrics metrics = BindingMetrics.installed;
+        if (metrics == null) {
+            targetChanged0(pse);
+            return;
+        }
+
+        metrics.operationStarted(this, BindingMetrics.Operation.TARGET_CHANGED);
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            targetChanged0(pse);
+            failed = false;
+        } finally {
+            metrics.operationCompleted(this, BindingMetrics.Operation.TARGET_CHANGED,
+                                       failed, System.nanoTime() - start);
+        }
+    }
+
+    private void targetChanged0(PropertyStateEvent pse) {
         if (listeners != null) {
             for (BindingListener listener : listeners) {
                 listener.targetChanged(this, pse);
@@ -1608,13 +1784,142 @@ public abstract class Binding<SS, SV, TS, TV> {
         }
     }
 
+    // the kinds of changes whose handling can be deferred
+    static final int SOURCE_VALUE_CHANGED = 1;
+    static final int SOURCE_BECAME_WRITEABLE = 2;
+    static final int TARGET_VALUE_CHANGED = 4;
+    static final int TARGET_BECAME_WRITEABLE = 8;
+    static final int SOURCE_BECAME_UNWRITEABLE = 16;
+    static final int TARGET_BECAME_UNWRITEABLE = 32;
+
+    /*
+     * Used by BindingGroup for bulk updates. While a binding is suspended,
+     * changes to its source and target are only noted; no listeners are
+     * notified, and nothing is synced.
+     */
+    final void suspend() {
+        suspended = true;
+        deferredSourceChange = null;
+        deferredTargetChange = null;
+    }
+
+    /*
+     * Ends a suspension, returning the flags of the changes made to the
+     * source and target during it, or 0 if there were none.
+     */
+    final int resume() {
+        int changes = changedWhileSuspended;
+        suspended = false;
+        changedWhileSuspended = 0;
+        return changes;
+    }
+
+    final boolean isSuspended() {
+        return suspended;
+    }
+
+    final void noteChangedWhileSuspended(int changes) {
+        changedWhileSuspended |= changes;
+    }
+
+    /*
+     * Syncs the binding after changes whose handling was deferred, by a
+     * suspension or an UpdateCoalescer, given the flags of the changes.
+     * Bindings in this package that sync automatically override this; for
+     * others, the changes noted during the last suspension are replayed as
+     * one event each for the source and the target, from the state before
+     * the suspension to the last state during it.
+     */
+    void syncChanged(int changes) {
+        DeferredChange sourceChange = deferredSourceChange;
+        DeferredChange targetChange = deferredTargetChange;
+        deferredSourceChange = null;
+        deferredTargetChange = null;
+
+        if (!isBound() || isSuspended()) {
+            return;
+        }
+
+        PropertyStateEvent pse;
+        if (sourceChange != null && (pse = sourceChange.toEvent(sourceProperty, sourceObject)) != null) {
+            sourceChanged(pse);
+        }
+        // unless replaying the source change unbound the binding
+        if (targetChange != null && isBound() && (pse = targetChange.toEvent(targetProperty, targetObject)) != null) {
+            targetChanged(pse);
+        }
+    }
+
+    /*
+     * The changes to one side of a binding made while it is suspended.
+     */
+    private static final class DeferredChange {
+        private boolean valueChanged;
+        private Object oldValue;
+        private Object newValue;
+        private boolean writeableChanged;
+        private boolean writeable;
+
+        void add(PropertyStateEvent pse) {
+            if (pse.getValueChanged()) {
+                if (!valueChanged) {
+                    valueChanged = true;
+                    oldValue = pse.getOldValue();
+                }
+                newValue = pse.getNewValue();
+            }
+            if (pse.getWriteableChanged()) {
+                writeableChanged = true;
+                writeable = pse.isWriteable();
+            }
+        }
+
+        PropertyStateEvent toEvent(Property property, Object object) {
+            boolean changed = valueChanged &&
+                    !(oldValue == PropertyStateEvent.UNREADABLE && newValue == PropertyStateEvent.UNREADABLE);
+            if (!changed && !writeableChanged) {
+                return null;
+            }
+
+            return new PropertyStateEvent(property, object, changed, oldValue, newValue,
+                                          writeableChanged, writeable);
+        }
+    }
+
     private class PSL implements PropertyStateListener {
         public void propertyStateChanged(PropertyStateEvent pse) {
             if (ignoreChange) {
                 return;
             }
 
-            if (pse.getSourceProperty() == sourceProperty && pse.getSourceObject() == sourceObject) {
+            boolean isSource = pse.getSourceProperty() == sourceProperty && pse.getSourceObject() == sourceObject;
+
+            if (suspended) {
+                if (pse.getValueChanged()) {
+                    changedWhileSuspended |= isSource ? SOURCE_VALUE_CHANGED : TARGET_VALUE_CHANGED;
+                }
+                if (pse.getWriteableChanged()) {
+                    if (pse.isWriteable()) {
+                        changedWhileSuspended |= isSource ? SOURCE_BECAME_WRITEABLE : TARGET_BECAME_WRITEABLE;
+                    } else {
+                        changedWhileSuspended |= isSource ? SOURCE_BECAME_UNWRITEABLE : TARGET_BECAME_UNWRITEABLE;
+                    }
+                }
+                if (isSource) {
+                    if (deferredSourceChange == null) {
+                        deferredSourceChange = new DeferredChange();
+                    }
+                    deferredSourceChange.add(pse);
+                } else {
+                    if (deferredTargetChange == null) {
+                        deferredTargetChange = new DeferredChange();
+                    }
+                    deferredTargetChange.add(pse);
+                }
+                return;
+            }
+
+            if (isSource) {
                 sourceChanged(pse);
             } else {
                 targetChanged(pse);
@@ -0,0 +1,439 @@
+package org.jdesktop.beansbinding;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.jdesktop.beansbinding.BindingMetrics.Operation;
+
+/**
+ * An {@code InMemoryBindingMetrics} that also records which changes caused
+ * which, to find the bindings that feed back into themselves, or are synced
+ * more often than needed.
+ * <p>
+ * A property notifying its listeners of a change, a binding handling a
+ * change to its source or target, and a binding refreshing or saving are
+ * the {@link Event events} that the profiler records. One that isn't caused
+ * by another is a root cause, typically a property notifying the bindings
+ * of a change made by the user. Every event that happens, on the same
+ * thread, until it has been handled is recorded as caused by it, in a tree.
+ * Of each root cause, the profiler finds:
+ * <ul>
+ *    <li>the <i>cycles</i>: bindings whose change, through other bindings,
+ *        caused another change to themselves. Such a cycle only ends when
+ *        a value stops changing;
+ *    <li>the <i>repeated syncs</i>: bindings refreshed or saved more than
+ *        once, of which all but the last did wasted work. With bindings
+ *        chained through shared beans, a binding that depends on a changed
+ *        value along two paths is refreshed once for each;
+ *    <li>the <i>fan-out</i>: the number of bindings synced.
+ * </ul>
+ * These are totalled by binding name, or, for fan-outs, by the name of the
+ * root cause, over all root causes, and the events of the most recent root
+ * causes are kept. {@link #dump} describes it all.
+ * <p>
+ * Like {@code InMemoryBindingMetrics}, the profiler only sees bindings
+ * while it's installed:
+ * <pre><code>
+ *    BindingGraphProfiler profiler = new BindingGraphProfiler();
+ *    BindingMetrics.install(profiler);
+ *    ...
+ *    System.out.println(profiler.dump());
+ * </code></pre>
+ */
+public class BindingGraphProfiler extends InMemoryBindingMetrics {
+    // the number of events of a root cause, beyond which they're not kept
+    private static final int MAX_EVENTS = 1000;
+
+    private final int maxCauses;
+    // guarded by this
+    private final Deque<Event> recentCauses = new ArrayDeque<Event>();
+    private final Map<String, Integer> cycles = new HashMap<String, Integer>();
+    private final Map<String, Long> repeatedSyncs = new HashMap<String, Long>();
+    private final Map<String, Integer> maxFanOut = new HashMap<String, Integer>();
+    private long causeCount;
+
+    private final ThreadLocal<Trace> traces = new ThreadLocal<Trace>() {
+        protected Trace initialValue() {
+            return new Trace();
+        }
+    };
+
+    /**
+     * Something that happened to a binding or property, and what it caused.
+     */
+    public static final class Event {
+        private final String name;
+        private final Operation operation;
+        private final List<Event> children = new ArrayList<Event>(0);
+        private long nanos;
+        private boolean failed;
+        // for a root cause, the number of events that weren't kept
+        private int dropped;
+
+        Event(String name, Operation operation) {
+            this.name = name;
+            this.operation = operation;
+        }
+
+        /**
+         * Returns the name of the binding, as given by
+         * {@link InMemoryBindingMetrics#getBindingName}, or the path of the
+         * property, as given by {@link InMemoryBindingMetrics#getPropertyPath}.
+         *
+         * @return the binding name or property path
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns what happened to the binding.
+         *
+         * @return one of {@code SOURCE_CHANGED}, {@code TARGET_CHANGED},
+         *         {@code REFRESH} or {@code SAVE}, or {@code null} if this
+         *         is a property notifying its listeners of a change
+         */
+        public Operation getOperation() {
+            return operation;
+        }
+
+        /**
+         * Returns the events that this one caused, in order.
+         *
+         * @return the events caused by this one
+         */
+        public List<Event> getChildren() {
+            return Collections.unmodifiableList(children);
+        }
+
+        /**
+         * Returns the time taken to handle this event, including the events
+         * it caused.
+         *
+         * @return the time, in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * Returns whether the operation failed.
+         *
+         * @return whether the operation failed
+         */
+        public boolean isFailed() {
+            return failed;
+        }
+
+        private void appendTo(StringBuilder builder, int depth, String newline) {
+            for (int i = 0; i < depth; i++) {
+                builder.append("  ");
+            }
+            builder.append(name).append(' ').append(operation == null ? "CHANGED" : operation);
+            builder.append(" (").append(nanos / 1000).append("us").append(failed ? ", failed)" : ")");
+            builder.append(newline);
+            for (Event child : children) {
+                child.appendTo(builder, depth + 1, newline);
+            }
+        }
+
+        public String toString() {
+            String newline = System.getProperty("line.separator");
+            StringBuilder builder = new StringBuilder();
+            appendTo(builder, 0, newline);
+            if (dropped != 0) {
+                builder.append("  ... ").append(dropped).append(" more").append(newline);
+            }
+            return builder.toString();
+        }
+    }
+
+    /*
+     * The root cause being handled on a thread: the events being handled,
+     * innermost last, with their bindings or properties, and the number of
+     * syncs of each binding.
+     */
+    private static final class Trace {
+        private Event root;
+        private int events;
+        private final List<Event> stack = new ArrayList<Event>();
+        private final List<Object> owners = new ArrayList<Object>();
+        private final Map<Binding<?, ?, ?, ?>, Integer> syncs =
+                new IdentityHashMap<Binding<?, ?, ?, ?>, Integer>();
+        private final Map<Binding<?, ?, ?, ?>, String> names =
+                new IdentityHashMap<Binding<?, ?, ?, ?>, String>();
+    }
+
+    /**
+     * Creates a {@code BindingGraphProfiler} that keeps the events of the
+     * 100 most recent root causes.
+     */
+    public BindingGraphProfiler() {
+        this(100);
+    }
+
+    /**
+     * Creates a {@code BindingGraphProfiler} that keeps the events of the
+     * given number of most recent root causes. Of each, only the first 1000
+     * events are kept.
+     *
+     * @param maxCauses the number of root causes to keep the events of
+     * @throws IllegalArgumentException if {@code maxCauses} is negative
+     */
+    public BindingGraphProfiler(int maxCauses) {
+        if (maxCauses < 0) {
+            throw new IllegalArgumentException("maxCauses must be non-negative");
+        }
+        this.maxCauses = maxCauses;
+    }
+
+    private static boolean isTraced(Operation operation) {
+        switch (operation) {
+            case SOURCE_CHANGED:
+            case TARGET_CHANGED:
+            case REFRESH:
+            case SAVE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isChange(Operation operation) {
+        return operation == Operation.SOURCE_CHANGED || operation == Operation.TARGET_CHANGED;
+    }
+
+    public void operationStarted(Binding<?, ?, ?, ?> binding, Operation operation) {
+        super.operationStarted(binding, operation);
+        if (!isTraced(operation)) {
+            return;
+        }
+
+        Trace trace = traces.get();
+        Event event = new Event(getBindingName(binding), operation);
+        if (isChange(operation)) {
+            findCycle(trace, binding, event);
+        } else {
+            Integer syncs = trace.syncs.get(binding);
+            trace.syncs.put(binding, syncs == null ? 1 : syncs + 1);
+            trace.names.put(binding, event.name);
+        }
+        push(trace, binding, event);
+    }
+
+    public void operationCompleted(Binding<?, ?, ?, ?> binding, Operation operation,
+                                   boolean failed, long nanos) {
+        super.operationCompleted(binding, operation, failed, nanos);
+        if (isTraced(operation)) {
+            pop(traces.get(), binding, operation, failed, nanos);
+        }
+    }
+
+    public void stateChangeStarted(Property<?, ?> property, PropertyStateEvent event) {
+        super.stateChangeStarted(property, event);
+        push(traces.get(), property, new Event(getPropertyPath(property), null));
+    }
+
+    public void stateChangeFired(Property<?, ?> property, PropertyStateEvent event,
+                                 int listeners, long nanos) {
+        super.stateChangeFired(property, event, listeners, nanos);
+        pop(traces.get(), property, null, false, nanos);
+    }
+
+    private void push(Trace trace, Object owner, Event event) {
+        if (trace.stack.isEmpty()) {
+            trace.root = event;
+            trace.events = 1;
+        } else if (trace.events++ < MAX_EVENTS) {
+            trace.stack.get(trace.stack.size() - 1).children.add(event);
+        } else {
+            trace.root.dropped++;
+        }
+
+        trace.stack.add(event);
+        trace.owners.add(owner);
+    }
+
+    private void pop(Trace trace, Object owner, Operation operation, boolean failed, long nanos) {
+        int top = trace.stack.size() - 1;
+        if (top == -1 || trace.owners.get(top) != owner || trace.stack.get(top).operation != operation) {
+            // started before the profiler was installed
+            return;
+        }
+
+        Event event = trace.stack.remove(top);
+        trace.owners.remove(top);
+        event.nanos = nanos;
+        event.failed = failed;
+
+        if (top == 0) {
+            causeCompleted(trace);
+        }
+    }
+
+    /*
+     * Records a cycle if the binding is changing again because of an
+     * earlier change to itself, from the latest such change on.
+     */
+    private void findCycle(Trace trace, Binding<?, ?, ?, ?> binding, Event event) {
+        for (int i = trace.stack.size() - 1; i >= 0; i--) {
+            if (trace.owners.get(i) == binding && isChange(trace.stack.get(i).operation)) {
+                StringBuilder cycle = new StringBuilder();
+                for (int j = i; j < trace.stack.size(); j++) {
+                    Event e = trace.stack.get(j);
+                    if (isChange(e.operation)) {
+                        cycle.append(e.name).append(" -> ");
+                    }
+                }
+                cycle.append(event.name);
+
+                synchronized (this) {
+                    Integer count = cycles.get(cycle.toString());
+                    cycles.put(cycle.toString(), count == null ? 1 : count + 1);
+                }
+                return;
+            }
+        }
+    }
+
+    private synchronized void causeCompleted(Trace trace) {
+        causeCount++;
+
+        for (Map.Entry<Binding<?, ?, ?, ?>, Integer> entry : trace.syncs.entrySet()) {
+            if (entry.getValue() > 1) {
+                String name = trace.names.get(entry.getKey());
+                Long count = repeatedSyncs.get(name);
+                repeatedSyncs.put(name, (count == null ? 0 : count) + entry.getValue() - 1);
+            }
+        }
+
+        Integer fanOut = maxFanOut.get(trace.root.name);
+        if (fanOut == null || fanOut < trace.syncs.size()) {
+            maxFanOut.put(trace.root.name, trace.syncs.size());
+        }
+
+        if (maxCauses != 0) {
+            if (recentCauses.size() == maxCauses) {
+                recentCauses.removeFirst();
+            }
+            recentCauses.addLast(trace.root);
+        }
+
+        trace.root = null;
+        trace.syncs.clear();
+        trace.names.clear();
+    }
+
+    /**
+     * Returns the number of root causes that have been handled.
+     *
+     * @return the number of root causes
+     */
+    public synchronized long getCauseCount() {
+        return causeCount;
+    }
+
+    /**
+     * Returns the events of the most recent root causes, oldest first.
+     *
+     * @return the root events
+     */
+    public synchronized List<Event> getRecentCauses() {
+        return new ArrayList<Event>(recentCauses);
+    }
+
+    /**
+     * Returns the cycles that were found, each described by the names of
+     * the bindings along it, such as {@code "a -> b -> a"}, with the number
+     * of times it was found.
+     *
+     * @return the number of times each cycle was found
+     */
+    public synchronized Map<String, Integer> getCycles() {
+        return new HashMap<String, Integer>(cycles);
+    }
+
+    /**
+     * Returns, for each binding name, the number of times the bindings by
+     * that name were synced again for a root cause that had already synced
+     * them.
+     *
+     * @return the number of repeated syncs of each binding name
+     */
+    public synchronized Map<String, Long> getRepeatedSyncs() {
+        return new HashMap<String, Long>(repeatedSyncs);
+    }
+
+    /**
+     * Returns, for the name of each root cause, the largest number of
+     * bindings that one root cause by that name synced.
+     *
+     * @return the largest fan-out of each root cause name
+     */
+    public synchronized Map<String, Integer> getMaxFanOut() {
+        return new HashMap<String, Integer>(maxFanOut);
+    }
+
+    /**
+     * Returns a description of the cycles, repeated syncs and fan-outs that
+     * were found, the largest first, followed by the events of the most
+     * recent root causes.
+     *
+     * @return the description
+     */
+    public synchronized String dump() {
+        String newline = System.getProperty("line.separator");
+        StringBuilder dump = new StringBuilder();
+        dump.append(causeCount).append(" root causes").append(newline);
+
+        dump.append("cycles:").append(newline);
+        for (Map.Entry<String, Integer> entry : sortedByValue(cycles)) {
+            dump.append("  ").append(entry.getValue()).append("x ").append(entry.getKey()).append(newline);
+        }
+
+        dump.append("repeated syncs:").append(newline);
+        for (Map.Entry<String, Long> entry : sortedByValue(repeatedSyncs)) {
+            dump.append("  ").append(entry.getValue()).append(' ').append(entry.getKey()).append(newline);
+        }
+
+        dump.append("largest fan-out:").append(newline);
+        for (Map.Entry<String, Integer> entry : sortedByValue(maxFanOut)) {
+            dump.append("  ").append(entry.getValue()).append(' ').append(entry.getKey()).append(newline);
+        }
+
+        dump.append("recent root causes:").append(newline);
+        for (Event cause : recentCauses) {
+            dump.append(cause);
+        }
+        return dump.toString();
+    }
+
+    private static <N extends Comparable<N>> List<Map.Entry<String, N>> sortedByValue(Map<String, N> map) {
+        List<Map.Entry<String, N>> entries = new ArrayList<Map.Entry<String, N>>(map.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<String, N>>() {
+            public int compare(Map.Entry<String, N> e1, Map.Entry<String, N> e2) {
+                int result = e2.getValue().compareTo(e1.getValue());
+                return result != 0 ? result : e1.getKey().compareTo(e2.getKey());
+            }
+        });
+        return entries;
+    }
+
+    /**
+     * Discards all measurements, and all that was found.
+     */
+    public synchronized void reset() {
+        super.reset();
+        recentCauses.clear();
+        cycles.clear();
+        repeatedSyncs.clear();
+        maxFanOut.clear();
+        causeCount = 0;
+    }
+}
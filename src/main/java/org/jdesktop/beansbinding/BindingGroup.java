@@ -20,6 +20,7 @@ public class BindingGroup {
     private List<BindingListener> listeners;
     private Handler handler;
     private Map<String, Binding> namedBindings;
+    private int updateDepth;
 
     /**
      * Creates an empty {@code BindingGroup}.
@@ -58,6 +59,10 @@ public class BindingGroup {
 
         binding.addBindingListener(getHandler());
 
+        if (updateDepth > 0) {
+            binding.suspend();
+        }
+
         if (binding.isBound()) {
             bound.add(binding);
         } else {
@@ -94,6 +99,11 @@ public class BindingGroup {
         }
 
         binding.removeBindingListener(getHandler());
+        int changes = binding.resume();
+        if (changes != 0 && binding.isBound()) {
+            // no longer synced by endUpdate
+            binding.syncChanged(changes);
+        }
     }
 
     private void putNamed(String name, Binding binding) {
@@ -154,6 +164,89 @@ public class BindingGroup {
         }
     }
 
+    /**
+     * Starts a bulk update of the objects bound by this group, such as
+     * loading a new record into a form. Until the matching call to
+     * {@link #endUpdate}, the bindings in the group ignore changes to their
+     * sources and targets: they don't sync them, and they don't notify their
+     * {@code BindingListeners} of them. They only note that they changed.
+     * <p>
+     * Calls may be nested; only the outermost {@code endUpdate} ends the
+     * update. Binding or unbinding a binding of the group is still done
+     * right away.
+     *
+     * @see #endUpdate
+     * @see #isUpdating
+     */
+    public final void beginUpdate() {
+        if (updateDepth++ > 0) {
+            return;
+        }
+
+        for (Binding binding : bound) {
+            binding.suspend();
+        }
+
+        for (Binding binding : unbound) {
+            binding.suspend();
+        }
+    }
+
+    /**
+     * Ends a bulk update started by {@link #beginUpdate}. When the
+     * outermost update ends, each bound {@code AutoBinding} whose source or
+     * target changed during the update is synced once, with the usual
+     * notifications: as it would have been for a change to its source if
+     * the source value changed, and otherwise as it would have been for a
+     * change to its target. A {@code READ} binding whose target value
+     * changed therefore keeps the target's value, and a {@code READ_WRITE}
+     * one saves it. Other bindings are notified of the changes to their
+     * source and target as if each had changed once, from its value before
+     * the update to its last value. A binding removed from the group
+     * during the update is synced when it is removed.
+     *
+     * @throws IllegalStateException if there is no update to end
+     * @see #beginUpdate
+     */
+    public final void endUpdate() {
+        if (updateDepth == 0) {
+            throw new IllegalStateException("No update in progress");
+        }
+
+        if (--updateDepth > 0) {
+            return;
+        }
+
+        List<Binding> changed = new ArrayList<Binding>();
+        List<Integer> changes = new ArrayList<Integer>();
+
+        for (Binding binding : bound) {
+            int bindingChanges = binding.resume();
+            if (bindingChanges != 0) {
+                changed.add(binding);
+                changes.add(bindingChanges);
+            }
+        }
+
+        for (Binding binding : unbound) {
+            binding.resume();
+        }
+
+        for (int i = 0; i < changed.size(); i++) {
+            changed.get(i).syncChanged(changes.get(i));
+        }
+    }
+
+    /**
+     * Returns whether a bulk update, started by {@link #beginUpdate}, is in
+     * progress.
+     *
+     * @return whether an update is in progress
+     */
+    public final boolean isUpdating() {
+        return updateDepth > 0;
+    }
+
     /**
      * Adds a {@code BindingListener} to be notified of all {@code BindingListener}
      * notifications fired by any {@code Binding} in the group. Does nothing if
@@ -0,0 +1,171 @@
+package org.jdesktop.beansbinding;
+
+/**
+ * Receives measurements of the work that bindings and properties do, for
+ * finding the bindings that are expensive.
+ * <p>
+ * No measurements are made until an instance is installed with
+ * {@link #install}; until then, each of the instrumented operations only
+ * checks that none is installed. Once one is, {@code Binding} reports the
+ * time taken by each {@link Operation}, and whether it failed, and
+ * {@code BeanProperty}, {@code ELProperty} and {@code PropertyHelper}
+ * report the time taken to update their cached values for a source object
+ * and to notify listeners of a change.
+ * <p>
+ * Operations nest: the time of a refresh includes the time of the
+ * conversion that it makes, and the time spent notifying the listeners of
+ * a property includes the time of any refresh that this causes. The
+ * methods are called on the thread of the operation, so an implementation
+ * that's installed while bindings are used on more than one thread must
+ * be thread-safe. The methods do nothing by default, so that subclasses
+ * can only override those of interest.
+ *
+ * @see InMemoryBindingMetrics
+ * @see BindingGraphProfiler
+ */
+public abstract class BindingMetrics {
+
+    /**
+     * The operations of a {@code Binding} that are measured.
+     */
+    public enum Operation {
+
+        /**
+         * A refresh, from {@code refresh} or a subclass syncing its target.
+         */
+        REFRESH,
+
+        /**
+         * A save, from {@code save} or a subclass syncing its source.
+         */
+        SAVE,
+
+        /**
+         * A call to {@code getSourceValueForTarget}.
+         */
+        SOURCE_VALUE,
+
+        /**
+         * A call to {@code getTargetValueForSource}.
+         */
+        TARGET_VALUE,
+
+        /**
+         * The conversion of a source value for the target, by the
+         * binding's {@code Converter} or a default one.
+         */
+        CONVERT_FORWARD,
+
+        /**
+         * The conversion of a target value for the source, by the
+         * binding's {@code Converter} or a default one.
+         */
+        CONVERT_REVERSE,
+
+        /**
+         * The validation of a target value by the binding's
+         * {@code Validator}.
+         */
+        VALIDATE,
+
+        /**
+         * The handling of a change to the source property, including the
+         * notification of {@code BindingListeners}.
+         */
+        SOURCE_CHANGED,
+
+        /**
+         * The handling of a change to the target property, including the
+         * notification of {@code BindingListeners}.
+         */
+        TARGET_CHANGED
+    }
+
+    // the installed instance, or null to measure nothing
+    static volatile BindingMetrics installed;
+
+    /**
+     * Installs the given {@code BindingMetrics}, to receive the measurements
+     * of all bindings and properties from now on, or stops measuring if
+     * it's {@code null}.
+     *
+     * @param metrics the {@code BindingMetrics} to install, or {@code null}
+     */
+    public static void install(BindingMetrics metrics) {
+        installed = metrics;
+    }
+
+    /**
+     * Returns the installed {@code BindingMetrics}.
+     *
+     * @return the installed {@code BindingMetrics}, or {@code null} if
+     *         none is installed
+     */
+    public static BindingMetrics getInstalled() {
+        return installed;
+    }
+
+    /**
+     * Called when an operation of a binding starts. Each call is followed,
+     * on the same thread, by a call to {@link #operationCompleted} for the
+     * same operation, after those for the operations that it caused.
+     *
+     * @param binding the binding
+     * @param operation the operation
+     */
+    public void operationStarted(Binding<?, ?, ?, ?> binding, Operation operation) {
+    }
+
+    /**
+     * Called when an operation of a binding completes, successfully or
+     * not. An operation fails if it returns a {@code SyncFailure}, or a
+     * {@code ValueResult} representing one, or if it throws an exception.
+     * For {@code SOURCE_CHANGED} and {@code TARGET_CHANGED}, it fails only
+     * if it throws an exception.
+     *
+     * @param binding the binding
+     * @param operation the operation
+     * @param failed whether the operation failed
+     * @param nanos the time taken, in nanoseconds
+     */
+    public void operationCompleted(Binding<?, ?, ?, ?> binding, Operation operation,
+                                   boolean failed, long nanos) {
+    }
+
+    /**
+     * Called when a property has updated the values it caches for a source
+     * object, which it does when it starts listening for the source object,
+     * when a change is made along its path, and after a value is set.
+     *
+     * @param property the property
+     * @param source the source object
+     * @param nanos the time taken, in nanoseconds
+     */
+    public void cacheUpdated(Property<?, ?> property, Object source, long nanos) {
+    }
+
+    /**
+     * Called when a {@code PropertyHelper} starts to notify its listeners of
+     * a change. The call is followed, on the same thread, by a call to
+     * {@link #stateChangeFired} for the same event, after those for the
+     * operations that the listeners caused.
+     *
+     * @param property the property
+     * @param event the event that the listeners are notified of
+     */
+    public void stateChangeStarted(Property<?, ?> property, PropertyStateEvent event) {
+    }
+
+    /**
+     * Called when a {@code PropertyHelper} has notified its listeners of a
+     * change.
+     *
+     * @param property the property
+     * @param event the event that the listeners were notified of
+     * @param listeners the number of listeners notified
+     * @param nanos the time taken, in nanoseconds
+     */
+    public void stateChangeFired(Property<?, ?> property, PropertyStateEvent event,
+                                 int listeners, long nanos) {
+    }
+}
@@ -6,11 +6,13 @@
 package org.jdesktop.beansbinding;
 
 import org.jdesktop.el.impl.ExpressionFactoryImpl;
+import org.jdesktop.el.impl.ValueExpressionImpl;
+import org.jdesktop.el.impl.lang.DependencyGraph;
+import org.jdesktop.el.impl.util.BoundedCache;
 import org.jdesktop.el.ELContext;
 import org.jdesktop.el.ELException;
 import org.jdesktop.el.Expression;
 import org.jdesktop.el.Expression.ResolvedProperty;
-import org.jdesktop.el.ValueExpression;
 import java.beans.*;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -155,11 +157,20 @@ import org.jdesktop.beansbinding.ext.BeanAdapterFactory;
 public final class ELProperty<S, V> extends PropertyHelper<S, V> {
 
     private Property<S, ?> baseProperty;
-    private final ValueExpression expression;
+    private final ValueExpressionImpl expression;
     private final ELContext context = new TempELContext();
     private IdentityHashMap<S, SourceEntry> map = new IdentityHashMap<S, SourceEntry>();
     private static final Object NOREAD = new Object();
 
+    // Parsed and compiled expressions, shared by all ELProperty instances
+    // created for the same expression string. Each instance evaluates a
+    // copy, since the source an expression is evaluated against is part
+    // of the expression. At most 1000 are kept, or the value of the system
+    // property org.jdesktop.beansbinding.elPropertyCacheSize.
+    private static final ExpressionFactoryImpl FACTORY = new ExpressionFactoryImpl();
+    private static final BoundedCache<String, ValueExpressionImpl> TEMPLATES =
+            new BoundedCache<String, ValueExpressionImpl>(templateCacheSize());
+
     private final class SourceEntry implements PropertyChangeListener,
                                                ObservableMapListener,
                                                PropertyStateListener {
@@ -170,8 +181,12 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
         private boolean cachedIsWriteable;
         private Class<?> cachedWriteType;
         private boolean ignoreChange;
-        private Set<RegisteredListener> registeredListeners;
-        private Set<RegisteredListener> lastRegisteredListeners;
+        // the values and dependencies of the parts of the expression
+        private DependencyGraph graph;
+        // the listeners registered for each slot of the graph
+        private RegisteredListener[][] slotListeners;
+        // all registered listeners, each counting the slots that use it
+        private Map<RegisteredListener, RegisteredListener> registeredListeners;
 
         private SourceEntry(S source) {
             this.source = source;
@@ -180,14 +195,16 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
                 baseProperty.addPropertyStateListener(source, this);
             }
 
-            registeredListeners = new HashSet<RegisteredListener>(1);
+            graph = new DependencyGraph();
+            slotListeners = new RegisteredListener[0][];
+            registeredListeners = new HashMap<RegisteredListener, RegisteredListener>(4);
             updateCachedBean();
             updateCache();
         }
 
         private void cleanup() {
-            for (RegisteredListener rl : registeredListeners) {
-                unregisterListener(rl, this);
+            for (RegisteredListener rl : registeredListeners.keySet()) {
+                removeListener(rl, this);
             }
 
             if (baseProperty != null) {
@@ -195,6 +212,8 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
             }
 
             cachedBean = null;
+            graph = null;
+            slotListeners = null;
             registeredListeners = null;
             cachedValue = null;
         }
@@ -208,13 +227,26 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
         }
 
         private void updateCache() {
-            lastRegisteredListeners = registeredListeners;
-            registeredListeners = new HashSet<RegisteredListener>(lastRegisteredListeners.size());
-            List<ResolvedProperty> resolvedProperties = null;
+            BindingMetrics metrics = BindingMetrics.installed;
+            if (metrics == null) {
+                updateCache0();
+                return;
+            }
+
+            long start = System.nanoTime();
+            try {
+                updateCache0();
+            } finally {
+                metrics.cacheUpdated(ELProperty.this, source, System.nanoTime() - start);
+            }
+        }
+
+        private void updateCache0() {
+            boolean completed = false;
 
             try {
                 expression.setSource(getBeanFromSource(source, true));
-                Expression.Result result = expression.getResult(context, true);
+                Expression.Result result = expression.getResult(context, false, graph);
                 
                 if (result.getType() == Expression.Result.Type.UNRESOLVABLE) {
                     log("updateCache()", "expression is unresolvable");
@@ -227,23 +259,86 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
                     cachedWriteType = cachedIsWriteable ? expression.getType(context) : null;
                 }
 
-                resolvedProperties = result.getResolvedProperties();
+                completed = true;
             } catch (ELException ele) {
                 throw new PropertyResolutionException("Error evaluating EL expression " + expression + " on " + source, ele);
             } finally {
                 expression.setSource(null);
+
+                if (completed) {
+                    graph.endEvaluation();
+                } else {
+                    graph.abortEvaluation();
+                }
             }
 
-            for (ResolvedProperty prop : resolvedProperties) {
-                registerListener(prop, this);
+            updateListeners();
+        }
+
+        // Moves the listeners of the slots whose dependencies changed
+        // during the last evaluation. The new ones are registered before
+        // the old ones are unregistered, so that listeners that are still
+        // needed stay in place.
+        private void updateListeners() {
+            int slotCount = graph.getSlotCount();
+
+            if (slotListeners.length < slotCount) {
+                RegisteredListener[][] grown = new RegisteredListener[slotCount][];
+                System.arraycopy(slotListeners, 0, grown, 0, slotListeners.length);
+                for (int i = slotListeners.length; i < slotCount; i++) {
+                    grown[i] = NO_LISTENERS;
+                }
+                slotListeners = grown;
             }
 
-            // Uninstall all listeners that are no longer along the path.
-            for (RegisteredListener listener : lastRegisteredListeners) {
-                unregisterListener(listener, this);
+            List<RegisteredListener[]> replaced = null;
+
+            for (int i = 0; i < slotCount; i++) {
+                if (!graph.isChanged(i)) {
+                    continue;
+                }
+
+                List<ResolvedProperty> dependencies = graph.getDependencies(i);
+                RegisteredListener[] listeners = new RegisteredListener[dependencies.size()];
+                int count = 0;
+                boolean tracked = true;
+
+                for (ResolvedProperty prop : dependencies) {
+                    RegisteredListener rl = registerListener(prop, this);
+                    if (rl == null) {
+                        tracked = false;
+                    } else {
+                        tracked &= rl.isObserved();
+                        listeners[count++] = rl;
+                    }
+                }
+
+                if (count < listeners.length) {
+                    RegisteredListener[] trimmed = new RegisteredListener[count];
+                    System.arraycopy(listeners, 0, trimmed, 0, count);
+                    listeners = trimmed;
+                }
+
+                if (replaced == null) {
+                    replaced = new ArrayList<RegisteredListener[]>(slotCount);
+                }
+
+                replaced.add(slotListeners[i]);
+                slotListeners[i] = listeners;
+
+                if (!tracked) {
+                    // a change we won't hear about may affect this slot
+                    graph.disableCaching(i);
+                }
             }
 
-            lastRegisteredListeners = null;
+            if (replaced != null) {
+                for (RegisteredListener[] listeners : replaced) {
+                    for (RegisteredListener rl : listeners) {
+                        unregisterListener(rl, this);
+                    }
+                }
+            }
         }
 
         // flag -1 - validate all
@@ -298,6 +393,7 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
             Object oldValue = cachedValue;
             boolean wasWriteable = cachedIsWriteable;
             updateCachedBean();
+            graph.invalidateAll();
             updateCache();
             notifyListeners(wasWriteable, oldValue, this);
         }
@@ -321,12 +417,23 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
                 property = property.intern();
             }
 
-            for (RegisteredListener rl : registeredListeners) {
-                if (rl.getSource() == source && (property == null || rl.getProperty() == property)) {
-                    processSourceChanged();
-                    break;
+            boolean affected = false;
+
+            // only the slots that depend on the changed property are
+            // computed again
+            for (int i = 0; i < slotListeners.length; i++) {
+                for (RegisteredListener rl : slotListeners[i]) {
+                    if (rl.getSource() == source && (property == null || rl.getProperty() == property)) {
+                        graph.invalidate(i);
+                        affected = true;
+                        break;
+                    }
                 }
             }
+
+            if (affected) {
+                processSourceChanged();
+            }
         }
 
         public void propertyChange(PropertyChangeEvent e) {
@@ -387,7 +494,12 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
         }
 
         try {
-            this.expression = new ExpressionFactoryImpl().createValueExpression(context, expression, Object.class);
+            ValueExpressionImpl template = TEMPLATES.get(expression);
+            if (template == null) {
+                template = TEMPLATES.putIfAbsent(expression,
+                        (ValueExpressionImpl)FACTORY.createValueExpression(context, expression, Object.class));
+            }
+            this.expression = template.copy();
         } catch (ELException ele) {
             throw new PropertyResolutionException("Error creating EL expression " + expression, ele);
         }
@@ -395,6 +507,27 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
         this.baseProperty = baseProperty;
     }
 
+    /**
+     * Returns the base property that the expression of this
+     * {@code ELProperty} is relative to.
+     *
+     * @return the base property, or {@code null} if the expression is
+     *         relative to the source object itself
+     * @see #create(Property, String)
+     */
+    public Property<S, ?> getBaseProperty() {
+        return baseProperty;
+    }
+
+    /**
+     * Returns the expression of this {@code ELProperty}.
+     *
+     * @return the expression
+     */
+    public String getExpression() {
+        return expression.getExpressionString();
+    }
+
     /**
      * {@inheritDoc}
      * <p>
@@ -511,6 +644,8 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
             }
  
             Object oldValue = entry.cachedValue;
+            // the change made by the write was ignored, so no slot knows of it
+            entry.graph.invalidateAll();
             // PENDING(shannonh) - too heavyweight; should just update cached value
             entry.updateCache();
             notifyListeners(entry.cachedIsWriteable, oldValue, entry);
@@ -657,6 +792,14 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
         }
     }
 
+    private static int templateCacheSize() {
+        try {
+            return Integer.getInteger("org.jdesktop.beansbinding.elPropertyCacheSize", 1000);
+        } catch (SecurityException se) {
+            return 1000;
+        }
+    }
+
     private static boolean didValueChange(Object oldValue, Object newValue) {
         return oldValue == null || newValue == null || !oldValue.equals(newValue);
     }
@@ -750,39 +893,54 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
         return src == NOREAD ? UNREADABLE : src;
     }
 
-    private void registerListener(ResolvedProperty resolved, SourceEntry entry) {
+    /*
+     * Returns the registered listener for the given dependency, registering
+     * it first if no slot used it yet, or null if it can't be listened to.
+     */
+    private RegisteredListener registerListener(ResolvedProperty resolved, SourceEntry entry) {
         Object source = resolved.getSource();
         Object property = resolved.getProperty();
-        if (source != null && property instanceof String) {
-            String sProp = (String)property;
+        if (source == null || !(property instanceof String)) {
+            return null;
+        }
 
-            if (source instanceof ObservableMap) {
-                RegisteredListener rl = new RegisteredListener(source, sProp);
+        String sProp = (String)property;
 
-                if (!entry.registeredListeners.contains(rl)) {
-                    if (!entry.lastRegisteredListeners.remove(rl)) {
-                        ((ObservableMap)source).addObservableMapListener(entry);
-                    }
-                    
-                    entry.registeredListeners.add(rl);
-                }
-            } else if (!(source instanceof Map)) {
-                source = getAdapter(source, sProp);
+        if (!(source instanceof ObservableMap)) {
+            if (source instanceof Map) {
+                return null;
+            }
 
-                RegisteredListener rl = new RegisteredListener(source, sProp);
+            source = getAdapter(source, sProp);
+        }
 
-                if (!entry.registeredListeners.contains(rl)) {
-                    if (!entry.lastRegisteredListeners.remove(rl)) {
-                        addPropertyChangeListener(source, entry);
-                    }
-                    
-                    entry.registeredListeners.add(rl);
-                }
+        RegisteredListener rl = new RegisteredListener(source, sProp);
+        RegisteredListener registered = entry.registeredListeners.get(rl);
+
+        if (registered == null) {
+            if (source instanceof ObservableMap) {
+                ((ObservableMap)source).addObservableMapListener(entry);
+                rl.observed = true;
+            } else {
+                rl.observed = addPropertyChangeListener(source, entry);
             }
+
+            entry.registeredListeners.put(rl, rl);
+            registered = rl;
         }
+
+        registered.slotCount++;
+        return registered;
     }
 
     private void unregisterListener(RegisteredListener rl, SourceEntry entry) {
+        if (--rl.slotCount == 0) {
+            entry.registeredListeners.remove(rl);
+            removeListener(rl, entry);
+        }
+    }
+
+    private void removeListener(RegisteredListener rl, SourceEntry entry) {
         Object source = rl.getSource();
         if (source instanceof ObservableMap) {
             ((ObservableMap)source).removeObservableMapListener(entry);
@@ -791,19 +949,17 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
         }
     }
 
-    /**
-     * @throws PropertyResolutionException
-     */
-    private static void addPropertyChangeListener(Object object, PropertyChangeListener listener) {
+    private static boolean addPropertyChangeListener(Object object, PropertyChangeListener listener) {
         EventSetDescriptor ed = getEventSetDescriptor(object);
         Method addPCMethod = null;
 
         if (ed == null || (addPCMethod = ed.getAddListenerMethod()) == null) {
             log("addPropertyChangeListener()", "can't add listener");
-            return;
+            return false;
         }
 
         invokeMethod(addPCMethod, object, listener);
+        return true;
     }
 
     /**
@@ -868,9 +1024,14 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
         }
     }
 
+    private static final RegisteredListener[] NO_LISTENERS = new RegisteredListener[0];
+
     private static final class RegisteredListener {
         private final Object source;
         private final String property;
+        // whether a listener could actually be added to the source
+        private boolean observed;
+        private int slotCount;
         
         RegisteredListener(Object source) {
             this(source, null);
@@ -892,6 +1053,10 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
             return property;
         }
 
+        boolean isObserved() {
+            return observed;
+        }
+
         public boolean equals(Object obj) {
             if (obj == this) {
                 return true;
@@ -0,0 +1,367 @@
+package org.jdesktop.beansbinding;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Formatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@code BindingMetrics} that collects the measurements it receives into
+ * a {@link Histogram} for each operation of each binding, by binding name,
+ * and for the cache updates and change notifications of each property, by
+ * property path.
+ * <p>
+ * A typical use is to install one while exercising an application, and to
+ * print the bindings that took the most time:
+ * <pre><code>
+ *    InMemoryBindingMetrics metrics = new InMemoryBindingMetrics();
+ *    BindingMetrics.install(metrics);
+ *    ...
+ *    System.out.println(metrics.report(20));
+ * </code></pre>
+ * <p>
+ * Bindings without a name are told apart by their source and target
+ * properties, so that the many unnamed bindings created for a table, for
+ * example, are collected together. Subclasses can override
+ * {@link #getBindingName} and {@link #getPropertyPath} to collect them
+ * differently. This class is thread-safe.
+ */
+public class InMemoryBindingMetrics extends BindingMetrics {
+    private static final int OPERATION_COUNT = BindingMetrics.Operation.values().length;
+
+    private final ConcurrentHashMap<String, Histogram[]> bindings =
+            new ConcurrentHashMap<String, Histogram[]>();
+    // the cache updates and the change notifications of each property
+    private final ConcurrentHashMap<String, Histogram[]> properties =
+            new ConcurrentHashMap<String, Histogram[]>();
+
+    /**
+     * A distribution of the durations of an operation, with the number of
+     * times it failed. Durations are counted in buckets that are each twice
+     * as wide as the one before, so percentiles are known to within a
+     * factor of two.
+     */
+    public static final class Histogram {
+        private final long[] buckets = new long[64];
+        private long count;
+        private long failures;
+        private long totalNanos;
+        private long maxNanos;
+
+        Histogram() {
+        }
+
+        private Histogram(Histogram histogram) {
+            synchronized (histogram) {
+                System.arraycopy(histogram.buckets, 0, buckets, 0, buckets.length);
+                count = histogram.count;
+                failures = histogram.failures;
+                totalNanos = histogram.totalNanos;
+                maxNanos = histogram.maxNanos;
+            }
+        }
+
+        synchronized void record(long nanos, boolean failed) {
+            nanos = Math.max(nanos, 0);
+            // bucket i holds durations from 2^i to 2^(i + 1) - 1, and 0
+            buckets[nanos == 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos)]++;
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            if (failed) {
+                failures++;
+            }
+        }
+
+        /**
+         * Returns the number of times the operation was measured.
+         *
+         * @return the number of measurements
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the number of times the operation failed.
+         *
+         * @return the number of failures
+         */
+        public long getFailureCount() {
+            return failures;
+        }
+
+        /**
+         * Returns the fraction of the measured operations that failed.
+         *
+         * @return the failure rate, from 0 to 1
+         */
+        public double getFailureRate() {
+            return count == 0 ? 0 : (double)failures / count;
+        }
+
+        /**
+         * Returns the total time taken by the operation.
+         *
+         * @return the total time, in nanoseconds
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * Returns the mean time taken by the operation.
+         *
+         * @return the mean time, in nanoseconds
+         */
+        public long getMeanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        /**
+         * Returns the longest time taken by the operation.
+         *
+         * @return the longest time, in nanoseconds
+         */
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        /**
+         * Returns an upper bound of the time within which the given
+         * percentage of the measured operations completed: the upper end of
+         * the bucket of the operation at that percentile, or the longest
+         * time if that's less.
+         *
+         * @param percent the percentage, from 0 to 100
+         * @return the time, in nanoseconds
+         */
+        public long getPercentileNanos(double percent) {
+            if (count == 0) {
+                return 0;
+            }
+
+            long rank = (long)Math.ceil(count * percent / 100);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank && seen != 0) {
+                    long bound = (i >= 62) ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+                    return Math.min(bound, maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+
+        private void add(Histogram histogram) {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] += histogram.buckets[i];
+            }
+            count += histogram.count;
+            failures += histogram.failures;
+            totalNanos += histogram.totalNanos;
+            maxNanos = Math.max(maxNanos, histogram.maxNanos);
+        }
+
+        public String toString() {
+            return "count=" + count +
+                   ", failures=" + failures +
+                   ", mean=" + getMeanNanos() +
+                   "ns, p99=" + getPercentileNanos(99) +
+                   "ns, max=" + maxNanos + "ns";
+        }
+    }
+
+    public void operationCompleted(Binding<?, ?, ?, ?> binding, BindingMetrics.Operation operation,
+                                   boolean failed, long nanos) {
+        histograms(bindings, getBindingName(binding), OPERATION_COUNT)[operation.ordinal()]
+                .record(nanos, failed);
+    }
+
+    public void cacheUpdated(Property<?, ?> property, Object source, long nanos) {
+        histograms(properties, getPropertyPath(property), 2)[0].record(nanos, false);
+    }
+
+    public void stateChangeFired(Property<?, ?> property, PropertyStateEvent event,
+                                 int listeners, long nanos) {
+        histograms(properties, getPropertyPath(property), 2)[1].record(nanos, false);
+    }
+
+    private static Histogram[] histograms(ConcurrentHashMap<String, Histogram[]> map,
+                                          String key, int length) {
+        Histogram[] histograms = map.get(key);
+        if (histograms == null) {
+            histograms = new Histogram[length];
+            for (int i = 0; i < length; i++) {
+                histograms[i] = new Histogram();
+            }
+            Histogram[] existing = map.putIfAbsent(key, histograms);
+            if (existing != null) {
+                histograms = existing;
+            }
+        }
+        return histograms;
+    }
+
+    /**
+     * Returns the name that the measurements of the given binding are
+     * collected under: its name, or, if it has none, a description of its
+     * source and target properties.
+     *
+     * @param binding the binding
+     * @return the name to collect the binding's measurements under
+     */
+    protected String getBindingName(Binding<?, ?, ?, ?> binding) {
+        String name = binding.getName();
+        if (name != null) {
+            return name;
+        }
+
+        return getPropertyPath(binding.getSourceProperty()) + " -> " +
+               getPropertyPath(binding.getTargetProperty());
+    }
+
+    /**
+     * Returns the path that the measurements of the given property are
+     * collected under, which is its {@code toString}.
+     *
+     * @param property the property
+     * @return the path to collect the property's measurements under
+     */
+    protected String getPropertyPath(Property<?, ?> property) {
+        return String.valueOf(property);
+    }
+
+    /**
+     * Returns the names of the bindings that have been measured.
+     *
+     * @return the names, sorted
+     */
+    public Set<String> getBindingNames() {
+        return new TreeSet<String>(bindings.keySet());
+    }
+
+    /**
+     * Returns the paths of the properties that have been measured.
+     *
+     * @return the paths, sorted
+     */
+    public Set<String> getPropertyPaths() {
+        return new TreeSet<String>(properties.keySet());
+    }
+
+    /**
+     * Returns a copy of the measurements of an operation of the bindings
+     * with the given name.
+     *
+     * @param name the binding name
+     * @param operation the operation
+     * @return the measurements, or {@code null} if no binding by that name
+     *         has been measured
+     */
+    public Histogram getHistogram(String name, BindingMetrics.Operation operation) {
+        Histogram[] histograms = bindings.get(name);
+        return histograms == null ? null : new Histogram(histograms[operation.ordinal()]);
+    }
+
+    /**
+     * Returns a copy of the measurements of the cache updates of the
+     * properties with the given path.
+     *
+     * @param path the property path
+     * @return the measurements, or {@code null} if no property by that path
+     *         has been measured
+     */
+    public Histogram getCacheUpdateHistogram(String path) {
+        Histogram[] histograms = properties.get(path);
+        return histograms == null ? null : new Histogram(histograms[0]);
+    }
+
+    /**
+     * Returns a copy of the measurements of the change notifications of the
+     * properties with the given path.
+     *
+     * @param path the property path
+     * @return the measurements, or {@code null} if no property by that path
+     *         has been measured
+     */
+    public Histogram getStateChangeHistogram(String path) {
+        Histogram[] histograms = properties.get(path);
+        return histograms == null ? null : new Histogram(histograms[1]);
+    }
+
+    /**
+     * Returns the names of the bindings that spent the most time syncing,
+     * by the total time of their refreshes and saves, most first.
+     *
+     * @param n the number of names to return at most
+     * @return the names
+     */
+    public List<String> getSlowestBindings(int n) {
+        final Map<String, Long> totals = new HashMap<String, Long>();
+        for (String name : bindings.keySet()) {
+            Histogram sync = syncHistogram(name);
+            if (sync.count != 0) {
+                totals.put(name, sync.totalNanos);
+            }
+        }
+
+        List<String> names = new ArrayList<String>(totals.keySet());
+        Collections.sort(names, new Comparator<String>() {
+            public int compare(String name1, String name2) {
+                int result = totals.get(name2).compareTo(totals.get(name1));
+                return result != 0 ? result : name1.compareTo(name2);
+            }
+        });
+        return names.subList(0, Math.min(Math.max(n, 0), names.size()));
+    }
+
+    // the refreshes and saves of the bindings with the given name together
+    private Histogram syncHistogram(String name) {
+        Histogram sync = new Histogram();
+        sync.add(getHistogram(name, BindingMetrics.Operation.REFRESH));
+        sync.add(getHistogram(name, BindingMetrics.Operation.SAVE));
+        return sync;
+    }
+
+    /**
+     * Returns a report of the bindings that spent the most time syncing,
+     * as returned by {@link #getSlowestBindings}: one line for each, with
+     * the measurements of its refreshes and saves together, and the number
+     * of source and target changes it handled.
+     *
+     * @param n the number of bindings to report at most
+     * @return the report
+     */
+    public String report(int n) {
+        Formatter report = new Formatter();
+        report.format("%-40s %10s %8s %12s %10s %10s %10s %10s%n",
+                      "binding", "syncs", "failed", "total(us)", "mean(us)",
+                      "p99(us)", "max(us)", "changes");
+        for (String name : getSlowestBindings(n)) {
+            Histogram sync = syncHistogram(name);
+            long changes = getHistogram(name, BindingMetrics.Operation.SOURCE_CHANGED).count +
+                           getHistogram(name, BindingMetrics.Operation.TARGET_CHANGED).count;
+            report.format("%-40s %10d %7.1f%% %12.1f %10.1f %10.1f %10.1f %10d%n",
+                          name, sync.count, sync.getFailureRate() * 100,
+                          sync.totalNanos / 1000.0, sync.getMeanNanos() / 1000.0,
+                          sync.getPercentileNanos(99) / 1000.0, sync.maxNanos / 1000.0,
+                          changes);
+        }
+        return report.toString();
+    }
+
+    /**
+     * Discards all measurements.
+     */
+    public void reset() {
+        bindings.clear();
+        properties.clear();
+    }
+}
@@ -6,6 +6,7 @@
 package org.jdesktop.beansbinding;
 
 import java.util.*;
+import org.jdesktop.observablecollections.ListenerList;
 
 /**
  * An abstract subclass of {@code Property} that helps with the management of
@@ -51,32 +52,32 @@ public abstract class PropertyHelper<S, V> extends Property<S, V> {
         this.ignoresSource = ignoresSource;
     }
 
-    private List<PropertyStateListener> getListeners(S source, boolean create) {
+    private ListenerList<PropertyStateListener> getListeners(S source, boolean create) {
         if (ignoresSource) {
-            List<PropertyStateListener> list = (List<PropertyStateListener>)listeners;
+            ListenerList<PropertyStateListener> list = (ListenerList<PropertyStateListener>)listeners;
 
             if (list == null && create) {
-                list = new ArrayList<PropertyStateListener>();
+                list = new ListenerList<PropertyStateListener>();
                 listeners = list;
             }
 
             return list;
         }
 
-        IdentityHashMap<S, List<PropertyStateListener>> map = (IdentityHashMap<S, List<PropertyStateListener>>)listeners;
+        IdentityHashMap<S, ListenerList<PropertyStateListener>> map = (IdentityHashMap<S, ListenerList<PropertyStateListener>>)listeners;
 
         if (map == null) {
             if (create) {
-                map = new IdentityHashMap<S, List<PropertyStateListener>>();
+                map = new IdentityHashMap<S, ListenerList<PropertyStateListener>>();
                 listeners = map;
             } else {
                 return null;
             }
         }
 
-        List<PropertyStateListener> list = map.get(source);
+        ListenerList<PropertyStateListener> list = map.get(source);
         if (list == null && create) {
-            list = new ArrayList<PropertyStateListener>();
+            list = new ListenerList<PropertyStateListener>();
             map.put(source, list);
         }
 
@@ -145,7 +146,7 @@ public abstract class PropertyHelper<S, V> extends Property<S, V> {
             return;
         }
 
-        List<PropertyStateListener> listeners = getListeners(source, true);
+        ListenerList<PropertyStateListener> listeners = getListeners(source, true);
         boolean wasListening = (listeners.size() != 0);
         listeners.add(listener);
 
@@ -162,7 +163,7 @@ public abstract class PropertyHelper<S, V> extends Property<S, V> {
             return;
         }
 
-        List<PropertyStateListener> listeners = getListeners(source, false);
+        ListenerList<PropertyStateListener> listeners = getListeners(source, false);
 
         if (listeners == null) {
             return;
@@ -173,6 +174,10 @@ public abstract class PropertyHelper<S, V> extends Property<S, V> {
         listeners.remove(listener);
 
         if (wasListening && listeners.size() == 0) {
+            if (!ignoresSource) {
+                // don't keep the source
+                ((IdentityHashMap<S, ListenerList<PropertyStateListener>>)this.listeners).remove(source);
+            }
             listeningStopped(ignoresSource ? null : source);
         }
     }
@@ -181,7 +186,7 @@ public abstract class PropertyHelper<S, V> extends Property<S, V> {
      * {@inheritDoc}
      */
     public final PropertyStateListener[] getPropertyStateListeners(S source) {
-         List<PropertyStateListener> listeners = getListeners(source, false);
+         ListenerList<PropertyStateListener> listeners = getListeners(source, false);
 
         if (listeners == null) {
             return new PropertyStateListener[0];
@@ -198,18 +203,35 @@ public abstract class PropertyHelper<S, V> extends Property<S, V> {
      * {@code PropertyHelper} is managing listeners for multiple sources, only
      * the listeners associated with the object returned by the
      * {@code PropertyStateEvent's getSourceObject()} method are notified.
+     * Listeners that are added or removed while listeners are being notified
+     * don't affect which are notified of this change.
      *
      * @param pse the {@code PropertyStateEvent} characterizing the state change
      */
     protected final void firePropertyStateChange(PropertyStateEvent pse) {
-        List<PropertyStateListener> listeners = getListeners((S)pse.getSourceObject(), false);
+        ListenerList<PropertyStateListener> listeners = getListeners((S)pse.getSourceObject(), false);
 
         if (listeners == null) {
             return;
         }
 
-        for (PropertyStateListener listener : listeners) {
-            listener.propertyStateChanged(pse);
+        BindingMetrics metrics = BindingMetrics.installed;
+        if (metrics == null) {
+            for (PropertyStateListener listener : listeners) {
+                listener.propertyStateChanged(pse);
+            }
+            return;
+        }
+
+        int count = listeners.size();
+        metrics.stateChangeStarted(this, pse);
+        long start = System.nanoTime();
+        try {
+            for (PropertyStateListener listener : listeners) {
+                listener.propertyStateChanged(pse);
+            }
+        } finally {
+            metrics.stateChangeFired(this, pse, count, System.nanoTime() - start);
         }
     }
 
@@ -222,7 +244,7 @@ public abstract class PropertyHelper<S, V> extends Property<S, V> {
      *         installed for the given source object
      */
     public final boolean isListening(S source) {
-         List<PropertyStateListener> listeners = getListeners(source, false);
+         ListenerList<PropertyStateListener> listeners = getListeners(source, false);
          return listeners != null && listeners.size() != 0;
     }
 
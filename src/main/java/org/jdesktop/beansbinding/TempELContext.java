@@ -9,6 +9,7 @@ import org.jdesktop.el.ELContext;
 import org.jdesktop.el.ELResolver;
 import org.jdesktop.el.FunctionMapper;
 import org.jdesktop.el.MapELResolver;
+import org.jdesktop.el.PropertyReader;
 import org.jdesktop.el.VariableMapper;
 import org.jdesktop.el.impl.lang.FunctionMapperImpl;
 import org.jdesktop.el.impl.lang.VariableMapperImpl;
@@ -20,15 +21,23 @@ import org.jdesktop.el.impl.lang.VariableMapperImpl;
  * @author Shannon Hickey
  */
 class TempELContext extends ELContext {
-    private final CompositeELResolver resolver;
-    private final VariableMapper variableMapper = new VariableMapperImpl();
-    private final FunctionMapper functionMapper = new FunctionMapperImpl();
+    // The resolvers keep no state, and nothing ever sets variables or
+    // functions, so every context shares the same ones. Apart from saving
+    // the allocations, this lets compiled expressions keep their inline
+    // caches across contexts.
+    private static final CompositeELResolver resolver = createResolver();
+    private static final VariableMapper variableMapper = new VariableMapperImpl();
+    private static final FunctionMapper functionMapper = new FunctionMapperImpl();
     
     public TempELContext() {
-        resolver = new CompositeELResolver();
+    }
+
+    private static CompositeELResolver createResolver() {
+        CompositeELResolver resolver = new CompositeELResolver();
         // PENDING(shannonh) - EL also has an ArrayELResolver. Should that be added too?
         resolver.add(new MapELResolver());
         resolver.add(new BeanDelegateELResolver());
+        return resolver;
     }
     
     public ELResolver getELResolver() {
@@ -43,7 +52,7 @@ class TempELContext extends ELContext {
         return variableMapper;
     }
     
-    private class BeanDelegateELResolver extends BeanELResolver {
+    private static class BeanDelegateELResolver extends BeanELResolver {
         public Iterator<FeatureDescriptor> getFeatureDescriptors(ELContext context, Object base) {
             Iterator<FeatureDescriptor> superDescriptors = super.getFeatureDescriptors(context, base);
 
@@ -97,6 +106,49 @@ class TempELContext extends ELContext {
                     property);
         }
 
+        public PropertyReader getPropertyReader(ELContext context, Class<?> baseClass, Object property) {
+            if (baseClass == null || !(property instanceof String)) {
+                return null;
+            }
+
+            // adapters are vended per object, so there's nothing to remember
+            int providerCount = BeanAdapterFactory.getProviderCount();
+            if (BeanAdapterFactory.providesAdapter(baseClass, (String) property)) {
+                return null;
+            }
+
+            PropertyReader reader = getBeanPropertyReader(context, baseClass, property);
+            if (reader == null || reader == PropertyReader.NOT_RESOLVED) {
+                // a provider added later could still resolve it
+                return null;
+            }
+
+            return new UnadaptedReader(reader, property, providerCount);
+        }
+
+        /**
+         * Reads a property that has no adapter, directly from the bean,
+         * for as long as no new adapter providers appear.
+         */
+        private final class UnadaptedReader extends PropertyReader {
+            private final PropertyReader reader;
+            private final Object property;
+            private final int providerCount;
+
+            UnadaptedReader(PropertyReader reader, Object property, int providerCount) {
+                this.reader = reader;
+                this.property = property;
+                this.providerCount = providerCount;
+            }
+
+            public Object getValue(ELContext context, Object base) {
+                if (BeanAdapterFactory.getProviderCount() != providerCount) {
+                    return BeanDelegateELResolver.this.getValue(context, base, property);
+                }
+                return reader.getValue(context, base);
+            }
+        }
+
         public Class<?> getType(ELContext context, Object base, Object property) {
             return super.getType(context, baseOrAdapter(base, property), 
                     property);
@@ -0,0 +1,153 @@
+package org.jdesktop.beansbinding;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Collects the source changes of {@code AutoBindings}, and syncs each
+ * changed binding once, later, instead of once per change.
+ * <p>
+ * An {@code AutoBinding} that has been given an {@code UpdateCoalescer}
+ * with {@link AutoBinding#setUpdateCoalescer} doesn't sync its target when
+ * the value of its source changes. It only marks itself as changed, and
+ * the coalescer syncs it the next time it's {@link #flush flushed}. As the
+ * sync reads the source at that time, the last value set wins, and a loop
+ * that sets a bound property 10,000 times results in one update of the
+ * target. The sync is the same one that the {@code AutoBinding} would have
+ * done right away, so its outcome is still reported to the
+ * {@code BindingListeners} as {@code synced} or {@code syncFailed}.
+ * <p>
+ * A coalescer created with an {@code Executor} flushes itself: the first
+ * change after a flush submits a flush to the executor. To flush once per
+ * event dispatch thread tick, use an executor that calls
+ * {@code EventQueue.invokeLater}, such as the one of the coalescer
+ * returned by {@code SwingBindings.createUpdateCoalescer()}. A coalescer
+ * created without an executor is only flushed by explicit calls to
+ * {@code flush}. If the executor rejects a flush, the changed bindings
+ * stay pending, the failure is reported to the current thread's
+ * {@code UncaughtExceptionHandler}, and the next change tries again.
+ * <p>
+ * Changes to the target, and changes in the writeability of the source,
+ * are still synced right away. Like {@code Bindings}, an
+ * {@code UpdateCoalescer} is meant to be used from a single thread,
+ * typically the event dispatch thread.
+ *
+ * @see AutoBinding#setUpdateCoalescer
+ */
+public final class UpdateCoalescer {
+    private final Executor executor;
+    private final Set<AutoBinding> pending = new LinkedHashSet<AutoBinding>();
+    private boolean scheduled;
+    // whether the last attempt to schedule a flush failed
+    private boolean rejected;
+
+    private final Runnable flusher = new Runnable() {
+        public void run() {
+            scheduled = false;
+            flush();
+        }
+    };
+
+    /**
+     * Creates an {@code UpdateCoalescer} that is only flushed by calls to
+     * {@link #flush}.
+     */
+    public UpdateCoalescer() {
+        this(null);
+    }
+
+    /**
+     * Creates an {@code UpdateCoalescer} that flushes itself on the given
+     * executor, after changes have been collected.
+     *
+     * @param executor the executor to flush on, or {@code null} to only
+     *        flush on calls to {@link #flush}
+     */
+    public UpdateCoalescer(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the executor that this coalescer flushes itself on.
+     *
+     * @return the executor, or {@code null}
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Returns whether any bindings are waiting to be synced.
+     *
+     * @return whether a flush would sync any bindings
+     */
+    public boolean isPending() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Syncs all bindings that have changed since the last flush, in the
+     * order in which they first changed. Bindings that change while they
+     * are being synced, for example because one binding's target is
+     * another's source, are synced by the same flush. If syncing a binding
+     * throws an exception, the bindings after it stay pending, and another
+     * flush is scheduled before the exception is thrown on.
+     */
+    public void flush() {
+        while (!pending.isEmpty()) {
+            List<AutoBinding> bindings = new ArrayList<AutoBinding>(pending);
+            pending.clear();
+
+            int synced = 0;
+            try {
+                for (; synced < bindings.size(); synced++) {
+                    bindings.get(synced).syncChanged(Binding.SOURCE_VALUE_CHANGED);
+                }
+            } finally {
+                if (synced < bindings.size()) {
+                    // ahead of the bindings changed by the syncs
+                    List<AutoBinding> rest = new ArrayList<AutoBinding>(
+                            bindings.subList(synced + 1, bindings.size()));
+                    rest.addAll(pending);
+                    pending.clear();
+                    pending.addAll(rest);
+                    if (!pending.isEmpty()) {
+                        schedule();
+                    }
+                }
+            }
+        }
+    }
+
+    void add(AutoBinding binding) {
+        pending.add(binding);
+        schedule();
+    }
+
+    private void schedule() {
+        if (executor == null || scheduled) {
+            return;
+        }
+
+        scheduled = true;
+        try {
+            executor.execute(flusher);
+            rejected = false;
+        } catch (RuntimeException e) {
+            // the bindings stay pending, and the next change tries again
+            scheduled = false;
+            if (!rejected) {
+                rejected = true;
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+    }
+
+    void remove(AutoBinding binding) {
+        pending.remove(binding);
+    }
+}
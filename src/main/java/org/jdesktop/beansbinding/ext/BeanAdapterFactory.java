@@ -5,28 +5,74 @@
 
 package org.jdesktop.beansbinding.ext;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.UnsupportedEncodingException;
 import java.lang.ref.WeakReference;
-import java.net.URL;
 import java.util.ArrayList;
-import java.util.Enumeration;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.beans.*;
 
+/**
+ * Finds and vends the adapters of the {@link BeanAdapterProvider
+ * BeanAdapterProviders} registered as services.
+ * <p>
+ * Providers are discovered with {@code ServiceLoader}, once for each
+ * context class loader that a lookup is made from. The providers that may
+ * provider of each adapted property, and the properties that no provider
+ * adapts, are found once per class, so that looking up a property that has
+ * no adapter, such as a property of a plain bean, costs little more than a
+ * map lookup. These decisions are made again when providers are added. All
+ * methods are safe to call from any thread.
+ */
 public final class BeanAdapterFactory {
+    private static final BeanAdapterProvider[] NO_PROVIDERS = new BeanAdapterProvider[0];
     private static final BeanAdapterFactory INSTANCE =  new BeanAdapterFactory();
-    private final Map<Object, List<VendedAdapter>> vendedAdapters;
-    private final List<BeanAdapterProvider> providers;
+    // the number of locks that the map of vended adapters is split under;
+    // a power of two
+    private static final int STRIPES = 16;
+    // the number of properties of a type, beyond which properties without
+    // an adapter aren't remembered
+    private static final int MAX_DECISIONS = 256;
+    // the decision for a property that no provider adapts
+    private static final BeanAdapterProvider NO_PROVIDER = new BeanAdapterProvider() {
+        public boolean providesAdapter(Class<?> type, String property) {
+            return false;
+        }
+
+        public Object createAdapter(Object source, String property) {
+            throw new IllegalArgumentException();
+        }
+
+        public Class<?> getAdapterClass(Class<?> type) {
+            return null;
+        }
+    };
+
+    private final Map<Object, List<VendedAdapter>>[] vendedAdapters;
+    // replaced, never modified, when providers are added
+    private volatile BeanAdapterProvider[] providers = NO_PROVIDERS;
+    // guarded by this
     private final Set<ClassLoader> classLoaders;
-    private final Set<URL> serviceURLs;
+    private final Set<Class<?>> providerClasses;
+    // the class loader that providers were last looked up for
+    private volatile WeakReference<ClassLoader> lastLoader = new WeakReference<ClassLoader>(null);
+    // lookups that found no adapter, answered from the cache or not
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder negativeMisses = new LongAdder();
+    private final ClassValue<TypeProviders> typeProviders = new ClassValue<TypeProviders>() {
+        protected TypeProviders computeValue(Class<?> type) {
+            return new TypeProviders(type, providers);
+        }
+    };
 
     public static Object getAdapter(Object source, String property) {
         return INSTANCE.getAdapter0(source, property);
@@ -36,61 +82,92 @@ public final class BeanAdapterFactory {
         return INSTANCE.getAdapterPropertyDescriptors0(type);
     }
 
+    /**
+     * Returns whether an adapter is provided for the given property of
+     * objects of the given type.
+     */
+    public static boolean providesAdapter(Class<?> type, String property) {
+        return INSTANCE.providesAdapter0(type, property);
+    }
+
+    /**
+     * Returns the number of known providers. Providers are only ever added,
+     * so the answers of {@code providesAdapter} remain valid for as long
+     * as this number stays the same.
+     */
+    public static int getProviderCount() {
+        return INSTANCE.getProviderCount0();
+    }
+
+    /**
+     * Returns the number of lookups, by {@code getAdapter} or
+     * {@code providesAdapter}, that found no adapter without asking the
+     * providers, as that was already known.
+     */
+    public static long getNegativeCacheHits() {
+        return INSTANCE.negativeHits.sum();
+    }
+
+    /**
+     * Returns the number of lookups, by {@code getAdapter} or
+     * {@code providesAdapter}, that asked the providers and found no
+     * adapter.
+     */
+    public static long getNegativeCacheMisses() {
+        return INSTANCE.negativeMisses.sum();
+    }
+
+    @SuppressWarnings("unchecked")
     public BeanAdapterFactory() {
-        this.providers = new ArrayList<BeanAdapterProvider>();
-        classLoaders = new HashSet<ClassLoader>();
-        serviceURLs = new HashSet<URL>();
-        vendedAdapters = new WeakHashMap<Object, List<VendedAdapter>>();
+        classLoaders = Collections.newSetFromMap(new WeakHashMap<ClassLoader, Boolean>());
+        providerClasses = new HashSet<Class<?>>();
+        vendedAdapters = new Map[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            vendedAdapters[i] = new WeakHashMap<Object, List<VendedAdapter>>();
+        }
     }
 
     private void loadProvidersIfNecessary() {
         ClassLoader currentLoader = Thread.currentThread().getContextClassLoader();
-        if (!classLoaders.contains(currentLoader)) {
-            classLoaders.add(currentLoader);
+        if (currentLoader == null) {
+            currentLoader = ClassLoader.getSystemClassLoader();
+        }
+
+        if (lastLoader.get() != currentLoader) {
             loadProviders(currentLoader);
+            lastLoader = new WeakReference<ClassLoader>(currentLoader);
         }
     }
-    
-    private void loadProviders(ClassLoader classLoader) {
-        // PENDING: this needs to be rewriten in terms of ServiceLoader
-        String serviceName = "META-INF/services/" + 
-                BeanAdapterProvider.class.getName();
-        try {
-            Enumeration<URL> urls = classLoader.getResources(serviceName);
-            while (urls.hasMoreElements()) {
-                URL url = urls.nextElement();
-                if (!serviceURLs.contains(url)) {
-                    serviceURLs.add(url);
-                    addProviders(url);
-                }
-            }
-        } catch (IOException ex) {
+
+    private synchronized void loadProviders(ClassLoader classLoader) {
+        if (!classLoaders.add(classLoader)) {
+            return;
         }
-    }
-    
-    private void addProviders(URL url) {
-        InputStream inputStream = null;
-        BufferedReader reader = null;
-        try {
-            inputStream = url.openStream();
-            reader = new BufferedReader(new InputStreamReader(inputStream, "utf-8"));
-            String line;
-            while ((line = reader.readLine()) != null) {
-                try {
-                    providers.add((BeanAdapterProvider)Class.forName(line).newInstance());
-                } catch (IllegalAccessException ex) {
-                } catch (InstantiationException ex) {
-                } catch (ClassNotFoundException ex) {
+
+        List<BeanAdapterProvider> added = new ArrayList<BeanAdapterProvider>();
+        Iterator<BeanAdapterProvider> it =
+                ServiceLoader.load(BeanAdapterProvider.class, classLoader).iterator();
+        while (true) {
+            try {
+                if (!it.hasNext()) {
+                    break;
                 }
+                BeanAdapterProvider provider = it.next();
+                // a loader also sees the providers of its parents
+                if (providerClasses.add(provider.getClass())) {
+                    added.add(provider);
+                }
+            } catch (ServiceConfigurationError e) {
+                // skip a provider that can't be loaded
             }
-        } catch (UnsupportedEncodingException ex) {
-        } catch (IOException ex) {
         }
-        if (reader != null) {
-            try {
-                reader.close();
-            } catch (IOException ex) {
+
+        if (!added.isEmpty()) {
+            BeanAdapterProvider[] all = Arrays.copyOf(providers, providers.length + added.size());
+            for (int i = 0; i < added.size(); i++) {
+                all[providers.length + i] = added.get(i);
             }
+            providers = all;
         }
     }
 
@@ -99,38 +176,85 @@ public final class BeanAdapterFactory {
             throw new IllegalArgumentException();
         }
         loadProvidersIfNecessary();
-        property = property.intern();
-        BeanAdapterProvider provider = getProvider(source, property);
-        if (provider != null) {
-            List<VendedAdapter> adapters = vendedAdapters.get(source);
+        BeanAdapterProvider provider = getProvider(source.getClass(), property);
+        if (provider == null) {
+            return null;
+        }
+
+        Map<Object, List<VendedAdapter>> stripe =
+                vendedAdapters[System.identityHashCode(source) & (STRIPES - 1)];
+        synchronized (stripe) {
+            List<VendedAdapter> adapters = stripe.get(source);
             if (adapters != null) {
                 for (int i = adapters.size() - 1; i >= 0; i--) {
                     VendedAdapter vendedAdapter = adapters.get(i);
                     Object adapter = vendedAdapter.getAdapter();
                     if (adapter == null) {
-                        vendedAdapters.remove(i);
-                    } else if (vendedAdapter.getProvider() == provider && vendedAdapter.getProperty() == property) {
+                        adapters.remove(i);
+                    } else if (vendedAdapter.getProvider() == provider && vendedAdapter.getProperty().equals(property)) {
                         return adapter;
                     }
                 }
             } else {
                 adapters = new ArrayList<VendedAdapter>(1);
-                vendedAdapters.put(source, adapters);
+                stripe.put(source, adapters);
             }
-            Object adapter = provider.createAdapter(source, property);
+            // providers may compare properties by identity
+            Object adapter = provider.createAdapter(source, property.intern());
             adapters.add(new VendedAdapter(property, provider, adapter));
             return adapter;
         }
-        return null;
     }
-    
-    private BeanAdapterProvider getProvider(Object source, String property) {
-        Class<?> type = source.getClass();
-        for (BeanAdapterProvider provider : providers) {
-            if (provider.providesAdapter(type, property)) {
-                return provider;
+
+    private boolean providesAdapter0(Class<?> type, String property) {
+        if (type == null || property == null) {
+            throw new IllegalArgumentException();
+        }
+        loadProvidersIfNecessary();
+        return getProvider(type, property) != null;
+    }
+
+    private int getProviderCount0() {
+        loadProvidersIfNecessary();
+        return providers.length;
+    }
+
+    /*
+     * Returns the providers of the given type, found again if providers
+     * were added since they were last found.
+     */
+    private TypeProviders getTypeProviders(Class<?> type) {
+        TypeProviders result = typeProviders.get(type);
+        if (result.providers != providers) {
+            typeProviders.remove(type);
+            result = typeProviders.get(type);
+        }
+        return result;
+    }
+
+    private BeanAdapterProvider getProvider(Class<?> type, String property) {
+        TypeProviders candidates = getTypeProviders(type);
+        BeanAdapterProvider provider = candidates.decisions.get(property);
+        if (provider == NO_PROVIDER) {
+            negativeHits.increment();
+            return null;
+        } else if (provider != null) {
+            return provider;
+        }
+
+        // providers may compare properties by identity
+        property = property.intern();
+        for (BeanAdapterProvider candidate : candidates.candidates) {
+            if (candidate.providesAdapter(type, property)) {
+                candidates.decisions.putIfAbsent(property, candidate);
+                return candidate;
             }
         }
+
+        negativeMisses.increment();
+        if (candidates.decisions.size() < MAX_DECISIONS) {
+            candidates.decisions.putIfAbsent(property, NO_PROVIDER);
+        }
         return null;
     }
 
@@ -148,10 +272,10 @@ public final class BeanAdapterFactory {
         }
 
         loadProvidersIfNecessary();
-        
+
         ArrayList<PropertyDescriptor> des = new ArrayList<PropertyDescriptor>();
 
-        for (BeanAdapterProvider provider : providers) {
+        for (BeanAdapterProvider provider : getTypeProviders(type).candidates) {
             Class<?> pdType = provider.getAdapterClass(type);
             if (pdType != null) {
                 BeanInfo info = getBeanInfo(pdType);
@@ -167,10 +291,39 @@ public final class BeanAdapterFactory {
                 }
             }
         }
-        
+
         return des;
     }
-    
+
+    /*
+     * The providers of a type, those that have an adapter class for it
+     * first. Providers without one are still asked, as not every provider
+     * returns an adapter class for the types it adapts. The provider of
+     * each property, or NO_PROVIDER, is remembered once found.
+     */
+    private static final class TypeProviders {
+        // all providers at the time these were found
+        private final BeanAdapterProvider[] providers;
+        private final BeanAdapterProvider[] candidates;
+        private final ConcurrentHashMap<String, BeanAdapterProvider> decisions =
+                new ConcurrentHashMap<String, BeanAdapterProvider>();
+
+        TypeProviders(Class<?> type, BeanAdapterProvider[] providers) {
+            this.providers = providers;
+            List<BeanAdapterProvider> candidates = new ArrayList<BeanAdapterProvider>(providers.length);
+            List<BeanAdapterProvider> others = new ArrayList<BeanAdapterProvider>(0);
+            for (BeanAdapterProvider provider : providers) {
+                if (provider.getAdapterClass(type) != null) {
+                    candidates.add(provider);
+                } else {
+                    others.add(provider);
+                }
+            }
+            candidates.addAll(others);
+            this.candidates = candidates.toArray(NO_PROVIDERS);
+        }
+    }
+
     private static final class VendedAdapter {
         private final BeanAdapterProvider provider;
         private final String property;
@@ -189,7 +342,7 @@ public final class BeanAdapterFactory {
         public String getProperty() {
             return property;
         }
-        
+
         public BeanAdapterProvider getProvider() {
             return provider;
         }
@@ -13,6 +13,11 @@ public interface BeanAdapterProvider {
 
     public abstract boolean providesAdapter(Class<?> type, String property);
     public abstract Object createAdapter(Object source, String property);
+
+    /**
+     * Returns the class of the adapters for objects of the given type, or
+     * {@code null} if no property of the type is adapted.
+     */
     public abstract Class<?> getAdapterClass(Class<?> type);
 
 }
@@ -17,7 +17,9 @@ import java.util.Iterator;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.concurrent.ConcurrentHashMap;
+
+import org.jdesktop.el.impl.util.BoundedCache;
+import org.jdesktop.el.impl.util.MethodAccessor;
 
 /**
  * Defines property resolution behavior on objects using the JavaBeans
@@ -51,14 +53,11 @@ public class BeanELResolver extends ELResolver {
 
     private boolean isReadOnly;
 
-    // Set a limit for the number of beans in the cache.
-    private final static int SIZE = 2000;
-    // Two maps are used here, to facilitate discarding the older cache
-    // when cache size reaches the limit.
-    private static final Map<Class, BeanProperties> properties =
-        new ConcurrentHashMap<Class, BeanProperties>(SIZE);
-    private static final Map<Class, BeanProperties> properties2 =
-        new ConcurrentHashMap<Class, BeanProperties>(SIZE);
+    // The number of beans in the cache is limited, to 2000 or the value of
+    // the system property org.jdesktop.el.beanCacheSize; the least used are
+    // evicted first.
+    private static final BoundedCache<Class, BeanProperties> properties =
+        new BoundedCache<Class, BeanProperties>(cacheSize());
                                                                                 
     /*
      * Defines a property for a bean.
@@ -67,6 +66,8 @@ public class BeanELResolver extends ELResolver {
 
         private Method readMethod;
         private Method writeMethod;
+        private MethodAccessor readAccessor;
+        private MethodAccessor writeAccessor;
         private Class baseClass;
         private PropertyDescriptor descriptor;
                                                                                 
@@ -97,6 +98,26 @@ public class BeanELResolver extends ELResolver {
             }
             return writeMethod;
         }
+
+        MethodAccessor getReadAccessor() {
+            if (readAccessor == null) {
+                Method method = getReadMethod();
+                if (method != null) {
+                    readAccessor = MethodAccessor.create(method);
+                }
+            }
+            return readAccessor;
+        }
+
+        MethodAccessor getWriteAccessor() {
+            if (writeAccessor == null) {
+                Method method = getWriteMethod();
+                if (method != null) {
+                    writeAccessor = MethodAccessor.create(method);
+                }
+            }
+            return writeAccessor;
+        }
     }
                                                                                 
     /*
@@ -240,15 +261,21 @@ public class BeanELResolver extends ELResolver {
             return null;
         }
 
-        Method method;
+        MethodAccessor method;
         BeanProperty bp = getBeanProperty(context, base, property);
-        if (bp == null || (method = bp.getReadMethod()) == null) {
+        if (bp == null || (method = bp.getReadAccessor()) == null) {
             return null;
         }
 
+        return read(context, method, base);
+    }
+
+    private static Object read(ELContext context,
+                               MethodAccessor method,
+                               Object base) {
         Object value;
         try {
-            value = method.invoke(base, new Object[0]);
+            value = method.invoke(base);
             context.setPropertyResolved(true);
         } catch (ELException ex) {
             throw ex;
@@ -260,6 +287,77 @@ public class BeanELResolver extends ELResolver {
         return value;
     }
 
+    /**
+     * Returns a reader that reads the given property from beans of the
+     * given class, by calling its read method.
+     *
+     * <p>Returns {@link PropertyReader#NOT_RESOLVED} if the class has no
+     * readable property of that name, and <code>null</code> if this is an
+     * instance of a subclass, which may resolve properties differently.
+     * Subclasses that only change which object a property is read from can
+     * build their readers with {@link #getBeanPropertyReader}.</p>
+     *
+     * @param context The context of this evaluation.
+     * @param baseClass The class of the beans.
+     * @param property The name of the property to read. Will be coerced to
+     *     a <code>String</code>.
+     * @return A reader for the property, {@link PropertyReader#NOT_RESOLVED}
+     *     or <code>null</code>.
+     * @throws ELException if the class can't be introspected.
+     */
+    public PropertyReader getPropertyReader(ELContext context,
+                                            Class<?> baseClass,
+                                            Object property) {
+        if (getClass() != BeanELResolver.class) {
+            return null;
+        }
+
+        return getBeanPropertyReader(context, baseClass, property);
+    }
+
+    /**
+     * Returns a reader that reads the given property from beans of the
+     * given class by calling its read method, as the
+     * <code>getValue</code> method of this class does.
+     *
+     * @param context The context of this evaluation.
+     * @param baseClass The class of the beans.
+     * @param property The name of the property to read. Will be coerced to
+     *     a <code>String</code>.
+     * @return A reader for the property, {@link PropertyReader#NOT_RESOLVED}
+     *     if the class has no readable property of that name, or
+     *     <code>null</code> if <code>baseClass</code> or
+     *     <code>property</code> is <code>null</code>.
+     * @throws ELException if the class can't be introspected.
+     */
+    protected final PropertyReader getBeanPropertyReader(ELContext context,
+                                                         Class<?> baseClass,
+                                                         Object property) {
+        if (baseClass == null || property == null) {
+            return null;
+        }
+
+        MethodAccessor method;
+        BeanProperty bp = getBeanProperty(baseClass, property);
+        if (bp == null || (method = bp.getReadAccessor()) == null) {
+            return PropertyReader.NOT_RESOLVED;
+        }
+
+        return new BeanPropertyReader(method);
+    }
+
+    private static final class BeanPropertyReader extends PropertyReader {
+        private final MethodAccessor method;
+
+        BeanPropertyReader(MethodAccessor method) {
+            this.method = method;
+        }
+
+        public Object getValue(ELContext context, Object base) {
+            return read(context, method, base);
+        }
+    }
+
     /**
      * If the base object is not <code>null</code>, attempts to set the
      * value of the given property on this bean.
@@ -317,7 +415,7 @@ public class BeanELResolver extends ELResolver {
         } 
 
         BeanProperty bp = getBeanProperty(context, base, property);
-        Method method = bp.getWriteMethod();
+        MethodAccessor method = bp.getWriteAccessor();
         if (method == null) {
             throw new PropertyNotWritableException(
                         ELUtil.getExceptionMessageString(context,
@@ -327,7 +425,7 @@ public class BeanELResolver extends ELResolver {
         }
 
         try {
-            method.invoke(base, new Object[] {val});
+            method.invoke(base, val);
             context.setPropertyResolved(true);
         } catch (ELException ex) {
             throw ex;
@@ -525,21 +623,24 @@ public class BeanELResolver extends ELResolver {
     private BeanProperty getBeanProperty(ELContext context,
                                          Object base,
                                          Object prop) {
+        return getBeanProperty(base.getClass(), prop);
+    }
 
+    private static BeanProperty getBeanProperty(Class baseClass, Object prop) {
         String property = prop.toString();
-        Class baseClass = base.getClass();
         BeanProperties bps = properties.get(baseClass);
-        if (bps == null && (bps = properties2.get(baseClass)) == null) {
-            if (properties.size() > SIZE) {
-                // Discard the old map to limit the cache size.
-                properties2.clear();
-                properties2.putAll(properties);
-                properties.clear();
-            }
-            bps = new BeanProperties(baseClass);
-            properties.put(baseClass, bps);
+        if (bps == null) {
+            bps = properties.putIfAbsent(baseClass, new BeanProperties(baseClass));
         }
         return bps.getBeanProperty(property);
     }
+
+    private static int cacheSize() {
+        try {
+            return Integer.getInteger("org.jdesktop.el.beanCacheSize", 2000);
+        } catch (SecurityException se) {
+            return 2000;
+        }
+    }
 }
 
@@ -131,6 +131,37 @@ public class CompositeELResolver extends ELResolver {
         return ELContext.UNRESOLVABLE_RESULT;
     }
 
+    /**
+     * Returns the reader of the first component resolver that resolves the
+     * given property for base objects of the given class.
+     *
+     * <p>The component resolvers are asked in the order in which they were
+     * added. Resolvers that return {@link PropertyReader#NOT_RESOLVED} are
+     * skipped. If a resolver returns <code>null</code>, or if none of them
+     * resolves the property, <code>null</code> is returned.</p>
+     *
+     * @param context The context of this evaluation.
+     * @param baseClass The class of the base objects.
+     * @param property The property to be read.
+     * @return A reader for the property, or <code>null</code>.
+     * @throws ELException if an exception was thrown while resolving the
+     *     property.
+     */
+    public PropertyReader getPropertyReader(ELContext context,
+                                            Class<?> baseClass,
+                                            Object property) {
+        int i = 0, len = this.elResolvers.size();
+        while (i < len) {
+            PropertyReader reader = this.elResolvers.get(i).getPropertyReader(
+                context, baseClass, property);
+            if (reader != PropertyReader.NOT_RESOLVED) {
+                return reader;
+            }
+            i++;
+        }
+        return null;
+    }
+
     /**
      * For a given <code>base</code> and <code>property</code>, attempts to
      * identify the most general type that is acceptable for an object to be 
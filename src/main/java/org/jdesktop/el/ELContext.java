@@ -107,6 +107,9 @@ public abstract class ELContext {
         if((key == null) || (contextObject == null)) {
             throw new NullPointerException();
         }
+        if (map == null) {
+            map = new HashMap();
+        }
         map.put(key, contextObject);
     }
 
@@ -132,7 +135,7 @@ public abstract class ELContext {
         if(key == null) {
             throw new NullPointerException();
         }
-        return map.get(key);
+        return map == null ? null : map.get(key);
     }
                       
     /**
@@ -204,7 +207,8 @@ public abstract class ELContext {
     public abstract VariableMapper getVariableMapper();
 
     private boolean resolved;
-    private HashMap map = new HashMap();
+    // created on first use; most contexts never hold context objects
+    private HashMap map;
 
 
 }
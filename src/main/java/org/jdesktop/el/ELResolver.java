@@ -122,6 +122,34 @@ public abstract class ELResolver {
                                     Object base,
                                     Object property);
 
+    /**
+     * Returns a reader that reads the given property from base objects of
+     * the given class, exactly as {@link #getValue} would, so that callers
+     * can remember how the property is resolved and skip the resolution
+     * next time.
+     *
+     * <p>A resolver can only return a reader if its handling of the
+     * property depends on nothing but the class of the base object. It
+     * returns {@link PropertyReader#NOT_RESOLVED} if it never handles the
+     * property for that class, and <code>null</code> if it can't say, in
+     * which case the caller must use <code>getValue</code>.</p>
+     *
+     * <p>The default implementation returns <code>null</code>.</p>
+     *
+     * @param context The context of this evaluation.
+     * @param baseClass The class of the base objects.
+     * @param property The property to be read.
+     * @return A reader for the property, {@link PropertyReader#NOT_RESOLVED}
+     *     or <code>null</code>.
+     * @throws ELException if an exception was thrown while resolving the
+     *     property.
+     */
+    public PropertyReader getPropertyReader(ELContext context,
+                                            Class<?> baseClass,
+                                            Object property) {
+        return null;
+    }
+
     /**
      * For a given <code>base</code> and <code>property</code>, attempts to
      * identify the most general type that is acceptable for an object to be 
@@ -148,6 +148,47 @@ public class MapELResolver extends ELResolver {
         return null;
     }
 
+    /**
+     * If base objects of the given class are maps, returns a reader that
+     * reads the value associated with the given key.
+     *
+     * <p>Returns {@link PropertyReader#NOT_RESOLVED} for other classes, and
+     * <code>null</code> if this is an instance of a subclass, which may
+     * resolve properties differently.</p>
+     *
+     * @param context The context of this evaluation.
+     * @param baseClass The class of the base objects.
+     * @param property The key whose associated value is to be read.
+     * @return A reader for the key, {@link PropertyReader#NOT_RESOLVED}
+     *     or <code>null</code>.
+     */
+    public PropertyReader getPropertyReader(ELContext context,
+                                            Class<?> baseClass,
+                                            Object property) {
+        if (getClass() != MapELResolver.class || baseClass == null) {
+            return null;
+        }
+
+        if (!Map.class.isAssignableFrom(baseClass)) {
+            return PropertyReader.NOT_RESOLVED;
+        }
+
+        return new MapReader(property);
+    }
+
+    private static final class MapReader extends PropertyReader {
+        private final Object property;
+
+        MapReader(Object property) {
+            this.property = property;
+        }
+
+        public Object getValue(ELContext context, Object base) {
+            context.setPropertyResolved(true);
+            return ((Map) base).get(property);
+        }
+    }
+
     static private Class<?> theUnmodifiableMapClass =
         Collections.unmodifiableMap(new HashMap()).getClass();
 
@@ -0,0 +1,50 @@
+package org.jdesktop.el;
+
+/**
+ * The decision an {@link ELResolver} has made about reading one property
+ * from base objects of one class, in a form that can be remembered and
+ * reused.
+ *
+ * <p>A <code>PropertyReader</code> is obtained from
+ * {@link ELResolver#getPropertyReader} for a (class, property) pair. For any
+ * base object of exactly that class, calling {@link #getValue} on the
+ * reader must have the same effect as calling
+ * {@link ELResolver#getValue} on the resolver with that base and property,
+ * including setting the <code>propertyResolved</code> property of the
+ * <code>ELContext</code>. Expression evaluators keep readers in inline
+ * caches, keyed by the class of the base object, so that repeated
+ * evaluations don't have to search the resolver chain again.</p>
+ *
+ * @see ELResolver#getPropertyReader
+ */
+public abstract class PropertyReader {
+
+    /**
+     * Returned by {@link ELResolver#getPropertyReader} when the resolver
+     * never resolves the given property for base objects of the given
+     * class: its <code>getValue</code> method leaves the
+     * <code>propertyResolved</code> property alone, and has no other
+     * effect. A {@link CompositeELResolver} uses this to skip over the
+     * resolver.
+     */
+    public static final PropertyReader NOT_RESOLVED = new PropertyReader() {
+        public Object getValue(ELContext context, Object base) {
+            return null;
+        }
+    };
+
+    /**
+     * Reads the property from the given base object, which must be of the
+     * class that this reader was obtained for.
+     *
+     * @param context The context of this evaluation.
+     * @param base The object to read the property from.
+     * @return The value of the property, if the <code>propertyResolved</code>
+     *     property of the <code>ELContext</code> was set to <code>true</code>.
+     *     Otherwise, undefined.
+     * @throws ELException if an exception was thrown while reading the
+     *     property. The thrown exception must be included as the cause
+     *     property of this exception, if available.
+     */
+    public abstract Object getValue(ELContext context, Object base);
+}
@@ -23,9 +23,11 @@ import org.jdesktop.el.PropertyNotWritableException;
 import org.jdesktop.el.ValueExpression;
 import org.jdesktop.el.VariableMapper;
 
+import org.jdesktop.el.impl.lang.DependencyGraph;
 import org.jdesktop.el.impl.lang.ELSupport;
 import org.jdesktop.el.impl.lang.EvaluationContext;
 import org.jdesktop.el.impl.lang.ExpressionBuilder;
+import org.jdesktop.el.impl.lang.ExpressionCompiler;
 import org.jdesktop.el.impl.parser.AstLiteralExpression;
 import org.jdesktop.el.impl.parser.Node;
 import org.jdesktop.el.impl.util.ReflectionUtil;
@@ -91,6 +93,11 @@ public final class ValueExpressionImpl extends ValueExpression implements
 
     private transient Node node;
 
+    private transient ExpressionCompiler.CompiledNode compiled;
+
+    // for evaluation with a DependencyGraph while compilation is off
+    private transient ExpressionCompiler.CompiledNode interpreted;
+
     public ValueExpressionImpl() {
 
     }
@@ -151,6 +158,46 @@ public final class ValueExpressionImpl extends ValueExpression implements
         return this.node;
     }
 
+    /**
+     * Returns a new expression for the same expression string, which shares
+     * this expression's parsed and compiled form, but has a source of its
+     * own. This is much cheaper than parsing the expression again.
+     *
+     * @return a copy of this expression, without a source
+     * @throws ELException if the expression can't be parsed
+     */
+    public ValueExpressionImpl copy() throws ELException {
+        ValueExpressionImpl copy = new ValueExpressionImpl(this.expr,
+                this.getNode(), this.fnMapper, this.varMapper, this.expectedType);
+        if (ExpressionCompiler.isEnabled()) {
+            if (this.compiled == null) {
+                this.compiled = ExpressionCompiler.compile(this.getNode());
+            }
+            copy.compiled = this.compiled;
+        }
+        return copy;
+    }
+
+    /**
+     * Evaluates the expression, through its compiled form unless
+     * compilation has been turned off.
+     */
+    private Object evaluate(EvaluationContext ctx) throws ELException {
+        if (!ExpressionCompiler.isEnabled()) {
+            if (ctx.getDependencyGraph() == null) {
+                return this.getNode().getValue(ctx);
+            }
+            if (this.interpreted == null) {
+                this.interpreted = ExpressionCompiler.interpret(this.getNode());
+            }
+            return this.interpreted.getValue(ctx);
+        }
+        if (this.compiled == null) {
+            this.compiled = ExpressionCompiler.compile(this.getNode());
+        }
+        return this.compiled.getValue(ctx);
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -172,7 +219,7 @@ public final class ValueExpressionImpl extends ValueExpression implements
             ELException {
         EvaluationContext ctx = new EvaluationContext(context, this.fnMapper,
                 this.varMapper, this);
-        Object value = this.getNode().getValue(ctx);
+        Object value = this.evaluate(ctx);
         if (this.expectedType != null) {
             return ELSupport.coerceToType(value, this.expectedType);
         }
@@ -181,8 +228,28 @@ public final class ValueExpressionImpl extends ValueExpression implements
     
     public Result getResult(ELContext context, boolean trackResolvedObjects) throws PropertyNotFoundException, 
             ELException {
-        EvaluationContext ctx = new EvaluationContext(context, this.fnMapper, this.varMapper, this, trackResolvedObjects);
-        Object value = this.getNode().getValue(ctx);
+        return getResult(context, trackResolvedObjects, null);
+    }
+
+    /**
+     * Evaluates the expression, like {@link #getResult(ELContext, boolean)},
+     * but reuses the values that the given graph remembers for the parts
+     * of the expression that haven't been invalidated since the last
+     * evaluation with it. The caller must complete the evaluation with
+     * {@link DependencyGraph#endEvaluation} or
+     * {@link DependencyGraph#abortEvaluation}.
+     *
+     * @param context the context of this evaluation
+     * @param trackResolvedObjects whether to return the resolved properties
+     * @param graph the graph to evaluate with, or {@code null}
+     * @return the result of the evaluation
+     * @throws ELException if an exception was thrown while evaluating
+     */
+    public Result getResult(ELContext context, boolean trackResolvedObjects, DependencyGraph graph)
+            throws PropertyNotFoundException, ELException {
+        EvaluationContext ctx = new EvaluationContext(context, this.fnMapper, this.varMapper, this,
+                                                      trackResolvedObjects, graph);
+        Object value = this.evaluate(ctx);
 
         List<ResolvedProperty> resolvedProperties;
 
@@ -0,0 +1,271 @@
+package org.jdesktop.el.impl.lang;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.jdesktop.el.Expression.ResolvedProperty;
+
+/**
+ * Remembers, across evaluations of one compiled expression against one
+ * source, the value of each of the expression's dependency slots and the
+ * properties that each value was computed from.
+ * <p>
+ * A compiled expression is divided into slots: each property path (such
+ * as {@code a.b.c}) outside of another path is one slot, as is each part
+ * of the expression that is evaluated by the interpreter. The operators
+ * that combine slots depend on nothing but their operands. When an
+ * expression is evaluated with a {@code DependencyGraph}, a slot that is
+ * still valid returns its remembered value, and replays the property
+ * resolutions it made when it was computed, without reading anything;
+ * only slots that have been invalidated are computed again. So, after a
+ * change to one property, {@code ${a.b.c + x.y.z}} only reads one of its
+ * two paths again.
+ * <p>
+ * The owner of a graph is responsible for invalidating the slots whose
+ * dependencies change, typically by listening to the properties returned
+ * by {@link #getDependencies}, and for calling {@link #endEvaluation}
+ * after each successful evaluation, or {@link #abortEvaluation} after one
+ * that failed. After {@code endEvaluation}, {@link #isChanged} tells which
+ * slots now have different dependencies than before.
+ * <p>
+ * A slot whose computation resolved something that can't be tracked
+ * (see {@link EvaluationContext#resolvedUntracked}) is computed again on
+ * every evaluation.
+ * <p>
+ * Instances are not thread safe.
+ *
+ * @see org.jdesktop.el.impl.ValueExpressionImpl#getResult(org.jdesktop.el.ELContext, boolean, DependencyGraph)
+ */
+public final class DependencyGraph {
+
+    // resolution calls recorded while computing a slot, each followed by
+    // its base and property
+    static final Object IDENTIFIER = new Object();
+    static final Object PROPERTY = new Object();
+    static final Object CLEAR = new Object();
+    static final Object UNTRACKED = new Object();
+
+    private static final Object[] NO_CALLS = new Object[0];
+
+    private static final class Slot {
+        private boolean valid;
+        private boolean visited;
+        private boolean changed;
+        private boolean cacheable = true;
+        private Object value;
+        private Object[] calls = NO_CALLS;
+        private List<Object> pendingCalls;
+        private List<ResolvedProperty> dependencies = Collections.emptyList();
+        private List<ResolvedProperty> previousDependencies = Collections.emptyList();
+    }
+
+    private Slot[] slots = new Slot[0];
+
+    /**
+     * Creates an empty graph. Slots are added as the expression that is
+     * evaluated with the graph reaches them.
+     */
+    public DependencyGraph() {
+    }
+
+    /**
+     * Returns the number of slots that the graph has seen.
+     *
+     * @return the number of slots
+     */
+    public int getSlotCount() {
+        return slots.length;
+    }
+
+    /**
+     * Marks the given slot as needing to be computed again.
+     *
+     * @param slot the index of the slot
+     */
+    public void invalidate(int slot) {
+        slots[slot].valid = false;
+    }
+
+    /**
+     * Marks all slots as needing to be computed again, for example because
+     * the source of the expression has changed.
+     */
+    public void invalidateAll() {
+        for (Slot slot : slots) {
+            slot.valid = false;
+        }
+    }
+
+    /**
+     * Makes the given slot be computed again on every evaluation, until
+     * its dependencies change. This is for slots with dependencies that
+     * the owner can't listen to.
+     *
+     * @param slot the index of the slot
+     */
+    public void disableCaching(int slot) {
+        slots[slot].cacheable = false;
+        slots[slot].valid = false;
+    }
+
+    /**
+     * Returns the properties that the value of the given slot was computed
+     * from, as of the last completed evaluation.
+     *
+     * @param slot the index of the slot
+     * @return the dependencies of the slot, in the order they were resolved
+     */
+    public List<ResolvedProperty> getDependencies(int slot) {
+        return slots[slot].dependencies;
+    }
+
+    /**
+     * Returns the dependencies that the given slot had before the last
+     * completed evaluation, if it {@link #isChanged changed} them.
+     *
+     * @param slot the index of the slot
+     * @return the previous dependencies of the slot
+     */
+    public List<ResolvedProperty> getPreviousDependencies(int slot) {
+        return slots[slot].previousDependencies;
+    }
+
+    /**
+     * Returns whether the last completed evaluation changed the
+     * dependencies of the given slot. This is the case if the slot was
+     * computed again and read other properties than before, or if the
+     * slot was no longer reached at all, in which case it now has no
+     * dependencies.
+     *
+     * @param slot the index of the slot
+     * @return whether the dependencies of the slot changed
+     */
+    public boolean isChanged(int slot) {
+        return slots[slot].changed;
+    }
+
+    /**
+     * Completes an evaluation, recording the values and dependencies of
+     * the slots that were computed during it.
+     */
+    public void endEvaluation() {
+        for (Slot slot : slots) {
+            List<ResolvedProperty> dependencies;
+
+            if (slot.pendingCalls != null) {
+                slot.calls = slot.pendingCalls.toArray();
+                slot.pendingCalls = null;
+                dependencies = dependenciesOf(slot.calls);
+                slot.valid = !isUntracked(slot.calls);
+            } else if (!slot.visited) {
+                // skipped, by a choice or a short circuit operator
+                slot.calls = NO_CALLS;
+                slot.value = null;
+                slot.valid = false;
+                dependencies = Collections.emptyList();
+            } else {
+                slot.visited = false;
+                slot.changed = false;
+                continue;
+            }
+
+            slot.visited = false;
+            if (dependencies.equals(slot.dependencies)) {
+                slot.changed = false;
+            } else {
+                slot.previousDependencies = slot.dependencies;
+                slot.dependencies = dependencies;
+                slot.changed = true;
+                slot.cacheable = true;
+            }
+
+            if (!slot.cacheable) {
+                slot.valid = false;
+            }
+        }
+    }
+
+    /**
+     * Abandons an evaluation that failed. The values computed during it
+     * are discarded, and all slots are computed again on the next one;
+     * their dependencies stay as of the last completed evaluation.
+     */
+    public void abortEvaluation() {
+        for (Slot slot : slots) {
+            slot.pendingCalls = null;
+            slot.visited = false;
+            slot.changed = false;
+            slot.valid = false;
+        }
+    }
+
+    Object evaluate(int index, ExpressionCompiler.CompiledNode body, EvaluationContext ctx) {
+        Slot slot = getSlot(index);
+        slot.visited = true;
+
+        if (slot.valid) {
+            replay(slot.calls, ctx);
+            return slot.value;
+        }
+
+        List<Object> calls = new ArrayList<Object>(6);
+        List<Object> outer = ctx.setRecording(calls);
+        try {
+            slot.value = body.getValue(ctx);
+        } finally {
+            ctx.setRecording(outer);
+        }
+        slot.pendingCalls = calls;
+        return slot.value;
+    }
+
+    private Slot getSlot(int index) {
+        if (index >= slots.length) {
+            Slot[] grown = new Slot[index + 1];
+            System.arraycopy(slots, 0, grown, 0, slots.length);
+            for (int i = slots.length; i < grown.length; i++) {
+                grown[i] = new Slot();
+            }
+            slots = grown;
+        }
+        return slots[index];
+    }
+
+    private static void replay(Object[] calls, EvaluationContext ctx) {
+        for (int i = 0; i < calls.length; i += 3) {
+            Object op = calls[i];
+            if (op == IDENTIFIER) {
+                ctx.resolvedIdentifier(calls[i + 1], calls[i + 2]);
+            } else if (op == PROPERTY) {
+                ctx.resolvedProperty(calls[i + 1], calls[i + 2]);
+            } else if (op == CLEAR) {
+                ctx.clearResolvedProperties();
+            }
+        }
+    }
+
+    private static boolean isUntracked(Object[] calls) {
+        for (int i = 0; i < calls.length; i += 3) {
+            if (calls[i] == UNTRACKED) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<ResolvedProperty> dependenciesOf(Object[] calls) {
+        if (calls.length == 0) {
+            return Collections.emptyList();
+        }
+
+        Set<ResolvedProperty> dependencies = new LinkedHashSet<ResolvedProperty>(calls.length / 3);
+        for (int i = 0; i < calls.length; i += 3) {
+            if (calls[i] == IDENTIFIER || calls[i] == PROPERTY) {
+                dependencies.add(new ResolvedProperty(calls[i + 1], calls[i + 2]));
+            }
+        }
+        return new ArrayList<ResolvedProperty>(dependencies);
+    }
+}
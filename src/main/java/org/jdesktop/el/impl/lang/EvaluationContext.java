@@ -28,6 +28,11 @@ public final class EvaluationContext extends ELContext {
     private final Set<Expression.ResolvedProperty> currentIdentifierProperties;
     private final Set<Expression.ResolvedProperty> resolvedProperties;
 
+    private final DependencyGraph dependencyGraph;
+
+    // the resolution calls made while a dependency slot is evaluated
+    private List<Object> recording;
+
     public EvaluationContext(ELContext elContext, FunctionMapper fnMapper,
             VariableMapper varMapper, Expression expression) {
         this(elContext, fnMapper, varMapper, expression, false);
@@ -35,6 +40,13 @@ public final class EvaluationContext extends ELContext {
 
     public EvaluationContext(ELContext elContext, FunctionMapper fnMapper,
             VariableMapper varMapper, Expression expression, boolean trackResolvedProperties) {
+        this(elContext, fnMapper, varMapper, expression, trackResolvedProperties, null);
+    }
+
+    public EvaluationContext(ELContext elContext, FunctionMapper fnMapper,
+            VariableMapper varMapper, Expression expression, boolean trackResolvedProperties,
+            DependencyGraph dependencyGraph) {
+        this.dependencyGraph = dependencyGraph;
         this.elContext = elContext;
         this.fnMapper = fnMapper;
         this.varMapper = varMapper;
@@ -84,7 +96,38 @@ public final class EvaluationContext extends ELContext {
         this.elContext.setPropertyResolved(resolved);
     }
 
+    public DependencyGraph getDependencyGraph() {
+        return dependencyGraph;
+    }
+
+    List<Object> setRecording(List<Object> recording) {
+        List<Object> previous = this.recording;
+        this.recording = recording;
+        return previous;
+    }
+
+    private void record(Object op, Object base, Object property) {
+        recording.add(op);
+        recording.add(base);
+        recording.add(property);
+    }
+
+    /**
+     * Notes that the value being computed depends on something other than
+     * the properties that are resolved, a function call for example, so it
+     * can't be reused until they change.
+     */
+    public void resolvedUntracked() {
+        if (recording != null) {
+            record(DependencyGraph.UNTRACKED, null, null);
+        }
+    }
+
     public void clearResolvedProperties() {
+        if (recording != null) {
+            record(DependencyGraph.CLEAR, null, null);
+        }
+
         if (resolvedProperties == null) {
             return;
         }
@@ -93,7 +136,15 @@ public final class EvaluationContext extends ELContext {
     }
 
     public void resolvedIdentifier(Object base, Object property) {
-        if (base == null || property == null || resolvedProperties == null) {
+        if (base == null || property == null) {
+            return;
+        }
+
+        if (recording != null) {
+            record(DependencyGraph.IDENTIFIER, base, property);
+        }
+
+        if (resolvedProperties == null) {
             return;
         }
 
@@ -105,7 +156,15 @@ public final class EvaluationContext extends ELContext {
     }
 
     public void resolvedProperty(Object base, Object property) {
-        if (base == null || property == null || resolvedProperties == null) {
+        if (base == null || property == null) {
+            return;
+        }
+
+        if (recording != null) {
+            record(DependencyGraph.PROPERTY, base, property);
+        }
+
+        if (resolvedProperties == null) {
             return;
         }
 
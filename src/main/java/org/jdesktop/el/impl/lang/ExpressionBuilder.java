@@ -7,8 +7,6 @@ package org.jdesktop.el.impl.lang;
 
 import java.io.StringReader;
 import java.lang.reflect.Method;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.jdesktop.el.ELContext;
 import org.jdesktop.el.ELException;
@@ -31,6 +29,7 @@ import org.jdesktop.el.impl.parser.ELParser;
 import org.jdesktop.el.impl.parser.Node;
 import org.jdesktop.el.impl.parser.NodeVisitor;
 import org.jdesktop.el.impl.parser.ParseException;
+import org.jdesktop.el.impl.util.BoundedCache;
 import org.jdesktop.el.impl.util.MessageFactory;
 
 /**
@@ -39,9 +38,8 @@ import org.jdesktop.el.impl.util.MessageFactory;
  */
 public final class ExpressionBuilder implements NodeVisitor {
 
-    private static final int SIZE = 5000;
-    private static final Map cache = new ConcurrentHashMap(SIZE);
-    private static final Map cache2 = new ConcurrentHashMap(SIZE);
+    private static final BoundedCache<String, Node> cache =
+        new BoundedCache<String, Node>(cacheSize());
 
     private FunctionMapper fnMapper;
 
@@ -67,6 +65,23 @@ public final class ExpressionBuilder implements NodeVisitor {
         }
     }
 
+    /**
+     * Returns the cache of parsed expressions, keyed by expression string.
+     * Its maximum size defaults to 5000, or to the value of the system
+     * property {@code org.jdesktop.el.expressionCacheSize}.
+     */
+    public static BoundedCache<String, Node> getCache() {
+        return cache;
+    }
+
+    private static int cacheSize() {
+        try {
+            return Integer.getInteger("org.jdesktop.el.expressionCacheSize", 5000);
+        } catch (SecurityException se) {
+            return 5000;
+        }
+    }
+
     public final static Node createNode(String expr) throws ELException {
         Node n = createNodeInternal(expr);
         return n;
@@ -78,8 +93,8 @@ public final class ExpressionBuilder implements NodeVisitor {
             throw new ELException(MessageFactory.get("error.null"));
         }
 
-        Node n = (Node) cache.get(expr);
-        if (n == null && (n = (Node) cache2.get(expr)) == null) {
+        Node n = cache.get(expr);
+        if (n == null) {
             try {
                 n = (new ELParser(new StringReader(expr)))
                         .CompositeExpression();
@@ -111,12 +126,7 @@ public final class ExpressionBuilder implements NodeVisitor {
                         || n instanceof AstDynamicExpression) {
                     n = n.jjtGetChild(0);
                 }
-                if (cache.size() > SIZE) {
-                    cache2.clear();
-                    cache2.putAll(cache);
-                    cache.clear();
-                }
-                cache.put(expr, n);
+                n = cache.putIfAbsent(expr, n);
             } catch (ParseException pe) {
                 throw new ELException("Error Parsing: " + expr, pe);
             }
@@ -0,0 +1,786 @@
+package org.jdesktop.el.impl.lang;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.jdesktop.el.ELContext;
+import org.jdesktop.el.ELException;
+import org.jdesktop.el.ELResolver;
+import org.jdesktop.el.Expression;
+import org.jdesktop.el.PropertyReader;
+import org.jdesktop.el.ValueExpression;
+import org.jdesktop.el.VariableMapper;
+
+import org.jdesktop.el.impl.parser.*;
+
+/**
+ * Lowers a parsed expression tree into a tree of {@code CompiledNode}
+ * closures, for faster repeated evaluation of {@code getValue}.
+ * <p>
+ * Each closure does the work of the node it replaces, with the same results,
+ * the same exceptions and the same resolved property tracking, but without
+ * the per-evaluation re-dispatch over node types. Literals are folded into
+ * constants, and the arithmetic and comparison operators specialize
+ * themselves on the operand types they see: once an operator has seen, for
+ * example, two integral operands, it computes directly on {@code long}s for
+ * as long as its operands stay integral. If the operand types change, the
+ * guard fails and the operator falls back, for good, to the general
+ * {@code ELArithmetic} and {@code ELSupport} paths that the interpreter uses.
+ * <p>
+ * Likewise, identifiers and {@code .name} (or constant {@code [key]})
+ * property lookups carry an inline cache, which remembers the
+ * {@link PropertyReader} that the {@code ELResolver} chose for each class of
+ * base object it has seen. Reads from objects of those classes then skip the
+ * resolver chain. A lookup that sees objects of too many classes stops
+ * caching and always asks the resolver.
+ * <p>
+ * Nodes without a compiled form (functions and unary minus) are evaluated
+ * by the interpreter, so any tree can be compiled.
+ * <p>
+ * Property paths, and the interpreted parts of an expression, are the
+ * slots of a {@link DependencyGraph}. When an expression is evaluated with
+ * a graph, the slots whose dependencies haven't changed return their
+ * previous values instead of being computed again.
+ * <p>
+ * Compilation is on by default. It can be turned off by setting the system
+ * property {@code org.jdesktop.el.compileExpressions} to {@code false}, in
+ * which case expressions are always interpreted.
+ */
+public final class ExpressionCompiler {
+
+    private static final boolean ENABLED = compilationEnabled();
+
+    private ExpressionCompiler() {
+    }
+
+    /**
+     * The compiled form of a node.
+     */
+    public static abstract class CompiledNode {
+
+        CompiledNode() {
+        }
+
+        /**
+         * Evaluates the node, exactly as {@link Node#getValue} would.
+         */
+        public abstract Object getValue(EvaluationContext ctx) throws ELException;
+    }
+
+    /**
+     * Returns whether expressions should be compiled.
+     *
+     * @return {@code false} if compilation has been turned off
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Compiles the given node and its children.
+     *
+     * @param node the root of the tree to compile
+     * @return the compiled tree
+     */
+    public static CompiledNode compile(Node node) {
+        return compile(node, new int[1]);
+    }
+
+    /**
+     * Returns a form of the given node that is evaluated by the
+     * interpreter, as a single {@link DependencyGraph} slot. This is for
+     * evaluation with a graph while compilation is turned off.
+     *
+     * @param node the root of the tree
+     * @return the node, as one slot
+     */
+    public static CompiledNode interpret(Node node) {
+        return new Slot(0, new Interpreted(node));
+    }
+
+    /*
+     * slots holds the number of dependency slots allocated so far, or is
+     * null while compiling the inside of a slot
+     */
+    private static CompiledNode compile(Node node, int[] slots) {
+        if (node instanceof AstDeferredExpression || node instanceof AstDynamicExpression
+                || node instanceof AstBracketSuffix) {
+            return compile(node.jjtGetChild(0), slots);
+        }
+
+        if (node instanceof AstInteger || node instanceof AstFloatingPoint
+                || node instanceof AstString || node instanceof AstTrue
+                || node instanceof AstFalse || node instanceof AstNull
+                || node instanceof AstLiteralExpression || node instanceof AstDotSuffix) {
+            // literals don't look at the context
+            return new Constant(node.getValue(null));
+        }
+
+        if (node instanceof AstIdentifier) {
+            return slot(new Identifier(node.getImage()), slots);
+        }
+
+        if (node instanceof AstValue) {
+            CompiledNode[] children = compileChildren(node, null);
+            CompiledNode[] suffixes = new CompiledNode[children.length - 1];
+            PropertySite[] sites = new PropertySite[suffixes.length];
+            for (int i = 0; i < suffixes.length; i++) {
+                suffixes[i] = children[i + 1];
+                if (suffixes[i] instanceof Constant && ((Constant)suffixes[i]).value != null) {
+                    sites[i] = new PropertySite(((Constant)suffixes[i]).value);
+                }
+            }
+            return slot(new Value(children[0], suffixes, sites), slots);
+        }
+
+        if (node instanceof AstCompositeExpression) {
+            return new Composite(compileChildren(node, slots));
+        }
+
+        if (node instanceof AstPlus) {
+            return new Arithmetic(Operator.ADD, compile(node.jjtGetChild(0), slots),
+                                  compile(node.jjtGetChild(1), slots));
+        } else if (node instanceof AstMinus) {
+            return new Arithmetic(Operator.SUBTRACT, compile(node.jjtGetChild(0), slots),
+                                  compile(node.jjtGetChild(1), slots));
+        } else if (node instanceof AstMult) {
+            return new Arithmetic(Operator.MULTIPLY, compile(node.jjtGetChild(0), slots),
+                                  compile(node.jjtGetChild(1), slots));
+        } else if (node instanceof AstDiv) {
+            return new Arithmetic(Operator.DIVIDE, compile(node.jjtGetChild(0), slots),
+                                  compile(node.jjtGetChild(1), slots));
+        } else if (node instanceof AstMod) {
+            return new Arithmetic(Operator.MOD, compile(node.jjtGetChild(0), slots),
+                                  compile(node.jjtGetChild(1), slots));
+        }
+
+        if (node instanceof AstEqual) {
+            return new Comparison(Relation.EQ, compile(node.jjtGetChild(0), slots),
+                                  compile(node.jjtGetChild(1), slots));
+        } else if (node instanceof AstNotEqual) {
+            return new Comparison(Relation.NE, compile(node.jjtGetChild(0), slots),
+                                  compile(node.jjtGetChild(1), slots));
+        } else if (node instanceof AstGreaterThan) {
+            return new Comparison(Relation.GT, compile(node.jjtGetChild(0), slots),
+                                  compile(node.jjtGetChild(1), slots));
+        } else if (node instanceof AstGreaterThanEqual) {
+            return new Comparison(Relation.GE, compile(node.jjtGetChild(0), slots),
+                                  compile(node.jjtGetChild(1), slots));
+        } else if (node instanceof AstLessThan) {
+            return new Comparison(Relation.LT, compile(node.jjtGetChild(0), slots),
+                                  compile(node.jjtGetChild(1), slots));
+        } else if (node instanceof AstLessThanEqual) {
+            return new Comparison(Relation.LE, compile(node.jjtGetChild(0), slots),
+                                  compile(node.jjtGetChild(1), slots));
+        }
+
+        if (node instanceof AstAnd) {
+            return new Logical(false, compile(node.jjtGetChild(0), slots), compile(node.jjtGetChild(1), slots));
+        } else if (node instanceof AstOr) {
+            return new Logical(true, compile(node.jjtGetChild(0), slots), compile(node.jjtGetChild(1), slots));
+        } else if (node instanceof AstNot) {
+            return new Not(compile(node.jjtGetChild(0), slots));
+        } else if (node instanceof AstChoice) {
+            return new Choice(compile(node.jjtGetChild(0), slots), compile(node.jjtGetChild(1), slots),
+                              compile(node.jjtGetChild(2), slots));
+        } else if (node instanceof AstEmpty) {
+            return new Empty(compile(node.jjtGetChild(0), slots));
+        }
+
+        return slot(new Interpreted(node), slots);
+    }
+
+    private static CompiledNode[] compileChildren(Node node, int[] slots) {
+        CompiledNode[] children = new CompiledNode[node.jjtGetNumChildren()];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = compile(node.jjtGetChild(i), slots);
+        }
+        return children;
+    }
+
+    private static CompiledNode slot(CompiledNode body, int[] slots) {
+        return slots == null ? body : new Slot(slots[0]++, body);
+    }
+
+    private static boolean compilationEnabled() {
+        try {
+            return !"false".equalsIgnoreCase(System.getProperty("org.jdesktop.el.compileExpressions"));
+        } catch (SecurityException se) {
+            return false;
+        }
+    }
+
+    private static final class Constant extends CompiledNode {
+        private final Object value;
+
+        Constant(Object value) {
+            this.value = value;
+        }
+
+        public Object getValue(EvaluationContext ctx) {
+            return value;
+        }
+    }
+
+    /**
+     * An inline cache for reading one property from base objects: for up
+     * to {@code MAX_CLASSES} classes of base objects, it remembers the
+     * reader that the resolver chose, and reads from objects of those
+     * classes through it. Entries are only reused with the resolver they
+     * were obtained from.
+     */
+    private static final class PropertySite {
+        private static final int MAX_CLASSES = 4;
+
+        private final Object property;
+        // benign race: entries are immutable, and a lost update only costs
+        // another lookup
+        private Entry entries;
+        private boolean megamorphic;
+
+        private static final class Entry {
+            final ELResolver resolver;
+            final Class<?> type;
+            final PropertyReader reader;
+            final Entry next;
+            final int count;
+
+            Entry(ELResolver resolver, Class<?> type, PropertyReader reader, Entry next) {
+                this.resolver = resolver;
+                this.type = type;
+                this.reader = reader;
+                this.next = next;
+                this.count = next == null ? 1 : next.count + 1;
+            }
+        }
+
+        PropertySite(Object property) {
+            this.property = property;
+        }
+
+        Object getValue(EvaluationContext ctx, ELResolver resolver, Object base) {
+            Class<?> type = base.getClass();
+            Entry head = entries;
+            for (Entry e = head; e != null; e = e.next) {
+                if (e.type == type && e.resolver == resolver) {
+                    return e.reader.getValue(ctx, base);
+                }
+            }
+
+            if (!megamorphic) {
+                PropertyReader reader = resolver.getPropertyReader(ctx, type, property);
+                if (reader != null && reader != PropertyReader.NOT_RESOLVED) {
+                    if (head != null && head.resolver != resolver) {
+                        // evaluated with another resolver; start over
+                        head = null;
+                    }
+                    if (head == null || head.count < MAX_CLASSES) {
+                        entries = new Entry(resolver, type, reader, head);
+                    } else {
+                        entries = null;
+                        megamorphic = true;
+                    }
+                    return reader.getValue(ctx, base);
+                }
+            }
+
+            return resolver.getValue(ctx, base, property);
+        }
+    }
+
+    /**
+     * The outermost node of a part of the expression whose value can be
+     * remembered by a {@link DependencyGraph}, if the expression is
+     * evaluated with one.
+     */
+    private static final class Slot extends CompiledNode {
+        private final int index;
+        private final CompiledNode body;
+
+        Slot(int index, CompiledNode body) {
+            this.index = index;
+            this.body = body;
+        }
+
+        public Object getValue(EvaluationContext ctx) throws ELException {
+            DependencyGraph graph = ctx.getDependencyGraph();
+            return graph == null ? body.getValue(ctx) : graph.evaluate(index, body, ctx);
+        }
+    }
+
+    private static final class Interpreted extends CompiledNode {
+        private final Node node;
+
+        Interpreted(Node node) {
+            this.node = node;
+        }
+
+        public Object getValue(EvaluationContext ctx) throws ELException {
+            // may call functions, whose results can't be remembered
+            ctx.resolvedUntracked();
+            return node.getValue(ctx);
+        }
+    }
+
+    /**
+     * A top-level identifier, resolved against the source of the expression.
+     */
+    private static final class Identifier extends CompiledNode {
+        private final String image;
+        private final PropertySite site;
+
+        Identifier(String image) {
+            this.image = image;
+            this.site = new PropertySite(image);
+        }
+
+        public Object getValue(EvaluationContext ctx) throws ELException {
+            VariableMapper varMapper = ctx.getVariableMapper();
+            if (varMapper != null) {
+                ValueExpression expr = varMapper.resolveVariable(image);
+                if (expr != null) {
+                    ctx.resolvedUntracked();
+                    return expr.getValue(ctx.getELContext());
+                }
+            }
+            ctx.setPropertyResolved(false);
+            Object source = getSource(ctx);
+            Object retVal = source == null
+                    ? ctx.getELResolver().getValue(ctx, source, image)
+                    : site.getValue(ctx, ctx.getELResolver(), source);
+            if (retVal != ELContext.UNRESOLVABLE_RESULT) {
+                ctx.resolvedIdentifier(source, image);
+            }
+            return retVal;
+        }
+
+        private static Object getSource(EvaluationContext ctx) {
+            Expression expression = ctx.getExpression();
+            if (expression instanceof ValueExpression) {
+                return ((ValueExpression)expression).getSource();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A chain of property lookups: {@code a.b[c].d}.
+     */
+    private static final class Value extends CompiledNode {
+        private final CompiledNode prefix;
+        private final CompiledNode[] suffixes;
+        // for suffixes that name a constant property, else null
+        private final PropertySite[] sites;
+
+        Value(CompiledNode prefix, CompiledNode[] suffixes, PropertySite[] sites) {
+            this.prefix = prefix;
+            this.suffixes = suffixes;
+            this.sites = sites;
+        }
+
+        public Object getValue(EvaluationContext ctx) throws ELException {
+            Object base = prefix.getValue(ctx);
+            if (base == ELContext.UNRESOLVABLE_RESULT || (base == null && suffixes.length > 0)) {
+                ctx.clearResolvedProperties();
+                return ELContext.UNRESOLVABLE_RESULT;
+            }
+            ELResolver resolver = ctx.getELResolver();
+            int i = 0;
+            while (base != null && i < suffixes.length) {
+                Object property = suffixes[i].getValue(ctx);
+                if (property == null) {
+                    return null;
+                }
+                ctx.setPropertyResolved(false);
+                Object origBase = base;
+                PropertySite site = sites[i];
+                base = site == null
+                        ? resolver.getValue(ctx, base, property)
+                        : site.getValue(ctx, resolver, base);
+                if (base == ELContext.UNRESOLVABLE_RESULT) {
+                    ctx.clearResolvedProperties();
+                    return base;
+                }
+                ctx.resolvedProperty(origBase, property);
+                i++;
+            }
+            if (base == null && i < suffixes.length) {
+                ctx.clearResolvedProperties();
+                return ELContext.UNRESOLVABLE_RESULT;
+            }
+            return base;
+        }
+    }
+
+    /**
+     * Literal text mixed with expressions: {@code "${first} ${last}"}.
+     */
+    private static final class Composite extends CompiledNode {
+        private final CompiledNode[] children;
+
+        Composite(CompiledNode[] children) {
+            this.children = children;
+        }
+
+        public Object getValue(EvaluationContext ctx) throws ELException {
+            StringBuilder sb = new StringBuilder(16);
+            for (CompiledNode child : children) {
+                Object obj = child.getValue(ctx);
+                if (obj == ELContext.UNRESOLVABLE_RESULT) {
+                    return ELContext.UNRESOLVABLE_RESULT;
+                }
+                if (obj != null) {
+                    sb.append(obj);
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    /*
+     * Operand kinds, as seen by the type specialized operators. INTEGRAL
+     * operands are Long, Integer, Short or Byte, and DECIMAL operands are
+     * any mix of those with Double or Float. Everything else (nulls,
+     * strings, characters, big numbers, ...) is OTHER, and only the general
+     * path handles it.
+     */
+    private static final int UNINITIALIZED = 0;
+    private static final int INTEGRAL = 1;
+    private static final int DECIMAL = 2;
+    private static final int OTHER = 3;
+
+    private static int kindOf(Object obj0, Object obj1) {
+        int kind0 = kindOf(obj0);
+        int kind1 = kindOf(obj1);
+        return kind0 > kind1 ? kind0 : kind1;
+    }
+
+    private static int kindOf(Object obj) {
+        if (obj == null) {
+            return OTHER;
+        }
+        Class<?> type = obj.getClass();
+        if (type == Long.class || type == Integer.class || type == Short.class || type == Byte.class) {
+            return INTEGRAL;
+        }
+        if (type == Double.class || type == Float.class) {
+            return DECIMAL;
+        }
+        return OTHER;
+    }
+
+    private enum Operator {
+        ADD {
+            Number apply(long num0, long num1) {
+                return Long.valueOf(num0 + num1);
+            }
+
+            Number apply(double num0, double num1) {
+                return Double.valueOf(num0 + num1);
+            }
+
+            Number apply(Object obj0, Object obj1) {
+                return ELArithmetic.add(obj0, obj1);
+            }
+        },
+        SUBTRACT {
+            Number apply(long num0, long num1) {
+                return Long.valueOf(num0 - num1);
+            }
+
+            Number apply(double num0, double num1) {
+                return Double.valueOf(num0 - num1);
+            }
+
+            Number apply(Object obj0, Object obj1) {
+                return ELArithmetic.subtract(obj0, obj1);
+            }
+        },
+        MULTIPLY {
+            Number apply(long num0, long num1) {
+                return Long.valueOf(num0 * num1);
+            }
+
+            Number apply(double num0, double num1) {
+                return Double.valueOf(num0 * num1);
+            }
+
+            Number apply(Object obj0, Object obj1) {
+                return ELArithmetic.multiply(obj0, obj1);
+            }
+        },
+        DIVIDE {
+            // division of non-big numbers is always done on doubles
+            int kindOf(Object obj0, Object obj1) {
+                int kind = ExpressionCompiler.kindOf(obj0, obj1);
+                return kind == INTEGRAL ? DECIMAL : kind;
+            }
+
+            Number apply(long num0, long num1) {
+                throw new AssertionError();
+            }
+
+            Number apply(double num0, double num1) {
+                return Double.valueOf(num0 / num1);
+            }
+
+            Number apply(Object obj0, Object obj1) {
+                return ELArithmetic.divide(obj0, obj1);
+            }
+        },
+        MOD {
+            Number apply(long num0, long num1) {
+                return Long.valueOf(num0 % num1);
+            }
+
+            Number apply(double num0, double num1) {
+                return Double.valueOf(num0 % num1);
+            }
+
+            Number apply(Object obj0, Object obj1) {
+                return ELArithmetic.mod(obj0, obj1);
+            }
+        };
+
+        int kindOf(Object obj0, Object obj1) {
+            return ExpressionCompiler.kindOf(obj0, obj1);
+        }
+
+        abstract Number apply(long num0, long num1);
+
+        abstract Number apply(double num0, double num1);
+
+        abstract Number apply(Object obj0, Object obj1);
+    }
+
+    private static final class Arithmetic extends CompiledNode {
+        private final Operator operator;
+        private final CompiledNode left;
+        private final CompiledNode right;
+        // benign race: every state is safe, as each one checks its guard
+        private int state = UNINITIALIZED;
+
+        Arithmetic(Operator operator, CompiledNode left, CompiledNode right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        public Object getValue(EvaluationContext ctx) throws ELException {
+            Object obj0 = left.getValue(ctx);
+            if (obj0 == ELContext.UNRESOLVABLE_RESULT) {
+                return ELContext.UNRESOLVABLE_RESULT;
+            }
+            Object obj1 = right.getValue(ctx);
+            if (obj1 == ELContext.UNRESOLVABLE_RESULT) {
+                return ELContext.UNRESOLVABLE_RESULT;
+            }
+
+            int kind = state;
+            if (kind != OTHER) {
+                int seen = operator.kindOf(obj0, obj1);
+                if (kind == UNINITIALIZED) {
+                    state = kind = seen;
+                } else if (seen != kind) {
+                    // the guard failed; stop specializing
+                    state = kind = OTHER;
+                }
+            }
+
+            if (kind == INTEGRAL) {
+                return operator.apply(((Number)obj0).longValue(), ((Number)obj1).longValue());
+            } else if (kind == DECIMAL) {
+                return operator.apply(((Number)obj0).doubleValue(), ((Number)obj1).doubleValue());
+            }
+            return operator.apply(obj0, obj1);
+        }
+    }
+
+    private enum Relation {
+        EQ, NE, GT, GE, LT, LE;
+
+        boolean test(int comparison) {
+            switch (this) {
+                case EQ:
+                    return comparison == 0;
+                case NE:
+                    return comparison != 0;
+                case GT:
+                    return comparison > 0;
+                case GE:
+                    return comparison >= 0;
+                case LT:
+                    return comparison < 0;
+                default:
+                    return comparison <= 0;
+            }
+        }
+    }
+
+    private static final class Comparison extends CompiledNode {
+        private final Relation relation;
+        private final CompiledNode left;
+        private final CompiledNode right;
+        private int state = UNINITIALIZED;
+
+        Comparison(Relation relation, CompiledNode left, CompiledNode right) {
+            this.relation = relation;
+            this.left = left;
+            this.right = right;
+        }
+
+        public Object getValue(EvaluationContext ctx) throws ELException {
+            Object obj0 = left.getValue(ctx);
+            if (obj0 == ELContext.UNRESOLVABLE_RESULT) {
+                return ELContext.UNRESOLVABLE_RESULT;
+            } else if (obj0 == null && (relation == Relation.GT || relation == Relation.LT)) {
+                // the right hand side isn't evaluated
+                return Boolean.FALSE;
+            }
+            Object obj1 = right.getValue(ctx);
+            if (obj1 == ELContext.UNRESOLVABLE_RESULT) {
+                return ELContext.UNRESOLVABLE_RESULT;
+            }
+
+            int kind = state;
+            if (kind != OTHER) {
+                int seen = kindOf(obj0, obj1);
+                if (kind == UNINITIALIZED) {
+                    state = kind = seen;
+                } else if (seen != kind) {
+                    state = kind = OTHER;
+                }
+            }
+
+            if (kind == INTEGRAL) {
+                long num0 = ((Number)obj0).longValue();
+                long num1 = ((Number)obj1).longValue();
+                return Boolean.valueOf(relation.test(num0 < num1 ? -1 : (num0 == num1 ? 0 : 1)));
+            } else if (kind == DECIMAL) {
+                double num0 = ((Number)obj0).doubleValue();
+                double num1 = ((Number)obj1).doubleValue();
+                return Boolean.valueOf(relation.test(Double.compare(num0, num1)));
+            }
+            return generic(obj0, obj1);
+        }
+
+        private Boolean generic(Object obj0, Object obj1) throws ELException {
+            switch (relation) {
+                case EQ:
+                    return Boolean.valueOf(ELSupport.equals(obj0, obj1));
+                case NE:
+                    return Boolean.valueOf(!ELSupport.equals(obj0, obj1));
+                case GT:
+                case LT:
+                    if (obj1 == null) {
+                        return Boolean.FALSE;
+                    }
+                    break;
+                default:
+                    if (obj0 == obj1) {
+                        return Boolean.TRUE;
+                    }
+                    if (obj0 == null || obj1 == null) {
+                        return Boolean.FALSE;
+                    }
+            }
+            return Boolean.valueOf(relation.test(ELSupport.compare(obj0, obj1)));
+        }
+    }
+
+    /**
+     * {@code and} (stops at the first {@code false}) or {@code or} (stops
+     * at the first {@code true}).
+     */
+    private static final class Logical extends CompiledNode {
+        private final boolean stopAt;
+        private final CompiledNode left;
+        private final CompiledNode right;
+
+        Logical(boolean stopAt, CompiledNode left, CompiledNode right) {
+            this.stopAt = stopAt;
+            this.left = left;
+            this.right = right;
+        }
+
+        public Object getValue(EvaluationContext ctx) throws ELException {
+            Object obj = left.getValue(ctx);
+            if (obj == ELContext.UNRESOLVABLE_RESULT) {
+                return ELContext.UNRESOLVABLE_RESULT;
+            }
+            Boolean b = ELSupport.coerceToBoolean(obj);
+            if (b.booleanValue() == stopAt) {
+                return b;
+            }
+            obj = right.getValue(ctx);
+            if (obj == ELContext.UNRESOLVABLE_RESULT) {
+                return ELContext.UNRESOLVABLE_RESULT;
+            }
+            return ELSupport.coerceToBoolean(obj);
+        }
+    }
+
+    private static final class Not extends CompiledNode {
+        private final CompiledNode child;
+
+        Not(CompiledNode child) {
+            this.child = child;
+        }
+
+        public Object getValue(EvaluationContext ctx) throws ELException {
+            Object obj = child.getValue(ctx);
+            if (obj == ELContext.UNRESOLVABLE_RESULT) {
+                return ELContext.UNRESOLVABLE_RESULT;
+            }
+            return Boolean.valueOf(!ELSupport.coerceToBoolean(obj).booleanValue());
+        }
+    }
+
+    private static final class Choice extends CompiledNode {
+        private final CompiledNode test;
+        private final CompiledNode ifTrue;
+        private final CompiledNode ifFalse;
+
+        Choice(CompiledNode test, CompiledNode ifTrue, CompiledNode ifFalse) {
+            this.test = test;
+            this.ifTrue = ifTrue;
+            this.ifFalse = ifFalse;
+        }
+
+        public Object getValue(EvaluationContext ctx) throws ELException {
+            Object obj = test.getValue(ctx);
+            if (obj == ELContext.UNRESOLVABLE_RESULT) {
+                return ELContext.UNRESOLVABLE_RESULT;
+            }
+            return ELSupport.coerceToBoolean(obj).booleanValue()
+                    ? ifTrue.getValue(ctx)
+                    : ifFalse.getValue(ctx);
+        }
+    }
+
+    private static final class Empty extends CompiledNode {
+        private final CompiledNode child;
+
+        Empty(CompiledNode child) {
+            this.child = child;
+        }
+
+        public Object getValue(EvaluationContext ctx) throws ELException {
+            Object obj = child.getValue(ctx);
+            if (obj == ELContext.UNRESOLVABLE_RESULT) {
+                return ELContext.UNRESOLVABLE_RESULT;
+            } else if (obj == null) {
+                return Boolean.TRUE;
+            } else if (obj instanceof String) {
+                return Boolean.valueOf(((String) obj).length() == 0);
+            } else if (obj instanceof Object[]) {
+                return Boolean.valueOf(((Object[]) obj).length == 0);
+            } else if (obj instanceof Collection) {
+                return Boolean.valueOf(((Collection) obj).isEmpty());
+            } else if (obj instanceof Map) {
+                return Boolean.valueOf(((Map) obj).isEmpty());
+            }
+            return Boolean.FALSE;
+        }
+    }
+}
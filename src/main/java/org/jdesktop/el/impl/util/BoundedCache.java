@@ -0,0 +1,538 @@
+package org.jdesktop.el.impl.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrent cache with a maximum size, which evicts entries by how
+ * recently and how often they have been used.
+ * <p>
+ * Lookups go straight to a {@code ConcurrentHashMap} and never block. The
+ * eviction policy is W-TinyLFU: new entries enter a small LRU window, and
+ * those pushed out of the window are only admitted to the main space (a
+ * segmented LRU) if they have been used more often than the entry they
+ * would replace. Use frequencies are estimated with a count-min sketch of
+ * 4-bit counters which are periodically halved, so that the cache adapts
+ * when the working set changes. A burst of one-off entries therefore can't
+ * flush out the entries that are used all the time, and eviction costs
+ * constant time per entry: there's no periodic bulk clear.
+ * <p>
+ * Accesses are recorded in a small lossy buffer and applied to the policy
+ * in batches, by whichever thread gets the policy lock. Insertions,
+ * removals and evictions take the lock directly.
+ * <p>
+ * The cache counts hits, misses and evictions, which can be read through
+ * {@link #getStatistics}.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+public final class BoundedCache<K, V> {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private static final int DEAD = 3;
+
+    private static final int READ_BUFFER_SIZE = 64;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+    private static final int DRAIN_THRESHOLD_MASK = 15;
+
+    private final ConcurrentHashMap<K, Node<K, V>> map;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final AtomicReferenceArray<Node<K, V>> readBuffer =
+            new AtomicReferenceArray<Node<K, V>>(READ_BUFFER_SIZE);
+    private final AtomicInteger readCount = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // guarded by lock
+    private final Queue<K, V> window = new Queue<K, V>();
+    private final Queue<K, V> probation = new Queue<K, V>();
+    private final Queue<K, V> protectedQueue = new Queue<K, V>();
+    private FrequencySketch sketch;
+    private int maximumSize;
+    private int maxWindow;
+    private int maxProtected;
+
+    /**
+     * Creates a cache holding at most {@code maximumSize} entries.
+     *
+     * @param maximumSize the maximum number of entries
+     * @throws IllegalArgumentException if {@code maximumSize} is negative
+     */
+    public BoundedCache(int maximumSize) {
+        map = new ConcurrentHashMap<K, Node<K, V>>(Math.min(Math.max(maximumSize, 16), 1 << 16));
+        setMaximumSize0(maximumSize);
+    }
+
+    /**
+     * Returns the value cached for the given key, or {@code null}.
+     *
+     * @param key the key
+     * @return the cached value, or {@code null}
+     */
+    public V get(K key) {
+        Node<K, V> node = map.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        recordRead(node);
+        return node.value;
+    }
+
+    /**
+     * Caches the given value unless a value is already cached for the key.
+     * This may evict other entries.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the value now cached for the key: {@code value}, or the value
+     *         that was already there
+     * @throws NullPointerException if {@code key} or {@code value} is
+     *         {@code null}
+     */
+    public V putIfAbsent(K key, V value) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+
+        lock.lock();
+        try {
+            Node<K, V> node = new Node<K, V>(key, value);
+            Node<K, V> existing = map.putIfAbsent(key, node);
+            if (existing != null) {
+                return existing.value;
+            }
+
+            sketch.increment(key);
+            window.addLast(node);
+            node.queue = WINDOW;
+            evict();
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the entry for the given key, if there is one.
+     *
+     * @param key the key
+     * @return the value that was cached for the key, or {@code null}
+     */
+    public V remove(K key) {
+        lock.lock();
+        try {
+            Node<K, V> node = map.remove(key);
+            if (node == null) {
+                return null;
+            }
+            unlink(node);
+            return node.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all entries. The statistics are kept.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            for (Node<K, V> node : map.values()) {
+                node.queue = DEAD;
+            }
+            map.clear();
+            window.clear();
+            probation.clear();
+            protectedQueue.clear();
+            for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+                readBuffer.set(i, null);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of cached entries.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Returns the maximum number of entries.
+     *
+     * @return the maximum number of entries
+     */
+    public int getMaximumSize() {
+        lock.lock();
+        try {
+            return maximumSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Changes the maximum number of entries, evicting entries if there are
+     * now too many.
+     *
+     * @param maximumSize the maximum number of entries
+     * @throws IllegalArgumentException if {@code maximumSize} is negative
+     */
+    public void setMaximumSize(int maximumSize) {
+        lock.lock();
+        try {
+            setMaximumSize0(maximumSize);
+            // rebalance the segments for the new sizes
+            while (protectedQueue.size > maxProtected) {
+                Node<K, V> node = protectedQueue.removeFirst();
+                probation.addLast(node);
+                node.queue = PROBATION;
+            }
+            evict();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the hit, miss and eviction counts.
+     *
+     * @return the statistics
+     */
+    public Statistics getStatistics() {
+        return new Statistics(hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    /**
+     * Hit, miss and eviction counts of a {@code BoundedCache}.
+     */
+    public static final class Statistics {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+
+        Statistics(long hitCount, long missCount, long evictionCount) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+        }
+
+        /**
+         * Returns the number of lookups that found a value.
+         */
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        /**
+         * Returns the number of lookups that found nothing.
+         */
+        public long getMissCount() {
+            return missCount;
+        }
+
+        /**
+         * Returns the number of entries evicted to stay within the maximum
+         * size. Entries removed explicitly aren't counted.
+         */
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        /**
+         * Returns the fraction of lookups that found a value, or {@code 1}
+         * if there haven't been any lookups.
+         */
+        public double getHitRate() {
+            long lookups = hitCount + missCount;
+            return lookups == 0 ? 1.0 : (double) hitCount / lookups;
+        }
+
+        public String toString() {
+            return getClass().getSimpleName() + " [hits=" + hitCount + ", misses=" + missCount
+                    + ", evictions=" + evictionCount + "]";
+        }
+    }
+
+    private void setMaximumSize0(int maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("Maximum size must be non-negative");
+        }
+
+        this.maximumSize = maximumSize;
+        // 1% for the window and, of the rest, 80% for the protected segment
+        maxWindow = Math.max(maximumSize / 100, maximumSize == 0 ? 0 : 1);
+        maxProtected = (maximumSize - maxWindow) * 4 / 5;
+        sketch = new FrequencySketch(maximumSize);
+    }
+
+    private void recordRead(Node<K, V> node) {
+        int count = readCount.getAndIncrement();
+        // lossy: an unapplied access may be overwritten, which only makes
+        // the policy slightly less accurate
+        readBuffer.lazySet(count & READ_BUFFER_MASK, node);
+        if ((count & DRAIN_THRESHOLD_MASK) == DRAIN_THRESHOLD_MASK && lock.tryLock()) {
+            try {
+                drainReads();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // called with the lock held
+    private void drainReads() {
+        for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+            Node<K, V> node = readBuffer.getAndSet(i, null);
+            if (node != null) {
+                onAccess(node);
+            }
+        }
+    }
+
+    // called with the lock held
+    private void onAccess(Node<K, V> node) {
+        sketch.increment(node.key);
+
+        switch (node.queue) {
+            case WINDOW:
+                window.moveToLast(node);
+                break;
+            case PROBATION:
+                probation.remove(node);
+                protectedQueue.addLast(node);
+                node.queue = PROTECTED;
+                if (protectedQueue.size > maxProtected) {
+                    Node<K, V> demoted = protectedQueue.removeFirst();
+                    probation.addLast(demoted);
+                    demoted.queue = PROBATION;
+                }
+                break;
+            case PROTECTED:
+                protectedQueue.moveToLast(node);
+                break;
+            default:
+                // evicted or removed since the read
+        }
+    }
+
+    // called with the lock held
+    private void evict() {
+        drainReads();
+
+        // entries pushed out of the window become candidates for the main
+        // space, on probation
+        Node<K, V> candidate = null;
+        while (window.size > maxWindow) {
+            Node<K, V> node = window.removeFirst();
+            probation.addLast(node);
+            node.queue = PROBATION;
+            if (candidate == null) {
+                candidate = node;
+            }
+        }
+
+        while (map.size() > maximumSize) {
+            Node<K, V> victim = probation.first;
+            if (victim == null) {
+                victim = protectedQueue.first != null ? protectedQueue.first : window.first;
+            } else if (candidate != null && victim != candidate) {
+                // admit the candidate only if it's used more often
+                if (sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                    victim = candidate;
+                }
+            }
+
+            if (victim == null) {
+                break;
+            }
+
+            if (victim == candidate) {
+                candidate = candidate.next;
+            }
+
+            unlink(victim);
+            map.remove(victim.key, victim);
+            evictions.increment();
+        }
+    }
+
+    // called with the lock held
+    private void unlink(Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW:
+                window.remove(node);
+                break;
+            case PROBATION:
+                probation.remove(node);
+                break;
+            case PROTECTED:
+                protectedQueue.remove(node);
+                break;
+            default:
+        }
+        node.queue = DEAD;
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        // guarded by the cache's lock
+        int queue = DEAD;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * A doubly linked list of nodes, least recently used first.
+     */
+    private static final class Queue<K, V> {
+        Node<K, V> first;
+        Node<K, V> last;
+        int size;
+
+        void addLast(Node<K, V> node) {
+            node.prev = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+            size++;
+        }
+
+        Node<K, V> removeFirst() {
+            Node<K, V> node = first;
+            remove(node);
+            return node;
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.prev == null) {
+                first = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+
+        void moveToLast(Node<K, V> node) {
+            if (node != last) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        void clear() {
+            first = null;
+            last = null;
+            size = 0;
+        }
+    }
+
+    /**
+     * A count-min sketch of 4-bit counters, sixteen to a {@code long},
+     * estimating how often each key has been used. Each key maps to four
+     * counters; its estimated frequency is the smallest of them. When the
+     * number of increments reaches ten times the maximum size, all counters
+     * are halved, so that old uses count for less.
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+        };
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private final long[] table;
+        private final int tableMask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int maximumSize) {
+            int size = Integer.highestOneBit(Math.max(Math.min(maximumSize, 1 << 24), 4) - 1) << 1;
+            table = new long[size];
+            tableMask = size - 1;
+            sampleSize = Math.max(10 * maximumSize, 10);
+        }
+
+        int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < 4; i++) {
+                frequency = Math.min(frequency, (int) ((table[indexOf(hash, i)] >>> offsetOf(hash, i)) & 0xf));
+            }
+            return frequency;
+        }
+
+        void increment(Object key) {
+            int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                int offset = offsetOf(hash, i);
+                if (((table[index] >>> offset) & 0xf) != 0xf) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            additions >>>= 1;
+        }
+
+        private int indexOf(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += h >>> 32;
+            return (int) h & tableMask;
+        }
+
+        // each counter row uses a different 4-bit slot of the long
+        private static int offsetOf(int hash, int i) {
+            return (((hash >>> (i << 3)) & 3) << 2 | i) << 2;
+        }
+
+        private static int spread(int h) {
+            h = ((h >>> 16) ^ h) * 0x45d9f3b;
+            h = ((h >>> 16) ^ h) * 0x45d9f3b;
+            return (h >>> 16) ^ h;
+        }
+    }
+}
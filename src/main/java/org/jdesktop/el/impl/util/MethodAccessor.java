@@ -0,0 +1,304 @@
+package org.jdesktop.el.impl.util;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Invokes a Java Beans read method (no arguments) or write method (one
+ * argument, {@code void} result) without going through
+ * {@code Method.invoke}.
+ * <p>
+ * Where access rules allow it, the method is turned into a
+ * {@code LambdaMetafactory}-spun {@code Function} or {@code BiConsumer},
+ * which avoids the argument array, the per-call access checks and the
+ * reflective dispatch. Otherwise, or when generation has been turned off
+ * by setting the system property {@code org.jdesktop.el.generateAccessors}
+ * to {@code false}, the accessor falls back to reflection.
+ * <p>
+ * Either way the failure behavior is that of {@code Method.invoke}: an
+ * exception thrown by the method is reported as an
+ * {@code InvocationTargetException}, an argument or target of the wrong
+ * type as an {@code IllegalArgumentException}, and a {@code null} target
+ * as a {@code NullPointerException}.
+ */
+public abstract class MethodAccessor {
+
+    private static final boolean GENERATE = generationEnabled();
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final Method method;
+    private final Class<?> declaringClass;
+
+    private MethodAccessor(Method method) {
+        this.method = method;
+        this.declaringClass = method.getDeclaringClass();
+    }
+
+    /**
+     * Returns an accessor for the given method. The method is expected to
+     * be public and accessible; it's invoked reflectively if no faster
+     * form can be generated for it.
+     *
+     * @param method the method
+     * @return an accessor for the method
+     * @throws IllegalArgumentException if {@code method} is {@code null}
+     */
+    public static MethodAccessor create(Method method) {
+        if (method == null) {
+            throw new IllegalArgumentException("Method must be non-null");
+        }
+
+        if (GENERATE) {
+            MethodAccessor accessor = generate(method);
+            if (accessor != null) {
+                return accessor;
+            }
+        }
+
+        return new Reflective(method);
+    }
+
+    /**
+     * Returns the method that this accessor invokes.
+     *
+     * @return the method
+     */
+    public final Method getMethod() {
+        return method;
+    }
+
+    /**
+     * Invokes a method that takes no arguments.
+     *
+     * @param target the object to invoke the method on
+     * @return the result of the method
+     * @throws IllegalAccessException if the method is inaccessible
+     * @throws InvocationTargetException if the method throws an exception
+     * @throws IllegalArgumentException if the method takes arguments
+     */
+    public abstract Object invoke(Object target)
+            throws IllegalAccessException, InvocationTargetException;
+
+    /**
+     * Invokes a method that takes a single argument.
+     *
+     * @param target the object to invoke the method on
+     * @param arg the argument
+     * @return the result of the method, or {@code null} for a {@code void} method
+     * @throws IllegalAccessException if the method is inaccessible
+     * @throws InvocationTargetException if the method throws an exception
+     * @throws IllegalArgumentException if the method doesn't take a single
+     *         argument, or if {@code arg} can't be passed to it
+     */
+    public abstract Object invoke(Object target, Object arg)
+            throws IllegalAccessException, InvocationTargetException;
+
+    public String toString() {
+        return getClass().getSimpleName() + "[" + method + "]";
+    }
+
+    private static boolean generationEnabled() {
+        try {
+            return !"false".equalsIgnoreCase(System.getProperty("org.jdesktop.el.generateAccessors"));
+        } catch (SecurityException se) {
+            return false;
+        }
+    }
+
+    private static MethodAccessor generate(Method method) {
+        int params = method.getParameterTypes().length;
+        Class<?> returnType = method.getReturnType();
+
+        if (Modifier.isStatic(method.getModifiers())
+                || (params == 0 && returnType == Void.TYPE)
+                || (params == 1 && returnType != Void.TYPE)
+                || params > 1) {
+            return null;
+        }
+
+        Class<?> declaringClass = method.getDeclaringClass();
+        Class<?> paramType = params == 0 ? null : method.getParameterTypes()[0];
+
+        // The generated class is linked against our own class loader, so
+        // every class it names must be visible from there.
+        if (!isVisible(declaringClass) || (paramType != null && !isVisible(paramType))) {
+            return null;
+        }
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle handle = lookup.unreflect(method);
+
+            if (params == 0) {
+                CallSite site = LambdaMetafactory.metafactory(lookup,
+                        "apply",
+                        MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class),
+                        handle,
+                        MethodType.methodType(Object.class, declaringClass));
+
+                return new Getter(method, (Function<Object, Object>)site.getTarget().invoke());
+            }
+
+            Class<?> boxedType = box(paramType);
+            CallSite site = LambdaMetafactory.metafactory(lookup,
+                    "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(Void.TYPE, Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(Void.TYPE, declaringClass, boxedType));
+
+            return new Setter(method, (BiConsumer<Object, Object>)site.getTarget().invoke(),
+                              boxedType, paramType.isPrimitive());
+        } catch (Throwable t) {
+            // access rules or the platform don't allow it; use reflection
+            return null;
+        }
+    }
+
+    private static boolean isVisible(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+
+        if (type.isPrimitive()) {
+            return true;
+        }
+
+        if (!Modifier.isPublic(type.getModifiers())) {
+            return false;
+        }
+
+        try {
+            return Class.forName(type.getName(), false, MethodAccessor.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException cnfe) {
+            return false;
+        } catch (LinkageError le) {
+            return false;
+        }
+    }
+
+    private static Class<?> box(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+
+        if (type == Boolean.TYPE) {
+            return Boolean.class;
+        } else if (type == Byte.TYPE) {
+            return Byte.class;
+        } else if (type == Character.TYPE) {
+            return Character.class;
+        } else if (type == Short.TYPE) {
+            return Short.class;
+        } else if (type == Integer.TYPE) {
+            return Integer.class;
+        } else if (type == Long.TYPE) {
+            return Long.class;
+        } else if (type == Float.TYPE) {
+            return Float.class;
+        } else if (type == Double.TYPE) {
+            return Double.class;
+        }
+
+        throw new AssertionError();
+    }
+
+    /*
+     * Returns whether the method can be invoked on the given target, which
+     * generated accessors check before calling it, so that the exceptions
+     * they wrap are only those thrown by the method.
+     */
+    final boolean isTarget(Object target) {
+        return declaringClass.isInstance(target);
+    }
+
+    private static IllegalArgumentException wrongArguments() {
+        return new IllegalArgumentException("wrong number of arguments");
+    }
+
+    private static final class Reflective extends MethodAccessor {
+        private Reflective(Method method) {
+            super(method);
+        }
+
+        public Object invoke(Object target)
+                throws IllegalAccessException, InvocationTargetException {
+            return getMethod().invoke(target, NO_ARGS);
+        }
+
+        public Object invoke(Object target, Object arg)
+                throws IllegalAccessException, InvocationTargetException {
+            return getMethod().invoke(target, arg);
+        }
+    }
+
+    private static final class Getter extends MethodAccessor {
+        private final Function<Object, Object> function;
+
+        private Getter(Method method, Function<Object, Object> function) {
+            super(method);
+            this.function = function;
+        }
+
+        public Object invoke(Object target)
+                throws IllegalAccessException, InvocationTargetException {
+            if (!isTarget(target)) {
+                // let reflection report the null or mismatched target
+                return getMethod().invoke(target, NO_ARGS);
+            }
+
+            try {
+                return function.apply(target);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+
+        public Object invoke(Object target, Object arg) {
+            throw wrongArguments();
+        }
+    }
+
+    private static final class Setter extends MethodAccessor {
+        private final BiConsumer<Object, Object> consumer;
+        private final Class<?> argType;
+        private final boolean primitive;
+
+        private Setter(Method method, BiConsumer<Object, Object> consumer,
+                       Class<?> argType, boolean primitive) {
+            super(method);
+            this.consumer = consumer;
+            this.argType = argType;
+            this.primitive = primitive;
+        }
+
+        public Object invoke(Object target) {
+            throw wrongArguments();
+        }
+
+        public Object invoke(Object target, Object arg)
+                throws IllegalAccessException, InvocationTargetException {
+            if (!isTarget(target) || (arg == null ? primitive : !argType.isInstance(arg))) {
+                // let reflection widen the argument, or report the mismatch
+                return getMethod().invoke(target, arg);
+            }
+
+            try {
+                consumer.accept(target, arg);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+
+            return null;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package org.jdesktop.observablecollections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A live, read-only view of the elements of an {@code ObservableList} that
+ * match a predicate, in the order of the source list. Created by
+ * {@link ObservableCollections#filtered}.
+ * <p>
+ * The view keeps the source indices of its elements in an ascending array,
+ * and finds the place of a source element in it by binary search. When the
+ * source changes, only the changed source elements are tested, and
+ * listeners are notified of the elements that entered or left the view as
+ * one {@code ListChange}. Elements are tested again when the source
+ * reports a change to their properties, which it only does if it
+ * {@link ObservableList#supportsElementPropertyChanged supports} it.
+ * <p>
+ * {@link #setPredicate} tests all elements of the source again, and
+ * notifies listeners of the difference, as a splice for each run of
+ * elements that entered or left the view, rather than of a new list.
+ *
+ * @param <E> the type of the elements
+ * @see ObservableCollections#filtered
+ */
+public final class FilteredList<E> extends ObservableListView<E> {
+    private Predicate<? super E> predicate;
+    // the source indices of the elements, ascending
+    private int[] map;
+    private int size;
+
+    FilteredList(ObservableList<E> source, Predicate<? super E> predicate) {
+        super(source);
+        if (predicate == null) {
+            throw new IllegalArgumentException("Predicate must be non-null");
+        }
+        this.predicate = predicate;
+        this.map = filter(predicate);
+        this.size = map.length;
+        listen();
+    }
+
+    /**
+     * Returns the predicate that elements of the source match to be in
+     * this view.
+     *
+     * @return the predicate
+     */
+    public Predicate<? super E> getPredicate() {
+        return predicate;
+    }
+
+    /**
+     * Sets the predicate that elements of the source match to be in this
+     * view, and notifies listeners of the elements that entered or left it.
+     *
+     * @param predicate the new predicate
+     * @throws IllegalArgumentException if {@code predicate} is {@code null}
+     */
+    public void setPredicate(Predicate<? super E> predicate) {
+        if (predicate == null) {
+            throw new IllegalArgumentException("Predicate must be non-null");
+        }
+
+        this.predicate = predicate;
+        int[] newMap = filter(predicate);
+
+        // merge the old and new indices: a source index in only the old
+        // ones left the view, and in only the new ones entered it
+        ListChange.Builder change = new ListChange.Builder(this);
+        List<Object> removed = new ArrayList<Object>();
+        int added = 0;
+        int runStart = 0;
+        int pos = 0;
+        int i = 0;
+        int j = 0;
+
+        while (i < size || j < newMap.length) {
+            int oldIndex = i < size ? map[i] : Integer.MAX_VALUE;
+            int newIndex = j < newMap.length ? newMap[j] : Integer.MAX_VALUE;
+
+            if (oldIndex == newIndex) {
+                if (removed.size() != 0 || added != 0) {
+                    change.splice(runStart, removed, added);
+                    removed = new ArrayList<Object>();
+                    added = 0;
+                }
+                i++;
+                j++;
+                pos++;
+                runStart = pos;
+            } else if (oldIndex < newIndex) {
+                removed.add(element(oldIndex));
+                i++;
+            } else {
+                added++;
+                j++;
+                pos++;
+            }
+        }
+
+        if (removed.size() != 0 || added != 0) {
+            change.splice(runStart, removed, added);
+        }
+
+        map = newMap;
+        size = newMap.length;
+        fire(change);
+    }
+
+    public E get(int index) {
+        rangeCheck(index);
+        return source.get(map[index]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the index in the source list of the element at the given
+     * index of this view.
+     *
+     * @param index the index in this view
+     * @return the index in the source list
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    public int getSourceIndex(int index) {
+        rangeCheck(index);
+        return map[index];
+    }
+
+    private int[] filter(Predicate<? super E> predicate) {
+        int[] indices = new int[source.size()];
+        int count = 0;
+        for (int i = 0; i < indices.length; i++) {
+            if (predicate.test(element(i))) {
+                indices[count++] = i;
+            }
+        }
+        return Arrays.copyOf(indices, count);
+    }
+
+    /*
+     * Returns the position in map of the first source index that isn't
+     * less than the given one.
+     */
+    private int lowerBound(int sourceIndex) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (map[mid] < sourceIndex) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    void sourceSpliced(ListChange.Builder change, int index, List<?> removed, int added) {
+        int from = lowerBound(index);
+        int to = lowerBound(index + removed.size());
+
+        List<Object> removedElements = new ArrayList<Object>(to - from);
+        for (int i = from; i < to; i++) {
+            removedElements.add(removed.get(map[i] - index));
+        }
+
+        int[] matches = new int[added];
+        int count = 0;
+        for (int i = index; i < index + added; i++) {
+            if (predicate.test(element(i))) {
+                matches[count++] = i;
+            }
+        }
+
+        int newSize = size - (to - from) + count;
+        int[] newMap = newSize <= map.length ? map : new int[Math.max(newSize, map.length * 3 / 2)];
+        int shift = added - removed.size();
+        if (newMap != map) {
+            System.arraycopy(map, 0, newMap, 0, from);
+        }
+        System.arraycopy(map, to, newMap, from + count, size - to);
+        for (int i = from + count; i < newSize; i++) {
+            newMap[i] += shift;
+        }
+        System.arraycopy(matches, 0, newMap, from, count);
+
+        map = newMap;
+        size = newSize;
+        change.splice(from, removedElements, count);
+    }
+
+    void sourcePermuted(ListChange.Builder change, int index, int[] permutation) {
+        int from = lowerBound(index);
+        int to = lowerBound(index + permutation.length);
+        if (from == to) {
+            return;
+        }
+
+        // the new source indices of the elements in the range, with their
+        // old positions in the view
+        long[] moved = new long[to - from];
+        List<Object> oldElements = new ArrayList<Object>(moved.length);
+        for (int i = from; i < to; i++) {
+            int newIndex = permutation[map[i] - index];
+            moved[i - from] = ((long)newIndex << 32) | (i - from);
+            oldElements.add(element(newIndex));
+        }
+        Arrays.sort(moved);
+
+        int[] viewPermutation = new int[moved.length];
+        boolean identity = true;
+        for (int i = 0; i < moved.length; i++) {
+            int oldPosition = (int)moved[i];
+            map[from + i] = (int)(moved[i] >>> 32);
+            viewPermutation[oldPosition] = from + i;
+            identity &= oldPosition == i;
+        }
+
+        if (!identity) {
+            change.permuted(from, viewPermutation, oldElements);
+        }
+    }
+
+    void sourceUpdated(ListChange.Builder change, int from, int to) {
+        // consecutive updates of elements that stay are reported together
+        int updatedFrom = 0;
+        int updatedTo = 0;
+
+        for (int i = from; i < to; i++) {
+            int pos = lowerBound(i);
+            boolean was = pos < size && map[pos] == i;
+            E element = element(i);
+            boolean is = predicate.test(element);
+
+            if (was && is) {
+                if (pos != updatedTo) {
+                    change.updated(updatedFrom, updatedTo);
+                    updatedFrom = pos;
+                }
+                updatedTo = pos + 1;
+            } else if (was || is) {
+                change.updated(updatedFrom, updatedTo);
+                updatedFrom = updatedTo = 0;
+
+                // the element entered or left the view: seen as replaced by
+                // itself in the source, it's tested again
+                sourceSpliced(change, i, Collections.singletonList(element), 1);
+            }
+        }
+
+        change.updated(updatedFrom, updatedTo);
+    }
+}
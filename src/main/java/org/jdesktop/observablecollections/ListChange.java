@@ -0,0 +1,337 @@
+package org.jdesktop.observablecollections;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A description of one change to an {@code ObservableList}, such as a
+ * single {@code add}, a {@code sort}, or a whole batch operation like
+ * {@code setAll}.
+ * <p>
+ * A change is made of one or more parts, of three kinds:
+ * <ul>
+ *   <li>A splice replaces a range of elements by a number of new elements:
+ *       the part's removed elements, starting at its index, were replaced
+ *       by {@code getAddedSize()} elements, which now start at that index.
+ *       A splice with no removed elements is an insertion, and a splice with
+ *       no added elements is a removal.</li>
+ *   <li>A permutation reorders the elements of a range, without adding or
+ *       removing any. {@code getPermutation(i)} is the new index of the
+ *       element that was at index {@code i}.</li>
+ *   <li>An update reports that properties of the elements of a range have
+ *       changed, while the elements themselves stayed the same.</li>
+ * </ul>
+ * The parts are in the order in which they apply; the index of each part
+ * is relative to the list as left by the parts before it. The change is
+ * delivered after all of its parts have been applied.
+ * <p>
+ * The lists created by {@code ObservableCollections} create their own
+ * changes. Other implementations of {@code ObservableList} can describe
+ * their changes with a {@link Builder}.
+ *
+ * @see ObservableListChangeListener
+ */
+public final class ListChange {
+    private final ObservableList list;
+    private final List<Part> parts;
+
+    /**
+     * One part of a {@code ListChange}: a splice, a permutation or an update
+     * of a range of elements.
+     */
+    public static final class Part {
+        private final int index;
+        private final List removed;
+        private final int addedSize;
+        private final int[] permutation;
+        private final int updatedSize;
+
+        private Part(int index, List removed, int addedSize, int[] permutation, int updatedSize) {
+            this.index = index;
+            this.removed = removed;
+            this.addedSize = addedSize;
+            this.permutation = permutation;
+            this.updatedSize = updatedSize;
+        }
+
+        /**
+         * Returns the index of the first element of this part.
+         *
+         * @return the index of this part
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Returns the index after the last element of this part, in the
+         * list as left by this part.
+         *
+         * @return the end of the range of this part
+         */
+        public int getTo() {
+            if (permutation != null) {
+                return index + permutation.length;
+            }
+            return index + addedSize + updatedSize;
+        }
+
+        /**
+         * Returns whether this part is a permutation.
+         *
+         * @return whether this part reorders elements
+         */
+        public boolean wasPermuted() {
+            return permutation != null;
+        }
+
+        /**
+         * Returns whether this part is an update.
+         *
+         * @return whether this part reports changed element properties
+         */
+        public boolean wasUpdated() {
+            return updatedSize != 0;
+        }
+
+        /**
+         * Returns the new index of the element that was at the given index,
+         * for a permutation.
+         *
+         * @param oldIndex an index from {@code getIndex()}, inclusive, to
+         *        {@code getTo()}, exclusive
+         * @return the new index of the element
+         * @throws IllegalStateException if this part isn't a permutation
+         * @throws IndexOutOfBoundsException if {@code oldIndex} is outside
+         *         this part
+         */
+        public int getPermutation(int oldIndex) {
+            if (permutation == null) {
+                throw new IllegalStateException("Not a permutation");
+            }
+            if (oldIndex < index || oldIndex >= index + permutation.length) {
+                throw new IndexOutOfBoundsException("Index " + oldIndex + " is outside " + this);
+            }
+            return permutation[oldIndex - index];
+        }
+
+        /**
+         * Returns the elements that this part removed, which is empty unless
+         * this part is a splice.
+         *
+         * @return the removed elements
+         */
+        public List getRemoved() {
+            return permutation == null ? removed : Collections.emptyList();
+        }
+
+        /**
+         * Returns the number of elements that this part removed.
+         *
+         * @return the number of removed elements
+         */
+        public int getRemovedSize() {
+            return getRemoved().size();
+        }
+
+        /**
+         * Returns the number of elements that this part added, at
+         * {@code getIndex()}, which is zero unless this part is a splice.
+         *
+         * @return the number of added elements
+         */
+        public int getAddedSize() {
+            return addedSize;
+        }
+
+        public String toString() {
+            if (permutation != null) {
+                return "Part [index=" + index + " permuted=" + permutation.length + "]";
+            } else if (updatedSize != 0) {
+                return "Part [index=" + index + " updated=" + updatedSize + "]";
+            }
+            return "Part [index=" + index + " removed=" + removed.size() + " added=" + addedSize + "]";
+        }
+    }
+
+    /**
+     * Builds a {@code ListChange} from its parts, in the order in which they
+     * were applied.
+     */
+    public static final class Builder {
+        private final ObservableList list;
+        private final List<Part> parts = new ArrayList<Part>();
+
+        /**
+         * Creates a {@code Builder} of a change to the given list.
+         *
+         * @param list the list that changed
+         * @throws IllegalArgumentException if {@code list} is {@code null}
+         */
+        public Builder(ObservableList list) {
+            if (list == null) {
+                throw new IllegalArgumentException("List must be non-null");
+            }
+            this.list = list;
+        }
+
+        /**
+         * Adds a splice: the given elements, from the given index, were
+         * replaced by {@code addedSize} new elements.
+         *
+         * @param index the index of the splice
+         * @param removed the removed elements
+         * @param addedSize the number of added elements
+         * @return this builder
+         * @throws IllegalArgumentException if {@code index} or
+         *         {@code addedSize} is negative, or {@code removed} is
+         *         {@code null}
+         */
+        public Builder splice(int index, List removed, int addedSize) {
+            if (index < 0 || addedSize < 0 || removed == null) {
+                throw new IllegalArgumentException();
+            }
+            if (removed.size() != 0 || addedSize != 0) {
+                parts.add(new Part(index, removed, addedSize, null, 0));
+            }
+            return this;
+        }
+
+        /**
+         * Adds a permutation of the range of elements starting at the given
+         * index. Element {@code i} of {@code permutation} is the new index of
+         * the element that was at {@code index + i}, and element {@code i} of
+         * {@code oldElements} is that element, which is used to describe the
+         * change to listeners that don't understand permutations.
+         *
+         * @param index the index of the first permuted element
+         * @param permutation the new indices of the permuted elements
+         * @param oldElements the permuted elements, in their old order
+         * @return this builder
+         * @throws IllegalArgumentException if {@code index} is negative, or
+         *         if the sizes of {@code permutation} and
+         *         {@code oldElements} differ
+         */
+        public Builder permuted(int index, int[] permutation, List oldElements) {
+            if (index < 0 || permutation.length != oldElements.size()) {
+                throw new IllegalArgumentException();
+            }
+            if (permutation.length != 0) {
+                parts.add(new Part(index, oldElements, 0, permutation.clone(), 0));
+            }
+            return this;
+        }
+
+        /**
+         * Adds an update of the elements from index {@code from}, inclusive,
+         * to index {@code to}, exclusive.
+         *
+         * @param from the index of the first updated element
+         * @param to the index after the last updated element
+         * @return this builder
+         * @throws IllegalArgumentException if {@code from} is negative or
+         *         greater than {@code to}
+         */
+        public Builder updated(int from, int to) {
+            if (from < 0 || from > to) {
+                throw new IllegalArgumentException();
+            }
+            if (from != to) {
+                parts.add(new Part(from, Collections.emptyList(), 0, null, to - from));
+            }
+            return this;
+        }
+
+        /**
+         * Returns whether no parts have been added.
+         *
+         * @return whether the change would be empty
+         */
+        public boolean isEmpty() {
+            return parts.isEmpty();
+        }
+
+        /**
+         * Returns the change made of the parts added so far.
+         *
+         * @return the change
+         */
+        public ListChange build() {
+            return new ListChange(list, new ArrayList<Part>(parts));
+        }
+    }
+
+    private ListChange(ObservableList list, List<Part> parts) {
+        this.list = list;
+        this.parts = Collections.unmodifiableList(parts);
+    }
+
+    static ListChange splice(ObservableList list, int index, List removed, int addedSize) {
+        return new ListChange(list, Collections.singletonList(new Part(index, removed, addedSize, null, 0)));
+    }
+
+    /**
+     * Returns the list that changed.
+     *
+     * @return the list
+     */
+    public ObservableList getList() {
+        return list;
+    }
+
+    /**
+     * Returns the parts of this change, in the order in which they apply.
+     *
+     * @return the parts of this change
+     */
+    public List<Part> getParts() {
+        return parts;
+    }
+
+    /**
+     * Delivers this change to a listener as the individual notifications of
+     * {@code ObservableListListener}. For each part:
+     * <ul>
+     *   <li>a splice that replaces a single element is delivered as
+     *       {@code listElementReplaced}, and any other splice as a
+     *       {@code listElementsRemoved} for its removed elements followed
+     *       by a {@code listElementsAdded} for its added ones;</li>
+     *   <li>a permutation is delivered as the removal of the elements of
+     *       its range, in their old order, followed by the addition of the
+     *       range;</li>
+     *   <li>an update is delivered as a {@code listElementPropertyChanged}
+     *       for each element of its range.</li>
+     * </ul>
+     * As with the change itself, all notifications are sent after the whole
+     * change has been applied.
+     *
+     * @param listener the listener to notify
+     */
+    public void dispatch(ObservableListListener listener) {
+        for (Part part : parts) {
+            if (part.updatedSize != 0) {
+                for (int i = part.index; i < part.index + part.updatedSize; i++) {
+                    listener.listElementPropertyChanged(list, i);
+                }
+            } else if (part.permutation != null) {
+                listener.listElementsRemoved(list, part.index, part.removed);
+                listener.listElementsAdded(list, part.index, part.permutation.length);
+            } else if (part.removed.size() == 1 && part.addedSize == 1) {
+                listener.listElementReplaced(list, part.index, part.removed.get(0));
+            } else {
+                if (part.removed.size() != 0) {
+                    listener.listElementsRemoved(list, part.index, part.removed);
+                }
+
+                if (part.addedSize != 0) {
+                    listener.listElementsAdded(list, part.index, part.addedSize);
+                }
+            }
+        }
+    }
+
+    public String toString() {
+        return "ListChange " + parts;
+    }
+}
@@ -0,0 +1,218 @@
+package org.jdesktop.observablecollections;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A list of listeners, for the classes that notify them. Iterating over it
+ * sees the listeners as they were when the iteration started, so listeners
+ * can add and remove listeners, themselves included, while they're being
+ * notified.
+ * <p>
+ * A single listener is held without an array, and an array is only created
+ * for a second one. Unlike {@code CopyOnWriteArrayList}, the array isn't
+ * copied on every change: a listener is added in place, as iterations that
+ * have started don't look past the listeners they began with, and only the
+ * first removal after an iteration has started copies the array.
+ * <p>
+ * Listeners are compared with {@code equals}, and may be added more than
+ * once, in which case they're notified once for every time they were added.
+ * Like the classes that use it, a {@code ListenerList} is meant to be used
+ * from a single thread.
+ *
+ * @param <L> the type of the listeners
+ */
+public final class ListenerList<L> implements Iterable<L> {
+    private static final Object[] EMPTY = new Object[0];
+
+    // the listener, while there's only one and no array
+    private Object single;
+    // the listeners, once there have been two
+    private Object[] listeners;
+    private int size;
+    // whether an iteration may have started over the array
+    private boolean shared;
+
+    /**
+     * Adds a listener to the end of the list. Does nothing if the listener
+     * is {@code null}.
+     *
+     * @param listener the listener to add
+     */
+    public void add(L listener) {
+        if (listener == null) {
+            return;
+        }
+
+        if (listeners == null) {
+            if (size == 0) {
+                single = listener;
+                size = 1;
+                return;
+            }
+
+            listeners = new Object[] {single, listener, null, null};
+            single = null;
+            size = 2;
+            return;
+        }
+
+        if (size == listeners.length) {
+            // iterations keep the old array
+            listeners = Arrays.copyOf(listeners, size * 2);
+            shared = false;
+        }
+        listeners[size++] = listener;
+    }
+
+    /**
+     * Removes the first occurrence of a listener from the list.
+     *
+     * @param listener the listener to remove
+     * @return whether the listener was in the list
+     */
+    public boolean remove(Object listener) {
+        if (listener == null || size == 0) {
+            return false;
+        }
+
+        if (listeners == null) {
+            if (!listener.equals(single)) {
+                return false;
+            }
+            single = null;
+            size = 0;
+            return true;
+        }
+
+        int index = -1;
+        for (int i = 0; i < size; i++) {
+            if (listener.equals(listeners[i])) {
+                index = i;
+                break;
+            }
+        }
+        if (index == -1) {
+            return false;
+        }
+
+        if (size == 1) {
+            // iterations keep the old array
+            listeners = null;
+            shared = false;
+            size = 0;
+            return true;
+        }
+
+        if (shared) {
+            Object[] copy = new Object[listeners.length];
+            System.arraycopy(listeners, 0, copy, 0, index);
+            System.arraycopy(listeners, index + 1, copy, index, size - index - 1);
+            listeners = copy;
+            shared = false;
+        } else {
+            System.arraycopy(listeners, index + 1, listeners, index, size - index - 1);
+            listeners[size - 1] = null;
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Returns the number of listeners.
+     *
+     * @return the number of listeners
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether there are no listeners.
+     *
+     * @return whether there are no listeners
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the listeners in an array, which is the given one if it's
+     * large enough, as with {@code Collection.toArray}.
+     *
+     * @param array the array to store the listeners in, if it's large enough
+     * @return an array of the listeners
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T[] toArray(T[] array) {
+        if (array.length < size) {
+            array = (T[])java.lang.reflect.Array.newInstance(array.getClass().getComponentType(), size);
+        }
+
+        if (listeners == null) {
+            if (size == 1) {
+                array[0] = (T)single;
+            }
+        } else {
+            System.arraycopy(listeners, 0, array, 0, size);
+        }
+
+        if (array.length > size) {
+            array[size] = null;
+        }
+        return array;
+    }
+
+    /**
+     * Returns an iterator over the listeners in the list at this time,
+     * which isn't affected by later changes to the list. The iterator
+     * doesn't support {@code remove}.
+     *
+     * @return an iterator over the listeners
+     */
+    public Iterator<L> iterator() {
+        if (listeners == null) {
+            return new Itr<L>(EMPTY, single, size);
+        }
+
+        shared = true;
+        return new Itr<L>(listeners, null, size);
+    }
+
+    public String toString() {
+        return Arrays.toString(toArray(EMPTY));
+    }
+
+    private static final class Itr<L> implements Iterator<L> {
+        private final Object[] listeners;
+        private Object single;
+        private final int size;
+        private int next;
+
+        Itr(Object[] listeners, Object single, int size) {
+            this.listeners = listeners;
+            this.single = single;
+            this.size = size;
+        }
+
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @SuppressWarnings("unchecked")
+        public L next() {
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+
+            Object listener = (single != null) ? single : listeners[next];
+            next++;
+            return (L)listener;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
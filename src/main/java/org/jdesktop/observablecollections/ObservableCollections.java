@@ -9,12 +9,17 @@ import java.util.AbstractList;
 import java.util.AbstractMap;
 import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * {@code ObservableCollections} provides factory methods for creating
@@ -54,6 +59,42 @@ public final class ObservableCollections {
         return new ObservableListImpl<E>(list, false);
     }
 
+    /**
+     * Creates and returns a live, read-only view of the elements of the
+     * given list, sorted by the given comparator. The view updates itself
+     * as the list changes, and notifies its listeners of the minimal changes
+     * to itself.
+     *
+     * @param list the list to view
+     * @param comparator the comparator to sort by, or {@code null} to use
+     *        the natural ordering of the elements
+     * @return a sorted view of {@code list}
+     * @throws IllegalArgumentException if {@code list} is {@code null}
+     *
+     * @see SortedList
+     */
+    public static <E> SortedList<E> sorted(ObservableList<E> list, Comparator<? super E> comparator) {
+        return new SortedList<E>(list, comparator);
+    }
+
+    /**
+     * Creates and returns a live, read-only view of the elements of the
+     * given list that match the given predicate. The view updates itself
+     * as the list changes, and notifies its listeners of the minimal changes
+     * to itself.
+     *
+     * @param list the list to view
+     * @param predicate the predicate that elements match to be in the view
+     * @return a filtered view of {@code list}
+     * @throws IllegalArgumentException if {@code list} or {@code predicate}
+     *         is {@code null}
+     *
+     * @see FilteredList
+     */
+    public static <E> FilteredList<E> filtered(ObservableList<E> list, Predicate<? super E> predicate) {
+        return new FilteredList<E>(list, predicate);
+    }
+
     /**
      * Creates and returns an {@code ObservableListHelper} wrapping
      * the supplied {@code List}. If you can track changes to the underlying
@@ -108,17 +149,36 @@ public final class ObservableCollections {
             }
             list.fireElementChanged(index);
         }
+
+        /**
+         * Sends notification that the elements from index {@code from},
+         * inclusive, to index {@code to}, exclusive, have changed, as a
+         * single change.
+         *
+         * @param from the index of the first element that has changed
+         * @param to the index after the last element that has changed
+         * @throws ArrayIndexOutOfBoundsException if the range isn't within
+         *         the {@code List}
+         */
+        public void fireElementsChanged(int from, int to) {
+            if (from < 0 || to > list.size() || from > to) {
+                throw new ArrayIndexOutOfBoundsException("Illegal range");
+            }
+            if (from != to) {
+                list.fireElementsChanged(from, to);
+            }
+        }
     }
 
     private static final class ObservableMapImpl<K,V> extends AbstractMap<K,V> 
             implements ObservableMap<K,V> {
         private Map<K,V> map;
-        private List<ObservableMapListener> listeners;
+        private final ListenerList<ObservableMapListener> listeners;
         private Set<Map.Entry<K,V>> entrySet;
         
         ObservableMapImpl(Map<K,V> map) {
             this.map = map;
-            listeners = new CopyOnWriteArrayList<ObservableMapListener>();
+            listeners = new ListenerList<ObservableMapListener>();
         }
         
         public void clear() {
@@ -263,11 +323,11 @@ public final class ObservableCollections {
             implements ObservableList<E> {
         private final boolean supportsElementPropertyChanged;
         private List<E> list;
-        private List<ObservableListListener> listeners;
+        private final ListenerList<ObservableListListener> listeners;
         
         ObservableListImpl(List<E> list, boolean supportsElementPropertyChanged) {
             this.list = list;
-            listeners = new CopyOnWriteArrayList<ObservableListListener>();
+            listeners = new ListenerList<ObservableListListener>();
             this.supportsElementPropertyChanged = supportsElementPropertyChanged;
         }
 
@@ -330,6 +390,189 @@ public final class ObservableCollections {
             }
         }
 
+        public void setAll(Collection<? extends E> c) {
+            replaceRange(0, list.size(), c);
+        }
+
+        public void remove(int from, int to) {
+            replaceRange(from, to, Collections.<E>emptyList());
+        }
+
+        protected void removeRange(int from, int to) {
+            remove(from, to);
+        }
+
+        public void replaceRange(int from, int to, Collection<? extends E> c) {
+            if (from < 0 || to > list.size() || from > to) {
+                throw new IndexOutOfBoundsException("from " + from + ", to " + to + ", size " + list.size());
+            }
+
+            List<E> elements = new ArrayList<E>(c);
+            List<E> range = list.subList(from, to);
+            List<E> removed = new ArrayList<E>(range);
+            range.clear();
+            list.addAll(from, elements);
+            modCount++;
+            if (removed.size() != 0 || elements.size() != 0) {
+                fireListChanged(ListChange.splice(this, from, removed, elements.size()));
+            }
+        }
+
+        public void applyBatch(Consumer<? super List<E>> batch) {
+            Object[] old = list.toArray();
+            try {
+                batch.accept(list);
+            } finally {
+                modCount++;
+                fireDifference(old);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        public void sort(final Comparator<? super E> c) {
+            final Object[] old = list.toArray();
+            Integer[] order = new Integer[old.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+
+            // a stable sort of the old indices, so that the permutation
+            // is known without searching for the elements
+            Arrays.sort(order, new Comparator<Integer>() {
+                public int compare(Integer i1, Integer i2) {
+                    if (c == null) {
+                        return ((Comparable<Object>)old[i1]).compareTo(old[i2]);
+                    }
+                    return c.compare((E)old[i1], (E)old[i2]);
+                }
+            });
+
+            int from = 0;
+            while (from < order.length && order[from] == from) {
+                from++;
+            }
+
+            int to = order.length;
+            while (to > from && order[to - 1] == to - 1) {
+                to--;
+            }
+
+            if (from == to) {
+                return;
+            }
+
+            ListIterator<E> it = list.listIterator(from);
+            int[] permutation = new int[to - from];
+            for (int i = from; i < to; i++) {
+                it.next();
+                it.set((E)old[order[i]]);
+                permutation[order[i] - from] = i;
+            }
+
+            modCount++;
+            List<Object> oldElements = Arrays.asList(old).subList(from, to);
+            fireListChanged(new ListChange.Builder(this).permuted(from, permutation, oldElements).build());
+        }
+
+        public boolean removeAll(final Collection<?> c) {
+            if (c == null) {
+                throw new NullPointerException();
+            }
+
+            return removeIf(new Predicate<E>() {
+                public boolean test(E e) {
+                    return c.contains(e);
+                }
+            });
+        }
+
+        public boolean retainAll(final Collection<?> c) {
+            if (c == null) {
+                throw new NullPointerException();
+            }
+
+            return removeIf(new Predicate<E>() {
+                public boolean test(E e) {
+                    return !c.contains(e);
+                }
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        public boolean removeIf(Predicate<? super E> filter) {
+            Object[] elements = list.toArray();
+            List<E> kept = new ArrayList<E>(elements.length);
+            ListChange.Builder change = new ListChange.Builder(this);
+            List<E> run = null;
+
+            // each run of removed elements is a part, at its index once
+            // the runs before it are gone
+            for (Object element : elements) {
+                E e = (E)element;
+                if (filter.test(e)) {
+                    if (run == null) {
+                        run = new ArrayList<E>();
+                    }
+                    run.add(e);
+                } else {
+                    if (run != null) {
+                        change.splice(kept.size(), run, 0);
+                        run = null;
+                    }
+                    kept.add(e);
+                }
+            }
+
+            if (run != null) {
+                change.splice(kept.size(), run, 0);
+            }
+
+            if (change.isEmpty()) {
+                return false;
+            }
+
+            list.clear();
+            list.addAll(kept);
+            modCount++;
+            fireListChanged(change.build());
+            return true;
+        }
+
+        /*
+         * Notifies the listeners of the range that differs between the
+         * given old contents and the current ones, if any.
+         */
+        private void fireDifference(Object[] old) {
+            Object[] now = list.toArray();
+            int start = 0;
+            int max = Math.min(old.length, now.length);
+            while (start < max && old[start] == now[start]) {
+                start++;
+            }
+
+            int oldEnd = old.length;
+            int newEnd = now.length;
+            while (oldEnd > start && newEnd > start && old[oldEnd - 1] == now[newEnd - 1]) {
+                oldEnd--;
+                newEnd--;
+            }
+
+            if (oldEnd != start || newEnd != start) {
+                List<Object> removed = new ArrayList<Object>(Arrays.asList(old).subList(start, oldEnd));
+                fireListChanged(ListChange.splice(this, start, removed, newEnd - start));
+            }
+        }
+
+        private void fireListChanged(ListChange change) {
+            for (ObservableListListener listener : listeners) {
+                if (listener instanceof ObservableListChangeListener) {
+                    ((ObservableListChangeListener)listener).listChanged(change);
+                } else {
+                    change.dispatch(listener);
+                }
+            }
+        }
+
         public boolean containsAll(Collection<?> c) {
             return list.containsAll(c);
         }
@@ -348,6 +591,10 @@ public final class ObservableCollections {
             }
         }
 
+        private void fireElementsChanged(int from, int to) {
+            fireListChanged(new ListChange.Builder(this).updated(from, to).build());
+        }
+
         public void addObservableListListener(ObservableListListener listener) {
             listeners.add(listener);
         }
@@ -5,10 +5,23 @@
 
 package org.jdesktop.observablecollections;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * A {@code List} that notifies listeners of changes.
+ * <p>
+ * Besides the operations of {@code List}, an {@code ObservableList} has
+ * batch operations, such as {@code setAll} and {@code applyBatch}, that
+ * change many elements at once. The lists created by
+ * {@code ObservableCollections} notify their listeners of each such
+ * operation as a single change; see {@link ObservableListChangeListener}.
+ * The same is true of their {@code removeAll}, {@code retainAll},
+ * {@code removeIf} and {@code sort} methods. The default implementations of
+ * the batch operations are made of the other operations of the list, and
+ * notify its listeners of each of them.
  *
  * @author sky
  */
@@ -37,4 +50,64 @@ public interface ObservableList<E> extends List<E> {
      *         the properties of an element change
      */
     public boolean supportsElementPropertyChanged();
+
+    /**
+     * Replaces the contents of this list by the elements of the given
+     * collection.
+     *
+     * @param c the new elements of this list
+     * @throws NullPointerException if {@code c} is {@code null}
+     */
+    public default void setAll(Collection<? extends E> c) {
+        replaceRange(0, size(), c);
+    }
+
+    /**
+     * Removes the elements from index {@code from}, inclusive, to index
+     * {@code to}, exclusive.
+     * <p>
+     * This is {@code List.subList(from, to).clear()} as a single change.
+     *
+     * @param from the index of the first element to remove
+     * @param to the index after the last element to remove
+     * @throws IndexOutOfBoundsException if the range isn't within the list
+     */
+    public default void remove(int from, int to) {
+        subList(from, to).clear();
+    }
+
+    /**
+     * Replaces the elements from index {@code from}, inclusive, to index
+     * {@code to}, exclusive, by the elements of the given collection.
+     *
+     * @param from the index of the first element to replace
+     * @param to the index after the last element to replace
+     * @param c the elements to put in place of the range
+     * @throws IndexOutOfBoundsException if the range isn't within the list
+     * @throws NullPointerException if {@code c} is {@code null}
+     */
+    public default void replaceRange(int from, int to, Collection<? extends E> c) {
+        // copy first, in case c is a view of this list
+        List<E> elements = new ArrayList<E>(c);
+        remove(from, to);
+        addAll(from, elements);
+    }
+
+    /**
+     * Passes a {@code List} with the contents of this list to the given
+     * {@code batch}, which may change it in any way, and makes the
+     * result the contents of this list. The {@code List} passed to the batch
+     * may only be used during the call.
+     * <p>
+     * Lists that support it report all changes made by the batch as a
+     * single change, of the range from the first to the last changed
+     * element, and don't notify their listeners at all if the batch
+     * leaves the list as it was.
+     *
+     * @param batch the changes to make
+     * @throws NullPointerException if {@code batch} is {@code null}
+     */
+    public default void applyBatch(Consumer<? super List<E>> batch) {
+        batch.accept(this);
+    }
 }
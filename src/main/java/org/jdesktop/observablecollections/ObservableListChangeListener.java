@@ -0,0 +1,26 @@
+package org.jdesktop.observablecollections;
+
+/**
+ * An {@code ObservableListListener} that can also be notified of a whole
+ * change at once, such as the one made by a batch operation like
+ * {@link ObservableList#setAll}.
+ * <p>
+ * Where an {@code ObservableList} would notify an
+ * {@code ObservableListListener} of a change with several of the
+ * individual notifications, it notifies an
+ * {@code ObservableListChangeListener} with a single call to
+ * {@code listChanged} instead. Lists that don't support this notification
+ * send the individual notifications to all listeners.
+ *
+ * @see ListChange
+ */
+public interface ObservableListChangeListener extends ObservableListListener {
+    /**
+     * Notification that the list has changed, as described by the given
+     * {@code ListChange}. When this is called, all parts of the change have
+     * been applied.
+     *
+     * @param change the change
+     */
+    public void listChanged(ListChange change);
+}
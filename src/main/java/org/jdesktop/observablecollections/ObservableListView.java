@@ -0,0 +1,202 @@
+package org.jdesktop.observablecollections;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Base of the read-only views of an {@code ObservableList}, which keep
+ * themselves up to date as their source changes.
+ * <p>
+ * Every change to the source, whether an individual notification or a
+ * {@code ListChange}, is broken down into splices, permutations and
+ * updates of the source, which the view translates into a single
+ * {@code ListChange} of its own. While a part is translated, the source is
+ * already as left by all parts, so views read its elements through
+ * {@link #element}, which sees it as left by the parts so far.
+ */
+abstract class ObservableListView<E> extends AbstractList<E>
+        implements ObservableList<E>, ObservableListChangeListener {
+    final ObservableList<E> source;
+    private final ListenerList<ObservableListListener> listeners =
+            new ListenerList<ObservableListListener>();
+    // the parts of the change being translated after the current one
+    private List<ListChange.Part> laterParts = Collections.emptyList();
+
+    ObservableListView(ObservableList<E> source) {
+        if (source == null) {
+            throw new IllegalArgumentException("List must be non-null");
+        }
+        this.source = source;
+    }
+
+    /*
+     * Starts listening to the source. Called by subclasses once they're
+     * initialized.
+     */
+    final void listen() {
+        source.addObservableListListener(this);
+    }
+
+    /**
+     * Stops this view from following the changes of its source. The view
+     * must not be used afterwards.
+     */
+    public void dispose() {
+        source.removeObservableListListener(this);
+    }
+
+    /**
+     * Returns the list that this is a view of.
+     *
+     * @return the source list
+     */
+    public ObservableList<E> getSource() {
+        return source;
+    }
+
+    public void addObservableListListener(ObservableListListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeObservableListListener(ObservableListListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns whether the source list reports element property changes,
+     * which this view then reports for the elements it contains.
+     *
+     * @return whether the source reports element property changes
+     */
+    public boolean supportsElementPropertyChanged() {
+        return source.supportsElementPropertyChanged();
+    }
+
+    /*
+     * The elements from index on were replaced by added new ones; removed
+     * holds the old ones.
+     */
+    abstract void sourceSpliced(ListChange.Builder change, int index, List<?> removed, int added);
+
+    /*
+     * The elements from index on were reordered: permutation[i] is the new
+     * index of the element that was at index + i.
+     */
+    abstract void sourcePermuted(ListChange.Builder change, int index, int[] permutation);
+
+    /*
+     * Properties of the elements from index from, inclusive, to index to,
+     * exclusive, changed.
+     */
+    abstract void sourceUpdated(ListChange.Builder change, int from, int to);
+
+    public final void listElementsAdded(ObservableList list, int index, int length) {
+        ListChange.Builder change = new ListChange.Builder(this);
+        sourceSpliced(change, index, Collections.emptyList(), length);
+        fire(change);
+    }
+
+    public final void listElementsRemoved(ObservableList list, int index, List oldElements) {
+        ListChange.Builder change = new ListChange.Builder(this);
+        sourceSpliced(change, index, oldElements, 0);
+        fire(change);
+    }
+
+    public final void listElementReplaced(ObservableList list, int index, Object oldElement) {
+        ListChange.Builder change = new ListChange.Builder(this);
+        sourceSpliced(change, index, Collections.singletonList(oldElement), 1);
+        fire(change);
+    }
+
+    public final void listElementPropertyChanged(ObservableList list, int index) {
+        ListChange.Builder change = new ListChange.Builder(this);
+        sourceUpdated(change, index, index + 1);
+        fire(change);
+    }
+
+    public final void listChanged(ListChange sourceChange) {
+        ListChange.Builder change = new ListChange.Builder(this);
+        List<ListChange.Part> parts = sourceChange.getParts();
+
+        for (int i = 0; i < parts.size(); i++) {
+            ListChange.Part part = parts.get(i);
+            int index = part.getIndex();
+            laterParts = parts.subList(i + 1, parts.size());
+
+            if (part.wasUpdated()) {
+                sourceUpdated(change, index, part.getTo());
+            } else if (part.wasPermuted()) {
+                int[] permutation = new int[part.getTo() - index];
+                for (int j = 0; j < permutation.length; j++) {
+                    permutation[j] = part.getPermutation(index + j);
+                }
+                sourcePermuted(change, index, permutation);
+            } else {
+                sourceSpliced(change, index, part.getRemoved(), part.getAddedSize());
+            }
+        }
+
+        laterParts = Collections.emptyList();
+        if (parts.size() > 1) {
+            partsTranslated(change);
+        }
+        fire(change);
+    }
+
+    /*
+     * Called when all parts of a change of more than one part have been
+     * translated.
+     */
+    void partsTranslated(ListChange.Builder change) {
+    }
+
+    /*
+     * Returns the element at the given index of the source as left by the
+     * parts of the change translated so far: the index is followed through
+     * the later parts, and if one of them removed the element, it's taken
+     * from there.
+     */
+    @SuppressWarnings("unchecked")
+    final E element(int index) {
+        for (ListChange.Part part : laterParts) {
+            int from = part.getIndex();
+            if (part.wasPermuted()) {
+                if (index >= from && index < part.getTo()) {
+                    index = part.getPermutation(index);
+                }
+            } else if (!part.wasUpdated()) {
+                int removed = part.getRemovedSize();
+                if (index >= from + removed) {
+                    index += part.getAddedSize() - removed;
+                } else if (index >= from) {
+                    return (E)part.getRemoved().get(index - from);
+                }
+            }
+        }
+        return source.get(index);
+    }
+
+    final void fire(ListChange.Builder builder) {
+        if (builder.isEmpty()) {
+            return;
+        }
+
+        modCount++;
+
+        ListChange change = builder.build();
+        for (ObservableListListener listener : listeners) {
+            if (listener instanceof ObservableListChangeListener) {
+                ((ObservableListChangeListener)listener).listChanged(change);
+            } else {
+                change.dispatch(listener);
+            }
+        }
+    }
+
+    final void rangeCheck(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+    }
+}
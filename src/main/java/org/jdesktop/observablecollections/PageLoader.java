@@ -0,0 +1,32 @@
+package org.jdesktop.observablecollections;
+
+import java.util.List;
+
+/**
+ * Loads the elements of a {@link PagedList} from where they're stored, one
+ * page at a time.
+ *
+ * @param <E> the type of the elements
+ * @see PagedList
+ */
+public interface PageLoader<E> {
+    /**
+     * Returns the number of elements that can be loaded. This is called once,
+     * when the {@code PagedList} is created.
+     *
+     * @return the number of elements
+     */
+    public int size();
+
+    /**
+     * Loads the elements from index {@code from}, inclusive, to index
+     * {@code to}, exclusive. This may be called on a thread other than the
+     * one that uses the {@code PagedList}; see
+     * {@link PagedList#PagedList(PageLoader, int, int, java.util.concurrent.Executor, java.util.concurrent.Executor)}.
+     *
+     * @param from the index of the first element to load
+     * @param to the index after the last element to load
+     * @return the elements, {@code to - from} of them
+     */
+    public List<E> load(int from, int to);
+}
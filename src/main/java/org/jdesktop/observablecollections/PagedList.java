@@ -0,0 +1,290 @@
+package org.jdesktop.observablecollections;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * A read-only {@code ObservableList} whose elements are loaded a page at a
+ * time, when they're first asked for, by a {@link PageLoader}.
+ * <p>
+ * The size of the list is asked from the loader once, when the list is
+ * created, so that a view of the list can show its full extent without
+ * loading any elements. {@code get} loads the page of the requested
+ * element, if it isn't loaded yet. At most {@code maxPages} pages are kept;
+ * when another page is loaded, the page that was least recently accessed
+ * is dropped, and is loaded again when one of its elements is next asked
+ * for.
+ * <p>
+ * Pages are either loaded by {@code get} itself, or, if the list is created
+ * with executors, in the background. In the latter case, {@code get}
+ * returns {@code null} for an element whose page isn't loaded and asks
+ * for the page to be loaded on the load executor. When the page has been
+ * loaded, it's added to the list on the event executor, and listeners are
+ * notified that the page's {@code null} placeholders were replaced by the
+ * loaded elements. Likewise, when a page is dropped, listeners are notified
+ * that its elements were replaced by placeholders. {@link #isLoaded} tells
+ * a placeholder from an element that's actually {@code null}. All methods
+ * of the list, other than those of the loader, must be called on the thread
+ * that the event executor runs tasks on; with Swing, that's the event
+ * dispatch thread.
+ * <p>
+ * {@code maxPages} must be at least the number of pages that are shown at
+ * once, by all the views of the list together. With fewer, each page that
+ * arrives drops a page that's shown, which is asked for again when it's
+ * shown, and drops another one when it arrives, so pages are loaded over
+ * and over.
+ * <p>
+ * Listeners are not notified of the elements of a page that's loaded by
+ * {@code get} itself, including when a dropped page is loaded again. A
+ * loader that may return new instances for elements it loaded before
+ * should therefore be used with executors.
+ * <p>
+ * {@code JTableBinding}, {@code JListBinding} and {@code JComboBoxBinding}
+ * understand placeholders: they show an empty row for an element whose
+ * page isn't loaded yet, and the row when the page arrives. Iterating over
+ * the list, or sorting a {@code JTable} that shows it, asks for all of its
+ * elements.
+ *
+ * @param <E> the type of the elements
+ * @see PageLoader
+ */
+public final class PagedList<E> extends AbstractList<E> implements ObservableList<E> {
+    private final PageLoader<E> loader;
+    private final int size;
+    private final int pageSize;
+    private final Executor loadExecutor;
+    private final Executor eventExecutor;
+    private final int maxPages;
+    // the loaded pages, least recently accessed first
+    private final LinkedHashMap<Integer, Object[]> pages =
+            new LinkedHashMap<Integer, Object[]>(16, 0.75f, true);
+    // the pages being loaded in the background
+    private final Set<Integer> loading = new HashSet<Integer>();
+    private final ListenerList<ObservableListListener> listeners =
+            new ListenerList<ObservableListListener>();
+
+    /**
+     * Creates a {@code PagedList} whose pages are loaded by {@code get}.
+     *
+     * @param loader the loader of the elements
+     * @param pageSize the number of elements in a page
+     * @param maxPages the maximum number of pages to keep
+     * @throws IllegalArgumentException if {@code loader} is {@code null}, or
+     *         {@code pageSize} or {@code maxPages} is less than {@code 1}
+     */
+    public PagedList(PageLoader<E> loader, int pageSize, int maxPages) {
+        this(loader, pageSize, maxPages, null, null);
+    }
+
+    /**
+     * Creates a {@code PagedList} whose pages are loaded in the background:
+     * pages are loaded on {@code loadExecutor}, and added to the list, and
+     * listeners notified, on {@code eventExecutor}. If both executors are
+     * {@code null}, pages are loaded by {@code get}.
+     *
+     * @param loader the loader of the elements
+     * @param pageSize the number of elements in a page
+     * @param maxPages the maximum number of pages to keep, which must be at
+     *        least the number of pages shown at once
+     * @param loadExecutor the executor to load pages on
+     * @param eventExecutor the executor to add loaded pages on
+     * @throws IllegalArgumentException if {@code loader} is {@code null},
+     *         {@code pageSize} or {@code maxPages} is less than {@code 1}, or
+     *         only one of the executors is {@code null}
+     */
+    public PagedList(PageLoader<E> loader, int pageSize, int maxPages,
+                     Executor loadExecutor, Executor eventExecutor) {
+        if (loader == null) {
+            throw new IllegalArgumentException("Loader must be non-null");
+        }
+        if (pageSize < 1 || maxPages < 1) {
+            throw new IllegalArgumentException("Page size and maximum pages must be 1 or greater");
+        }
+        if ((loadExecutor == null) != (eventExecutor == null)) {
+            throw new IllegalArgumentException("Executors must both be null or non-null");
+        }
+
+        this.loader = loader;
+        this.pageSize = pageSize;
+        this.loadExecutor = loadExecutor;
+        this.eventExecutor = eventExecutor;
+        this.maxPages = maxPages;
+        this.size = loader.size();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the element at the given index. If its page isn't loaded, the
+     * page is loaded first or, if the list loads pages in the background,
+     * {@code null} is returned and the page is loaded.
+     *
+     * @param index the index of the element
+     * @return the element, or {@code null} if it isn't loaded yet
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        rangeCheck(index);
+
+        int page = index / pageSize;
+        Object[] elements = pages.get(page);
+        if (elements == null) {
+            elements = fault(page);
+            if (elements == null) {
+                return null;
+            }
+        }
+
+        return (E)elements[index - page * pageSize];
+    }
+
+    /**
+     * Returns whether the page of the element at the given index is
+     * loaded, without loading it.
+     *
+     * @param index the index of the element
+     * @return whether the element is loaded
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    public boolean isLoaded(int index) {
+        rangeCheck(index);
+        return pages.containsKey(index / pageSize);
+    }
+
+    /**
+     * Returns the number of pages that are loaded.
+     *
+     * @return the number of loaded pages
+     */
+    public int getLoadedPageCount() {
+        return pages.size();
+    }
+
+    public void addObservableListListener(ObservableListListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeObservableListListener(ObservableListListener listener) {
+        listeners.remove(listener);
+    }
+
+    public boolean supportsElementPropertyChanged() {
+        return false;
+    }
+
+    private void rangeCheck(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /*
+     * Loads the given page, or starts loading it in the background and
+     * returns null.
+     */
+    private Object[] fault(final int page) {
+        if (loadExecutor == null) {
+            Object[] elements = load(page);
+            pages.put(page, elements);
+            trim(page);
+            return elements;
+        }
+
+        if (loading.add(page)) {
+            loadExecutor.execute(new Runnable() {
+                public void run() {
+                    Object[] elements = null;
+                    try {
+                        elements = load(page);
+                    } finally {
+                        final Object[] loaded = elements;
+                        eventExecutor.execute(new Runnable() {
+                            public void run() {
+                                arrived(page, loaded);
+                            }
+                        });
+                    }
+                }
+            });
+        }
+
+        return null;
+    }
+
+    private Object[] load(int page) {
+        int from = page * pageSize;
+        int to = Math.min(size, from + pageSize);
+        List<E> elements = loader.load(from, to);
+        if (elements.size() != to - from) {
+            throw new IllegalStateException("Loader returned " + elements.size() +
+                                            " elements instead of " + (to - from));
+        }
+        return elements.toArray();
+    }
+
+    /*
+     * Adds a page loaded in the background, or forgets about it if loading
+     * failed, so that it's asked for again. The page that's dropped to make
+     * room for it, if any, is only dropped once listeners have been told of
+     * the new one.
+     */
+    private void arrived(int page, Object[] elements) {
+        loading.remove(page);
+        if (elements == null) {
+            return;
+        }
+
+        pages.put(page, elements);
+        fireListChanged(ListChange.splice(this, page * pageSize,
+                Collections.nCopies(elements.length, null), elements.length));
+        trim(page);
+    }
+
+    /*
+     * Drops the least recently accessed pages, other than the given one,
+     * while there are more than maxPages. Listeners of a list that loads
+     * pages in the background are told that the elements of a dropped page
+     * were replaced by placeholders; listeners of one that doesn't aren't,
+     * as the page is loaded again when it's next asked for.
+     */
+    private void trim(int added) {
+        Iterator<Map.Entry<Integer, Object[]>> eldest = pages.entrySet().iterator();
+        while (pages.size() > maxPages && eldest.hasNext()) {
+            Map.Entry<Integer, Object[]> entry = eldest.next();
+            int page = entry.getKey();
+            if (page == added) {
+                continue;
+            }
+
+            Object[] elements = entry.getValue();
+            eldest.remove();
+            if (loadExecutor != null) {
+                fireListChanged(ListChange.splice(this, page * pageSize,
+                        Arrays.asList(elements), elements.length));
+                // listeners may have accessed pages
+                eldest = pages.entrySet().iterator();
+            }
+        }
+    }
+
+    private void fireListChanged(ListChange change) {
+        for (ObservableListListener listener : listeners) {
+            if (listener instanceof ObservableListChangeListener) {
+                ((ObservableListChangeListener)listener).listChanged(change);
+            } else {
+                change.dispatch(listener);
+            }
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package org.jdesktop.observablecollections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A live, read-only view of the elements of an {@code ObservableList},
+ * sorted by a comparator. Elements that compare equal are in the order of
+ * the source list. Created by {@link ObservableCollections#sorted}.
+ * <p>
+ * The view keeps the source index of each of its elements, and the view
+ * index of each source element. Added source elements are placed by binary
+ * search, and the places of removed ones found through the index map;
+ * listeners are notified of each run of elements that were inserted or
+ * removed together, as one {@code ListChange}. When the source reports a
+ * change to the properties of an element, which it only does if it
+ * {@link ObservableList#supportsElementPropertyChanged supports} it, the
+ * element is moved to its new place, which listeners are notified of as a
+ * permutation followed by an update of the element; when several elements
+ * change together, only they are placed again. When a change to the
+ * source has several parts, elements that end up out of place, as their
+ * properties changed during it, are moved by a permutation at the end.
+ *
+ * @param <E> the type of the elements
+ * @see ObservableCollections#sorted
+ */
+public final class SortedList<E> extends ObservableListView<E> {
+    private Comparator<? super E> comparator;
+    // the source index of each element of the view
+    private int[] order;
+    // the view index of each element of the source, when valid
+    private int[] inverse;
+    private boolean inverseValid;
+
+    SortedList(ObservableList<E> source, Comparator<? super E> comparator) {
+        super(source);
+        this.comparator = comparator;
+        this.order = sort(identity(source.size()));
+        this.inverse = new int[order.length];
+        invalidateInverse();
+        listen();
+    }
+
+    /**
+     * Returns the comparator that orders this view, or {@code null} if it
+     * uses the natural ordering of the elements.
+     *
+     * @return the comparator
+     */
+    public Comparator<? super E> getComparator() {
+        return comparator;
+    }
+
+    /**
+     * Sets the comparator that orders this view, or {@code null} to use the
+     * natural ordering of the elements, and notifies listeners of the new
+     * order as a permutation.
+     *
+     * @param comparator the new comparator
+     */
+    public void setComparator(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+        ListChange.Builder change = new ListChange.Builder(this);
+        resort(change);
+        fire(change);
+    }
+
+    public E get(int index) {
+        rangeCheck(index);
+        return source.get(order[index]);
+    }
+
+    public int size() {
+        return order.length;
+    }
+
+    /**
+     * Returns the index in the source list of the element at the given
+     * index of this view.
+     *
+     * @param index the index in this view
+     * @return the index in the source list
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    public int getSourceIndex(int index) {
+        rangeCheck(index);
+        return order[index];
+    }
+
+    private static int[] identity(int size) {
+        return identity(0, size);
+    }
+
+    private static int[] identity(int from, int to) {
+        int[] indices = new int[to - from];
+        for (int i = from; i < to; i++) {
+            indices[i - from] = i;
+        }
+        return indices;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(int sourceIndex1, int sourceIndex2) {
+        E e1 = element(sourceIndex1);
+        E e2 = element(sourceIndex2);
+        int result = (comparator == null)
+                ? ((Comparable<Object>)e1).compareTo(e2)
+                : comparator.compare(e1, e2);
+        return result != 0 ? result : Integer.compare(sourceIndex1, sourceIndex2);
+    }
+
+    private int[] sort(int[] sourceIndices) {
+        Integer[] boxed = new Integer[sourceIndices.length];
+        for (int i = 0; i < boxed.length; i++) {
+            boxed[i] = sourceIndices[i];
+        }
+
+        Arrays.sort(boxed, new Comparator<Integer>() {
+            public int compare(Integer i1, Integer i2) {
+                return SortedList.this.compare(i1, i2);
+            }
+        });
+
+        int[] sorted = new int[boxed.length];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = boxed[i];
+        }
+        return sorted;
+    }
+
+    /*
+     * Returns the position in order, between from and to, at which the
+     * given source element belongs.
+     */
+    private int search(int sourceIndex, int from, int to) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(order[mid], sourceIndex) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /*
+     * Inserts the given source elements, which must be sorted, into order,
+     * and returns the position of each of them in the result. Few elements
+     * are placed by binary search, many by merging.
+     */
+    private int[] insert(int[] sorted) {
+        int length = order.length;
+        int[] positions = new int[sorted.length];
+        if ((long)sorted.length * (32 - Integer.numberOfLeadingZeros(length)) < length) {
+            int low = 0;
+            for (int j = 0; j < sorted.length; j++) {
+                low = search(sorted[j], low, length);
+                positions[j] = low;
+            }
+        } else {
+            int i = 0;
+            for (int j = 0; j < sorted.length; j++) {
+                while (i < length && compare(order[i], sorted[j]) < 0) {
+                    i++;
+                }
+                positions[j] = i;
+            }
+        }
+
+        int[] merged = new int[length + sorted.length];
+        int copied = 0;
+        for (int j = 0; j < sorted.length; j++) {
+            int pos = positions[j];
+            System.arraycopy(order, copied, merged, copied + j, pos - copied);
+            merged[pos + j] = sorted[j];
+            positions[j] = pos + j;
+            copied = pos;
+        }
+        System.arraycopy(order, copied, merged, copied + sorted.length, length - copied);
+        order = merged;
+        return positions;
+    }
+
+    /*
+     * Returns the given array without the entries at the given positions,
+     * which must be sorted.
+     */
+    private static int[] remove(int[] array, int[] positions) {
+        int[] result = new int[array.length - positions.length];
+        int copied = 0;
+        for (int k = 0; k < positions.length; k++) {
+            System.arraycopy(array, copied, result, copied - k, positions[k] - copied);
+            copied = positions[k] + 1;
+        }
+        System.arraycopy(array, copied, result, copied - positions.length, array.length - copied);
+        return result;
+    }
+
+    private void invalidateInverse() {
+        inverseValid = false;
+    }
+
+    private int viewIndex(int sourceIndex) {
+        if (!inverseValid) {
+            if (inverse.length != order.length) {
+                inverse = new int[order.length];
+            }
+            for (int i = 0; i < order.length; i++) {
+                inverse[order[i]] = i;
+            }
+            inverseValid = true;
+        }
+        return inverse[sourceIndex];
+    }
+
+    void sourceSpliced(ListChange.Builder change, int index, List<?> removed, int added) {
+        int removedTo = index + removed.size();
+        int shift = added - removed.size();
+
+        if (removed.size() != 0) {
+            // find the removed elements through the index map, and report
+            // each run of them
+            int[] positions = new int[removed.size()];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = viewIndex(index + i);
+            }
+            Arrays.sort(positions);
+
+            int runStart = 0;
+            for (int i = 1; i <= positions.length; i++) {
+                if (i == positions.length || positions[i] != positions[i - 1] + 1) {
+                    List<Object> run = new ArrayList<Object>(i - runStart);
+                    for (int k = runStart; k < i; k++) {
+                        run.add(removed.get(order[positions[k]] - index));
+                    }
+                    change.splice(positions[runStart] - runStart, run, 0);
+                    runStart = i;
+                }
+            }
+            order = remove(order, positions);
+        }
+
+        if (shift != 0) {
+            for (int i = 0; i < order.length; i++) {
+                if (order[i] >= removedTo) {
+                    order[i] += shift;
+                }
+            }
+        }
+
+        if (added != 0) {
+            // place the sorted added elements, reporting each run of them
+            int[] inserted = new int[added];
+            for (int i = 0; i < added; i++) {
+                inserted[i] = index + i;
+            }
+            int[] positions = insert(sort(inserted));
+
+            int runStart = 0;
+            for (int i = 1; i <= added; i++) {
+                if (i == added || positions[i] != positions[i - 1] + 1) {
+                    change.splice(positions[runStart], Collections.emptyList(), i - runStart);
+                    runStart = i;
+                }
+            }
+        }
+
+        invalidateInverse();
+    }
+
+    void sourcePermuted(ListChange.Builder change, int index, int[] permutation) {
+        for (int i = 0; i < order.length; i++) {
+            if (order[i] >= index && order[i] < index + permutation.length) {
+                order[i] = permutation[order[i] - index];
+            }
+        }
+
+        // elements that compare equal may now be in a different order
+        resort(change);
+    }
+
+    void sourceUpdated(ListChange.Builder change, int from, int to) {
+        // take the updated elements out, and place them again among the
+        // rest; any other element that is out of place, as a later part
+        // of the change reports it, is moved by partsTranslated
+        int[] positions = new int[to - from];
+        for (int i = from; i < to; i++) {
+            positions[i - from] = viewIndex(i);
+        }
+        Arrays.sort(positions);
+
+        int[] old = order;
+        order = remove(old, positions);
+        positions = insert(sort(identity(from, to)));
+        invalidateInverse();
+        reportMoved(change, old);
+
+        int runStart = 0;
+        for (int i = 1; i <= positions.length; i++) {
+            if (i == positions.length || positions[i] != positions[i - 1] + 1) {
+                change.updated(positions[runStart], positions[i - 1] + 1);
+                runStart = i;
+            }
+        }
+    }
+
+    /*
+     * While the parts of a change are translated, elements whose properties
+     * changed may be out of place until a later part reports them, and
+     * elements placed meanwhile compared with them. Whatever is still out of
+     * place is moved at the end.
+     */
+    void partsTranslated(ListChange.Builder change) {
+        resort(change);
+    }
+
+    /*
+     * Sorts the view again, and reports the range of elements that moved
+     * as a permutation.
+     */
+    private void resort(ListChange.Builder change) {
+        int[] old = order;
+        order = sort(old);
+        invalidateInverse();
+        reportMoved(change, old);
+    }
+
+    /*
+     * Reports the range of elements that moved from the given order to the
+     * current one as a permutation.
+     */
+    private void reportMoved(ListChange.Builder change, int[] old) {
+        int from = 0;
+        while (from < order.length && order[from] == old[from]) {
+            from++;
+        }
+
+        int to = order.length;
+        while (to > from && order[to - 1] == old[to - 1]) {
+            to--;
+        }
+
+        if (from == to) {
+            return;
+        }
+
+        int[] permutation = new int[to - from];
+        List<Object> oldElements = new ArrayList<Object>(permutation.length);
+        for (int i = from; i < to; i++) {
+            permutation[i - from] = viewIndex(old[i]);
+            oldElements.add(element(old[i]));
+        }
+        change.permuted(from, permutation, oldElements);
+    }
+}
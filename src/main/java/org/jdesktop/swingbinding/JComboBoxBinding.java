@@ -365,6 +365,18 @@ public final class JComboBoxBinding<E, SS, TS> extends AutoBinding<SS, List<E>,
             contentsChanged(row, row);
         }
 
+        protected void changed(int index, int length) {
+            contentsChanged(index, index + length - 1);
+        }
+
+        protected void permuted(int index, int[] permutation) {
+            if (selectedModelIndex >= index && selectedModelIndex < index + permutation.length) {
+                selectedModelIndex = permutation[selectedModelIndex - index];
+            }
+
+            contentsChanged(index, index + permutation.length - 1);
+        }
+
         private void contentsChanged(int row0, int row1) {
             ListDataEvent e = new ListDataEvent(this, ListDataEvent.CONTENTS_CHANGED, row0, row1);
             int size = listeners.size();
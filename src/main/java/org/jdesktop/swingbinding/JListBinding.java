@@ -5,10 +5,15 @@
 
 package org.jdesktop.swingbinding;
 
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.HierarchyBoundsListener;
+import java.awt.event.HierarchyEvent;
 import javax.swing.*;
 import javax.swing.event.*;
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntPredicate;
 import org.jdesktop.beansbinding.AutoBinding;
 import org.jdesktop.beansbinding.ObjectProperty;
 import org.jdesktop.beansbinding.Property;
@@ -172,6 +177,13 @@ import static org.jdesktop.beansbinding.AutoBinding.UpdateStrategy.*;
  * to be explicitly bound, unbound, added to a {@code BindingGroup}, or accessed
  * in a way that is not allowed for a managed binding.
  * <p>
+ * To show changes to the properties of its elements, a {@code JListBinding}
+ * listens to each element once it has been rendered. By default it keeps
+ * listening until the element is removed. With a {@link #setViewportMargin viewport margin},
+ * it only listens to the elements that are visible, plus that many elements
+ * before and after, and stops listening to elements as they're scrolled out
+ * of view.
+ * <p>
  * In addition to binding the elements of a {@code JList}, it is possible to
  * bind to the selection of a {@code JList}. When binding to the selection of a {@code JList}
  * backed by a {@code JListBinding}, the selection is always in terms of elements
@@ -193,6 +205,8 @@ public final class JListBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
     private JList list;
     private BindingListModel model;
     private DetailBinding detailBinding;
+    private int viewportMargin = -1;
+    private ViewportHandler viewportHandler;
 
     /**
      * Constructs an instance of {@code JListBinding}.
@@ -246,6 +260,12 @@ public final class JListBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
             return;
         }
 
+        if (viewportHandler != null) {
+            list.removeComponentListener(viewportHandler);
+            list.removeHierarchyBoundsListener(viewportHandler);
+            viewportHandler = null;
+        }
+
         resetListSelection();
         list.setModel(new DefaultListModel());
         list = null;
@@ -253,6 +273,44 @@ public final class JListBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
         model = null;
     }
     
+    /**
+     * Sets the number of elements, before and after the visible elements of
+     * the list, that this {@code JListBinding} keeps listening to. Elements
+     * further away are not listened to, so changes to their properties are
+     * not shown until they're rendered again, which happens when they're
+     * scrolled into view. The memory and event traffic of the listeners is
+     * then bounded by the size of the list's viewport instead of the size of
+     * the source {@code List}.
+     * <p>
+     * A value of {@code -1}, the default, keeps listening to every element
+     * that has been rendered.
+     *
+     * @param margin the number of elements to keep listening to on either
+     *        side of the visible elements, or {@code -1}
+     * @throws IllegalArgumentException if {@code margin} is less than {@code -1}
+     * @throws IllegalStateException if the {@code JListBinding} is bound
+     * @see #getViewportMargin
+     */
+    public void setViewportMargin(int margin) {
+        throwIfBound();
+        if (margin < -1) {
+            throw new IllegalArgumentException("margin must be -1 or greater");
+        }
+        this.viewportMargin = margin;
+    }
+
+    /**
+     * Returns the number of elements, before and after the visible elements
+     * of the list, that this {@code JListBinding} keeps listening to, or
+     * {@code -1} if it listens to every element that has been rendered.
+     *
+     * @return the viewport margin
+     * @see #setViewportMargin
+     */
+    public int getViewportMargin() {
+        return viewportMargin;
+    }
+
     /**
      * Creates a {@code DetailBinding} and sets it as the {@code DetailBinding}
      * for this {@code JListBinding}. A {@code DetailBinding} specifies the property
@@ -390,6 +448,13 @@ public final class JListBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
                     resetListSelection();
                     model = new BindingListModel();
                     list.setModel(model);
+
+                    if (viewportMargin != -1) {
+                        model.setObserversReleasable(true);
+                        viewportHandler = new ViewportHandler();
+                        list.addComponentListener(viewportHandler);
+                        list.addHierarchyBoundsListener(viewportHandler);
+                    }
                 } else {
                     resetListSelection();
                 }
@@ -408,6 +473,44 @@ public final class JListBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
         selectionModel.setValueIsAdjusting(false);
     }
     
+    /*
+     * Releases the listeners of elements that are far from the visible
+     * ones, whenever the list scrolls or its viewport changes size.
+     */
+    private final class ViewportHandler extends ComponentAdapter implements HierarchyBoundsListener {
+        public void componentMoved(ComponentEvent e) {
+            releaseHiddenRows();
+        }
+
+        public void componentResized(ComponentEvent e) {
+            releaseHiddenRows();
+        }
+
+        public void ancestorResized(HierarchyEvent e) {
+            releaseHiddenRows();
+        }
+
+        public void ancestorMoved(HierarchyEvent e) {
+        }
+
+        private void releaseHiddenRows() {
+            if (list == null) {
+                return;
+            }
+
+            // with nothing visible, no rows are kept
+            int first = list.getFirstVisibleIndex();
+            int last = list.getLastVisibleIndex();
+            final int from = first == -1 ? 0 : first - viewportMargin;
+            final int to = first == -1 ? -1 : last + viewportMargin;
+            model.releaseObservers(new IntPredicate() {
+                public boolean test(int row) {
+                    return row >= from && row <= to;
+                }
+            });
+        }
+    }
+
     private final class BindingListModel extends ListBindingManager implements ListModel  {
         private final List<ListDataListener> listeners;
 
@@ -449,6 +552,10 @@ public final class JListBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
             contentsChanged(row, row);
         }
 
+        protected void changed(int index, int length) {
+            contentsChanged(index, index + length - 1);
+        }
+
         private void contentsChanged(int row0, int row1) {
             ListDataEvent e = new ListDataEvent(this, ListDataEvent.CONTENTS_CHANGED, row0, row1);
             for (ListDataListener listener : listeners) {
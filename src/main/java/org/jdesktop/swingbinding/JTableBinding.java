@@ -5,11 +5,21 @@
 
 package org.jdesktop.swingbinding;
 
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.HierarchyBoundsListener;
+import java.awt.event.HierarchyEvent;
 import javax.swing.*;
 import javax.swing.table.*;
 import javax.swing.event.*;
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.IntPredicate;
 import java.util.function.Predicate;
 
 import org.jdesktop.beansbinding.BindingListener;
@@ -192,6 +202,25 @@ import static org.jdesktop.beansbinding.AutoBinding.UpdateStrategy.*;
  * {@code JTableBinding} itself are also notified of {@code sync} and {@code syncFailed}
  * for the {@code JTableBinding's ColumnBindings}.
  * <p>
+ * To show changes to the properties of its elements, a {@code JTableBinding}
+ * listens to each row once it has been rendered. By default it keeps
+ * listening until the row is removed. With a {@link #setViewportMargin viewport margin},
+ * it only listens to the rows that are visible, plus that many rows above
+ * and below, and stops listening to rows as they're scrolled out of view.
+ * <p>
+ * By default, the table is notified of each change to a cell or a row as
+ * soon as it happens. With a {@link #setCoalescingLatency coalescing latency},
+ * these updates are collected and sent as a few merged events instead, at
+ * most that many milliseconds later.
+ * <p>
+ * Each time the table paints a cell, {@code JTableBinding} reads the cell's
+ * source property and converts its value. To skip this work for rows that
+ * haven't changed, the converted values of a number of rows can be cached;
+ * see {@link #setValueCacheSize}. For large tables, the values of the rows
+ * about to be scrolled into view can also be computed ahead of time, on
+ * threads other than the event dispatch thread; see
+ * {@link #setPrefetchExecutor}.
+ * <p>
  * In addition to binding the elements of a {@code JTable}, it is possible to
  * bind to the selection of a {@code JTable}. When binding to the selection of a {@code JTable}
  * backed by a {@code JTableBinding}, the selection is always in terms of elements
@@ -212,6 +241,11 @@ public final class JTableBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
     private JTable table;
     private BindingTableModel model;
     private boolean editable = true;
+    private int viewportMargin = -1;
+    private ViewportHandler viewportHandler;
+    private int coalescingLatency = -1;
+    private int valueCacheSize;
+    private Executor prefetchExecutor;
     private List<ColumnBinding> columnBindings = new ArrayList<ColumnBinding>();
 
     /**
@@ -265,6 +299,12 @@ public final class JTableBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
             return;
         }
 
+        if (viewportHandler != null) {
+            table.removeComponentListener(viewportHandler);
+            table.removeHierarchyBoundsListener(viewportHandler);
+            viewportHandler = null;
+        }
+
         table.setModel(new DefaultTableModel());
         table = null;
         model.setElements(null, true);
@@ -295,6 +335,172 @@ public final class JTableBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
         return editable;
     }
 
+    /**
+     * Sets the number of rows, above and below the visible rows of the table,
+     * that this {@code JTableBinding} keeps listening to. Rows further away are
+     * not listened to, so changes to the properties of their elements are not
+     * shown until they're rendered again, which happens when they're
+     * scrolled into view. The memory and event traffic of the listeners is
+     * then bounded by the size of the table's viewport instead of the size
+     * of the source {@code List}.
+     * <p>
+     * A value of {@code -1}, the default, keeps listening to every row that
+     * has been rendered.
+     *
+     * @param margin the number of rows to keep listening to on either side
+     *        of the visible rows, or {@code -1}
+     * @throws IllegalArgumentException if {@code margin} is less than {@code -1}
+     * @throws IllegalStateException if the {@code JTableBinding} is bound
+     * @see #getViewportMargin
+     */
+    public void setViewportMargin(int margin) {
+        throwIfBound();
+        if (margin < -1) {
+            throw new IllegalArgumentException("margin must be -1 or greater");
+        }
+        this.viewportMargin = margin;
+    }
+
+    /**
+     * Returns the number of rows, above and below the visible rows of the
+     * table, that this {@code JTableBinding} keeps listening to, or {@code -1}
+     * if it listens to every row that has been rendered.
+     *
+     * @return the viewport margin
+     * @see #setViewportMargin
+     */
+    public int getViewportMargin() {
+        return viewportMargin;
+    }
+
+    /**
+     * Sets the maximum time, in milliseconds, for which this {@code JTableBinding}
+     * may hold back the notification of the table about changed cells and rows.
+     * <p>
+     * By default, with a value of {@code -1}, every change to the value of a
+     * cell, or to an element of the source {@code List}, is sent to the table as
+     * an event of its own, right away. Under a stream of changes, this means
+     * many small events, each with its own layout and repaint work. With a
+     * value of {@code 0} or more, such updates are collected instead. They're
+     * sent as one event per changed column, covering the range of rows that
+     * changed in it, plus one event for the range of whole rows that changed.
+     * A value of {@code 0} sends them on the next cycle of the event dispatch
+     * thread, and a greater value sends them that many milliseconds after the
+     * first change. Insertions, removals and reorderings of rows are still
+     * sent right away, after any updates that are waiting.
+     *
+     * @param latency the maximum time to hold back updates for, in
+     *        milliseconds, or {@code -1} to send each update right away
+     * @throws IllegalArgumentException if {@code latency} is less than {@code -1}
+     * @throws IllegalStateException if the {@code JTableBinding} is bound
+     * @see #getCoalescingLatency
+     */
+    public void setCoalescingLatency(int latency) {
+        throwIfBound();
+        if (latency < -1) {
+            throw new IllegalArgumentException("latency must be -1 or greater");
+        }
+        this.coalescingLatency = latency;
+    }
+
+    /**
+     * Returns the maximum time, in milliseconds, for which this
+     * {@code JTableBinding} may hold back updates to the table, or {@code -1}
+     * if it sends each update right away.
+     *
+     * @return the coalescing latency
+     * @see #setCoalescingLatency
+     */
+    public int getCoalescingLatency() {
+        return coalescingLatency;
+    }
+
+    /**
+     * Sets the number of rows whose cell values this {@code JTableBinding}
+     * caches, or {@code 0}, the default, to not cache values.
+     * <p>
+     * With a cache, the value of a cell is read from its source property and
+     * converted the first time it's painted, and then kept until the source
+     * property reports a change to it, or the row is changed or removed.
+     * When more rows than this have values cached, the values of the row
+     * that was cached first are dropped. Values are only cached for rows that
+     * {@code JTableBinding} listens to, so the source properties of the
+     * columns must notify of changes to their values for the cache to stay
+     * correct. Values are not cached when the source {@code List} is an
+     * {@code ObservableList} that reports element property changes itself.
+     *
+     * @param rows the number of rows to cache the values of, or {@code 0}
+     * @throws IllegalArgumentException if {@code rows} is negative
+     * @throws IllegalStateException if the {@code JTableBinding} is bound
+     * @see #getValueCacheSize
+     */
+    public void setValueCacheSize(int rows) {
+        throwIfBound();
+        if (rows < 0) {
+            throw new IllegalArgumentException("rows must be 0 or greater");
+        }
+        this.valueCacheSize = rows;
+    }
+
+    /**
+     * Returns the number of rows whose cell values this {@code JTableBinding}
+     * caches, or {@code 0} if it doesn't cache values.
+     *
+     * @return the size of the value cache, in rows
+     * @see #setValueCacheSize
+     */
+    public int getValueCacheSize() {
+        return valueCacheSize;
+    }
+
+    /**
+     * Sets the {@code Executor} on which this {@code JTableBinding} computes
+     * the cell values of rows before they're scrolled into view, or
+     * {@code null}, the default, to only compute values when cells are painted.
+     * <p>
+     * Whenever the table scrolls, or its viewport changes size, the values
+     * of one screen of rows below the visible rows, and one above, are
+     * computed on the executor, in tasks of a few rows each, so that an
+     * executor with several threads computes them in parallel. The values
+     * are then put into the value cache on the event dispatch thread, except
+     * those of the rows that changed, were removed, or stopped being
+     * listened to in the meantime, which are dropped. Since the values go
+     * into the value cache, prefetching only happens with a
+     * {@link #setValueCacheSize value cache} large enough for the visible
+     * rows and the prefetched ones.
+     * <p>
+     * Each task reads the source properties of the columns through copies
+     * of its own, which share no state with the properties used on the
+     * event dispatch thread. Only the columns whose source property is a
+     * {@code BeanProperty}, an {@code ELProperty} or an {@code ObjectProperty},
+     * with a base property, if any, that's one of these too, are prefetched;
+     * the others are only computed when their cells are painted. The
+     * converters of the columns are called on the executor's threads,
+     * while the event dispatch thread may call them too, so they must be
+     * safe to call concurrently, and the elements of the source {@code List}
+     * safe to read from those threads.
+     *
+     * @param executor the executor to compute values on, or {@code null}
+     * @throws IllegalStateException if the {@code JTableBinding} is bound
+     * @see #getPrefetchExecutor
+     */
+    public void setPrefetchExecutor(Executor executor) {
+        throwIfBound();
+        this.prefetchExecutor = executor;
+    }
+
+    /**
+     * Returns the {@code Executor} on which this {@code JTableBinding}
+     * computes the cell values of rows before they're scrolled into view, or
+     * {@code null} if it doesn't.
+     *
+     * @return the prefetch executor
+     * @see #setPrefetchExecutor
+     */
+    public Executor getPrefetchExecutor() {
+        return prefetchExecutor;
+    }
+
     /**
      * Creates a {@code ColumnBinding} and adds it to the end of the list of {@code ColumnBindings}
      * maintained by this {@code JTableBinding}.
@@ -701,7 +907,18 @@ public final class JTableBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
                 if (table == null) {
                     table = tableP.getValue(getTargetObject());
                     model = new BindingTableModel();
+                    model.setValueCacheSize(valueCacheSize);
                     table.setModel(model);
+
+                    if (viewportMargin != -1) {
+                        model.setObserversReleasable(true);
+                    }
+
+                    if (viewportMargin != -1 || prefetchExecutor != null) {
+                        viewportHandler = new ViewportHandler();
+                        table.addComponentListener(viewportHandler);
+                        table.addHierarchyBoundsListener(viewportHandler);
+                    }
                 }
 
                 model.setElements((List)pse.getNewValue(), true);
@@ -709,8 +926,110 @@ public final class JTableBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
         }
     }
 
+    /*
+     * Releases the listeners of rows that are far from the visible ones, and
+     * prefetches the values of the rows next to them, whenever the table
+     * scrolls or its viewport changes size.
+     */
+    private final class ViewportHandler extends ComponentAdapter implements HierarchyBoundsListener {
+        public void componentMoved(ComponentEvent e) {
+            viewportChanged();
+        }
+
+        public void componentResized(ComponentEvent e) {
+            viewportChanged();
+        }
+
+        public void ancestorResized(HierarchyEvent e) {
+            viewportChanged();
+        }
+
+        public void ancestorMoved(HierarchyEvent e) {
+        }
+
+        private void viewportChanged() {
+            JTable table = JTableBinding.this.table;
+            if (table == null) {
+                return;
+            }
+
+            // with nothing visible, first > last
+            Rectangle visible = table.getVisibleRect();
+            int first = 0;
+            int last = -1;
+            if (!visible.isEmpty() && table.getRowCount() != 0) {
+                first = table.rowAtPoint(visible.getLocation());
+                last = table.rowAtPoint(new Point(visible.x, visible.y + visible.height - 1));
+                if (first == -1) {
+                    first = 0;
+                }
+                if (last == -1) {
+                    last = table.getRowCount() - 1;
+                }
+            }
+
+            if (viewportMargin != -1) {
+                releaseHiddenRows(table, first, last);
+            }
+
+            if (prefetchExecutor != null && first <= last) {
+                prefetchRows(table, first, last);
+            }
+        }
+
+        private void releaseHiddenRows(final JTable table, int first, int last) {
+            // with nothing visible, no rows are kept
+            final int keepFrom = first <= last ? first - viewportMargin : 0;
+            final int keepTo = first <= last ? last + viewportMargin : -1;
+            model.releaseObservers(new IntPredicate() {
+                public boolean test(int row) {
+                    int view = table.convertRowIndexToView(row);
+                    return view != -1 && view >= keepFrom && view <= keepTo;
+                }
+            });
+        }
+
+        /*
+         * Prefetches one screen of rows below the visible ones, then one
+         * above.
+         */
+        private void prefetchRows(JTable table, int first, int last) {
+            int screen = last - first + 1;
+            int rowCount = table.getRowCount();
+            int[] rows = new int[2 * screen];
+            int count = 0;
+
+            for (int view = last + 1; view <= last + screen && view < rowCount; view++) {
+                rows[count++] = table.convertRowIndexToModel(view);
+            }
+            for (int view = first - 1; view >= first - screen && view >= 0; view--) {
+                rows[count++] = table.convertRowIndexToModel(view);
+            }
+
+            if (count != 0) {
+                model.prefetch(Arrays.copyOf(rows, count), prefetchExecutor);
+            }
+        }
+    }
+
     private final class BindingTableModel extends ListBindingManager implements TableModel  {
         private final List<TableModelListener> listeners;
+        private final int latency = coalescingLatency;
+
+        // updates waiting to be sent: the range of rows that changed in
+        // each column, and the range of whole rows that changed
+        private int[] dirtyFirst;
+        private int[] dirtyLast;
+        private int dirtyRowsFirst = -1;
+        private int dirtyRowsLast = -1;
+        private boolean flushPending;
+        private javax.swing.Timer flushTimer;
+
+        private final Runnable flusher = new Runnable() {
+            public void run() {
+                flushUpdates();
+            }
+        };
 
         public BindingTableModel() {
             listeners = new CopyOnWriteArrayList<TableModelListener>();
@@ -795,27 +1114,109 @@ public final class JTableBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
         }
 
         protected void allChanged() {
+            flushUpdates();
             fireTableModelEvent(new TableModelEvent(this, 0, Integer.MAX_VALUE));
         }
 
         protected void valueChanged(int row, int column) {
-            fireTableModelEvent(new TableModelEvent(this, row, row, column));
+            if (latency == -1) {
+                fireTableModelEvent(new TableModelEvent(this, row, row, column));
+            } else {
+                addUpdate(row, row, column);
+            }
         }
 
         protected void added(int row, int length) {
             assert length > 0; // enforced by ListBindingManager
 
+            flushUpdates();
             fireTableModelEvent(new TableModelEvent(this, row, row + length - 1, TableModelEvent.ALL_COLUMNS, TableModelEvent.INSERT));
         }
 
         protected void removed(int row, int length) {
             assert length > 0; // enforced by ListBindingManager
 
+            flushUpdates();
             fireTableModelEvent(new TableModelEvent(this, row, row + length - 1, TableModelEvent.ALL_COLUMNS, TableModelEvent.DELETE));
         }
 
         protected void changed(int row) {
-            fireTableModelEvent(new TableModelEvent(this, row, row, TableModelEvent.ALL_COLUMNS));
+            changed(row, 1);
+        }
+
+        protected void changed(int row, int length) {
+            if (latency == -1) {
+                fireTableModelEvent(new TableModelEvent(this, row, row + length - 1, TableModelEvent.ALL_COLUMNS));
+            } else {
+                addUpdate(row, row + length - 1, TableModelEvent.ALL_COLUMNS);
+            }
+        }
+
+        protected void permuted(int row, int[] permutation) {
+            flushUpdates();
+
+            TableModelEvent event = new TableModelEvent(this, row, row + permutation.length - 1, TableModelEvent.ALL_COLUMNS);
+            ListSelectionModel selection = table == null ? null : table.getSelectionModel();
+            if (selection == null || selection.isSelectionEmpty()) {
+                fireTableModelEvent(event);
+                return;
+            }
+
+            // remember the selected rows of the range by model index, to
+            // select them again where they were moved to
+            boolean[] selected = new boolean[permutation.length];
+            for (int i = 0; i < permutation.length; i++) {
+                int view = table.convertRowIndexToView(row + i);
+                selected[i] = view != -1 && selection.isSelectedIndex(view);
+            }
+            int anchor = permutedModelIndex(selection.getAnchorSelectionIndex(), row, permutation);
+            int lead = permutedModelIndex(selection.getLeadSelectionIndex(), row, permutation);
+
+            fireTableModelEvent(event);
+
+            selection.setValueIsAdjusting(true);
+            for (int i = 0; i < permutation.length; i++) {
+                int view = table.convertRowIndexToView(row + i);
+                if (view != -1) {
+                    selection.removeSelectionInterval(view, view);
+                }
+            }
+            for (int i = 0; i < permutation.length; i++) {
+                if (selected[i]) {
+                    int view = table.convertRowIndexToView(permutation[i]);
+                    if (view != -1) {
+                        selection.addSelectionInterval(view, view);
+                    }
+                }
+            }
+            if (selection instanceof DefaultListSelectionModel) {
+                if (anchor != -1) {
+                    selection.setAnchorSelectionIndex(table.convertRowIndexToView(anchor));
+                }
+                if (lead != -1) {
+                    ((DefaultListSelectionModel)selection).moveLeadSelectionIndex(table.convertRowIndexToView(lead));
+                }
+            }
+            selection.setValueIsAdjusting(false);
+        }
+
+        /*
+         * Returns the model index that the row at the given view index is
+         * moved to by the permutation of the rows from row on, or -1 if it
+         * isn't in the permuted range. Called before the table knows of the
+         * permutation.
+         */
+        private int permutedModelIndex(int view, int row, int[] permutation) {
+            if (view < 0 || view >= table.getRowCount()) {
+                return -1;
+            }
+
+            int model = table.convertRowIndexToModel(view);
+            if (model < row || model >= row + permutation.length) {
+                return -1;
+            }
+
+            return permutation[model - row];
         }
 
         public String getColumnName(int columnIndex) {
@@ -851,6 +1252,80 @@ public final class JTableBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
             listeners.remove(l);
         }
 
+        private void addUpdate(int first, int last, int column) {
+            if (column == TableModelEvent.ALL_COLUMNS) {
+                dirtyRowsFirst = dirtyRowsFirst == -1 ? first : Math.min(dirtyRowsFirst, first);
+                dirtyRowsLast = Math.max(dirtyRowsLast, last);
+            } else {
+                if (dirtyFirst == null || dirtyFirst.length <= column) {
+                    dirtyFirst = new int[columnCount()];
+                    dirtyLast = new int[dirtyFirst.length];
+                    Arrays.fill(dirtyFirst, -1);
+                    Arrays.fill(dirtyLast, -1);
+                }
+                dirtyFirst[column] = dirtyFirst[column] == -1 ? first : Math.min(dirtyFirst[column], first);
+                dirtyLast[column] = Math.max(dirtyLast[column], last);
+            }
+
+            if (flushPending) {
+                return;
+            }
+
+            flushPending = true;
+            if (latency == 0) {
+                SwingUtilities.invokeLater(flusher);
+            } else {
+                if (flushTimer == null) {
+                    flushTimer = new javax.swing.Timer(latency, new ActionListener() {
+                        public void actionPerformed(ActionEvent e) {
+                            flushUpdates();
+                        }
+                    });
+                    flushTimer.setRepeats(false);
+                }
+                flushTimer.restart();
+            }
+        }
+
+        /*
+         * Sends the updates that are waiting, as one event for the whole
+         * rows and one per column. Must be called before any change to the
+         * rows of the table is sent, so that the updates keep their
+         * meaning.
+         */
+        private void flushUpdates() {
+            if (!flushPending) {
+                return;
+            }
+
+            flushPending = false;
+            if (flushTimer != null) {
+                flushTimer.stop();
+            }
+
+            int rowsFirst = dirtyRowsFirst;
+            int rowsLast = dirtyRowsLast;
+            dirtyRowsFirst = dirtyRowsLast = -1;
+            if (rowsFirst != -1) {
+                fireTableModelEvent(new TableModelEvent(this, rowsFirst, rowsLast, TableModelEvent.ALL_COLUMNS));
+            }
+
+            if (dirtyFirst != null) {
+                for (int column = 0; column < dirtyFirst.length; column++) {
+                    int first = dirtyFirst[column];
+                    int last = dirtyLast[column];
+                    if (first == -1) {
+                        continue;
+                    }
+
+                    dirtyFirst[column] = dirtyLast[column] = -1;
+                    if (first < rowsFirst || last > rowsLast) {
+                        fireTableModelEvent(new TableModelEvent(this, first, last, column));
+                    }
+                }
+            }
+        }
+
         private void fireTableModelEvent(TableModelEvent e) {
             for (TableModelListener listener : listeners) {
                 listener.tableChanged(e);
@@ -6,10 +6,12 @@
 package org.jdesktop.swingbinding;
 
 import java.util.*;
+import java.util.concurrent.Executor;
 import javax.swing.*;
 import org.jdesktop.beansbinding.AutoBinding;
 import org.jdesktop.beansbinding.ObjectProperty;
 import org.jdesktop.beansbinding.Property;
+import org.jdesktop.beansbinding.UpdateCoalescer;
 
 /**
  * A factory class for creating instances of the custom Swing {@code Binding}
@@ -366,4 +368,22 @@ public class SwingBindings {
         return new JComboBoxBinding<E, SS, TS>(strategy, sourceObject, sourceListProperty, targetObject, targetJComboBoxProperty, name);
     }
     
+    /**
+     * Creates an {@code UpdateCoalescer} that flushes itself on the event
+     * dispatch thread, once per batch of changes, by way of
+     * {@code SwingUtilities.invokeLater}.
+     *
+     * @return the {@code UpdateCoalescer}
+     * @see AutoBinding#setUpdateCoalescer
+     */
+    public static UpdateCoalescer createUpdateCoalescer() {
+        return new UpdateCoalescer(EDT_EXECUTOR);
+    }
+
+    private static final Executor EDT_EXECUTOR = new Executor() {
+        public void execute(Runnable command) {
+            SwingUtilities.invokeLater(command);
+        }
+    };
+    
 }
@@ -6,13 +6,18 @@
 package org.jdesktop.swingbinding.adapters;
 
 import java.beans.*;
+import org.jdesktop.observablecollections.ListenerList;
 
 /**
  * @author Shannon Hickey
  */
 public class BeanAdapterBase {
     protected final String property;
-    private PropertyChangeSupport support;
+    // the listeners to all properties, and to the adapted property
+    private final ListenerList<PropertyChangeListener> listeners =
+            new ListenerList<PropertyChangeListener>();
+    private final ListenerList<PropertyChangeListener> propertyListeners =
+            new ListenerList<PropertyChangeListener>();
 
     protected BeanAdapterBase(String property) {
         assert property != null;
@@ -23,7 +28,7 @@ public class BeanAdapterBase {
     protected void listeningStopped() {}
 
     protected final boolean isListening() {
-        return support == null ? false : support.getPropertyChangeListeners().length > 0;
+        return !listeners.isEmpty() || !propertyListeners.isEmpty();
     }
 
     public final void addPropertyChangeListener(PropertyChangeListener listener) {
@@ -31,13 +36,14 @@ public class BeanAdapterBase {
             return;
         }
 
-        boolean wasListening = isListening();
-
-        if (support == null) {
-            support = new PropertyChangeSupport(this);
+        if (listener instanceof PropertyChangeListenerProxy) {
+            PropertyChangeListenerProxy proxy = (PropertyChangeListenerProxy)listener;
+            addPropertyChangeListener(proxy.getPropertyName(), proxy.getListener());
+            return;
         }
 
-        support.addPropertyChangeListener(listener);
+        boolean wasListening = isListening();
+        listeners.add(listener);
 
         if (!wasListening) {
             listeningStarted();
@@ -45,12 +51,18 @@ public class BeanAdapterBase {
     }
 
     public final void removePropertyChangeListener(PropertyChangeListener listener) {
-        if (listener == null || support == null) {
+        if (listener == null) {
+            return;
+        }
+
+        if (listener instanceof PropertyChangeListenerProxy) {
+            PropertyChangeListenerProxy proxy = (PropertyChangeListenerProxy)listener;
+            removePropertyChangeListener(proxy.getPropertyName(), proxy.getListener());
             return;
         }
 
         boolean wasListening = isListening();
-        support.removePropertyChangeListener(listener);
+        listeners.remove(listener);
 
         if (wasListening && !isListening()) {
             listeningStopped();
@@ -58,25 +70,22 @@ public class BeanAdapterBase {
     }
 
     public final PropertyChangeListener[] getPropertyChangeListeners() {
-        if (support == null) {
-            return new PropertyChangeListener[0];
+        PropertyChangeListener[] ret = new PropertyChangeListener[listeners.size() + propertyListeners.size()];
+        listeners.toArray(ret);
+        int i = listeners.size();
+        for (PropertyChangeListener listener : propertyListeners) {
+            ret[i++] = new PropertyChangeListenerProxy(property, listener);
         }
-
-        return support.getPropertyChangeListeners();
+        return ret;
     }
 
     public final void addPropertyChangeListener(String property, PropertyChangeListener listener) {
-        if (listener == null || property == null || property.intern() != this.property) {
+        if (listener == null || !this.property.equals(property)) {
             return;
         }
 
         boolean wasListening = isListening();
-
-        if (support == null) {
-            support = new PropertyChangeSupport(this);
-        }
-
-        support.addPropertyChangeListener(property, listener);
+        propertyListeners.add(listener);
 
         if (!wasListening) {
             listeningStarted();
@@ -84,12 +93,12 @@ public class BeanAdapterBase {
     }
 
     public final void removePropertyChangeListener(String property, PropertyChangeListener listener) {
-        if (listener == null || support == null || property == null || property.intern() != this.property) {
+        if (listener == null || !this.property.equals(property)) {
             return;
         }
 
         boolean wasListening = isListening();
-        support.removePropertyChangeListener(property, listener);
+        propertyListeners.remove(listener);
 
         if (wasListening && !isListening()) {
             listeningStopped();
@@ -97,19 +106,25 @@ public class BeanAdapterBase {
     }
 
     public final PropertyChangeListener[] getPropertyChangeListeners(String property) {
-        if (support == null || property == null || property.intern() != this.property) {
+        if (!this.property.equals(property)) {
             return new PropertyChangeListener[0];
         }
 
-        return support.getPropertyChangeListeners(property);
+        return propertyListeners.toArray(new PropertyChangeListener[propertyListeners.size()]);
     }
     
     protected final void firePropertyChange(Object oldValue, Object newValue) {
-        if (support == null) {
+        if (!isListening() || (oldValue != null && oldValue.equals(newValue))) {
             return;
         }
 
-        support.firePropertyChange(property, oldValue, newValue);
+        PropertyChangeEvent event = new PropertyChangeEvent(this, property, oldValue, newValue);
+        for (PropertyChangeListener listener : listeners) {
+            listener.propertyChange(event);
+        }
+        for (PropertyChangeListener listener : propertyListeners) {
+            listener.propertyChange(event);
+        }
     }
 
 }
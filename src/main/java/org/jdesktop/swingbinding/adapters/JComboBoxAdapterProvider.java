@@ -79,7 +79,7 @@ public final class JComboBoxAdapterProvider implements BeanAdapterProvider {
     }
 
     public Class<?> getAdapterClass(Class<?> type) {
-        return JList.class.isAssignableFrom(type) ? 
+        return JComboBox.class.isAssignableFrom(type) ? 
             JComboBoxAdapterProvider.Adapter.class :
             null;
     }
@@ -5,35 +5,221 @@
 
 package org.jdesktop.swingbinding.impl;
 
+import org.jdesktop.observablecollections.ListChange;
 import org.jdesktop.observablecollections.ObservableList;
-import org.jdesktop.observablecollections.ObservableListListener;
+import org.jdesktop.observablecollections.ObservableListChangeListener;
+import org.jdesktop.observablecollections.PagedList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.IntPredicate;
+import javax.swing.SwingUtilities;
 import org.jdesktop.beansbinding.*;
 
 /**
  * @author sky
  * @author Shannon Hickey
  */
-public abstract class ListBindingManager implements ObservableListListener {
+public abstract class ListBindingManager implements ObservableListChangeListener {
+    // a change in more places than this is reported as allChanged
+    private static final int MAX_CHANGE_PARTS = 16;
+
+    // marks a cell whose value isn't cached
+    private static final Object NOT_CACHED = new Object();
+
+    // the number of rows computed by one prefetch task
+    private static final int PREFETCH_CHUNK = 32;
+
     private AbstractColumnBinding[] bindings;
     private ReusableBinding reusableBinding;
     private List<?> elements;
-    private List<ColumnDescriptionManager> managers;
+    // the elements, if they're loaded a page at a time
+    private PagedList<?> pagedElements;
+    private RowList<RowObserver> observers;
+    // the distinct source properties of the columns, and the columns
+    // of each
+    private Property[] properties;
+    private int[][] propertyColumns;
+    // whether the source property of each column can be prefetched
+    private boolean[] prefetchable;
+    private int observedRows;
+    private boolean releasable;
+    // the observers, when they can be released by releaseObservers
+    private Set<RowObserver> liveObservers;
+    private int valueCacheSize;
+    // the observers with cached values, oldest first
+    private LinkedHashSet<RowObserver> cachedRows;
 
     public ListBindingManager() {
         bindings = getColBindings();
     }
 
-    private List<ColumnDescriptionManager> createManagers(AbstractColumnBinding[] bindings) {
-        List<ColumnDescriptionManager> managers = new ArrayList<ColumnDescriptionManager>(bindings.length);
+    private void createObservers(AbstractColumnBinding[] bindings) {
+        List<Property> distinct = new ArrayList<Property>(bindings.length);
+        List<List<Integer>> columns = new ArrayList<List<Integer>>(bindings.length);
 
         for (AbstractColumnBinding binding : bindings) {
-            managers.add(new ColumnDescriptionManager(binding));
+            Property property = binding.getSourceProperty();
+            int i = 0;
+            while (i < distinct.size() && distinct.get(i) != property) {
+                i++;
+            }
+            if (i == distinct.size()) {
+                distinct.add(property);
+                columns.add(new ArrayList<Integer>(1));
+            }
+            columns.get(i).add(binding.getColumn());
+        }
+
+        properties = distinct.toArray(new Property[distinct.size()]);
+        propertyColumns = new int[properties.length][];
+        for (int i = 0; i < properties.length; i++) {
+            List<Integer> list = columns.get(i);
+            propertyColumns[i] = new int[list.size()];
+            for (int j = 0; j < propertyColumns[i].length; j++) {
+                propertyColumns[i][j] = list.get(j);
+            }
+        }
+
+        prefetchable = new boolean[bindings.length];
+        for (int column = 0; column < bindings.length; column++) {
+            prefetchable[column] = copyOf(bindings[column].getSourceProperty()) != null;
+        }
+
+        observers = new RowList<RowObserver>();
+        observers.insert(0, elements.size());
+        if (releasable) {
+            liveObservers = new HashSet<RowObserver>();
+        }
+    }
+
+    private void stopObserving() {
+        for (RowObserver observer : observers.remove(0, observers.size())) {
+            observer.stopListening();
+        }
+
+        observers = null;
+        liveObservers = null;
+        cachedRows = null;
+        properties = null;
+        propertyColumns = null;
+        prefetchable = null;
+    }
+
+    /*
+     * Sets whether observers are tracked so that releaseObservers can
+     * release them. Takes effect with the next call to setElements.
+     */
+    public final void setObserversReleasable(boolean releasable) {
+        this.releasable = releasable;
+    }
+
+    /*
+     * Stops listening to the rows for which keep returns false. Their
+     * listeners are registered again if they're rendered again.
+     */
+    public final void releaseObservers(IntPredicate keep) {
+        if (liveObservers == null) {
+            return;
+        }
+
+        for (RowObserver observer : new ArrayList<RowObserver>(liveObservers)) {
+            int row = observers.indexOf(observer.node);
+            if (row == -1 || !keep.test(row)) {
+                observer.node.value = null;
+                observer.stopListening();
+            }
+        }
+    }
+
+    /*
+     * Computes the values of the given rows on the executor, and caches
+     * them on the event dispatch thread, except for the rows that changed,
+     * or stopped being listened to, in between. Rows are computed in
+     * chunks, one task per chunk, so that a pool can compute them in
+     * parallel. Only works with a value cache and while rows are listened
+     * to, and skips the rows that are already cached or being prefetched.
+     */
+    public final void prefetch(int[] rows, Executor executor) {
+        if (observers == null || valueCacheSize == 0) {
+            return;
+        }
+
+        RowObserver[] missing = new RowObserver[rows.length];
+        int count = 0;
+
+        for (int row : rows) {
+            if (row < 0 || row >= elements.size() || !isLoaded(row)) {
+                continue;
+            }
+
+            // listen to the row now, so that a change while its values are
+            // being computed isn't missed
+            RowList.Node<RowObserver> node = observers.node(row);
+            if (node.value == null) {
+                node.value = new RowObserver(elements.get(row), node);
+            }
+
+            if (!node.value.prefetching && !isPrefetched(node.value)) {
+                node.value.prefetching = true;
+                missing[count++] = node.value;
+            }
+        }
+
+        for (int from = 0; from < count; from += PREFETCH_CHUNK) {
+            int to = Math.min(count, from + PREFETCH_CHUNK);
+            executor.execute(new Prefetch(Arrays.copyOfRange(missing, from, to)));
+        }
+    }
+
+    /*
+     * Returns whether all the values of a row that can be prefetched are
+     * cached.
+     */
+    private boolean isPrefetched(RowObserver observer) {
+        if (observer.values == null) {
+            return false;
+        }
+
+        for (int column = 0; column < observer.values.length; column++) {
+            if (observer.values[column] == NOT_CACHED && prefetchable[column]) {
+                return false;
+            }
         }
 
-        return managers;
+        return true;
+    }
+
+    /*
+     * Sets the number of rows whose converted values are cached, or 0 to
+     * not cache values. Values are only cached for rows that are listened
+     * to, and a row's values are dropped when its listener reports a change.
+     * When more rows have values than this, the values of the row that got
+     * them first are dropped. Takes effect with the next call to
+     * setElements.
+     */
+    public final void setValueCacheSize(int rows) {
+        this.valueCacheSize = rows;
+    }
+
+    /*
+     * Returns the number of rows that are being listened to.
+     */
+    public final int getObservedRowCount() {
+        return observedRows;
+    }
+
+    /*
+     * Returns the number of rows that have cached values.
+     */
+    public final int getCachedRowCount() {
+        return (cachedRows == null) ? 0 : cachedRows.size();
     }
 
     protected abstract AbstractColumnBinding[] getColBindings();
@@ -44,16 +230,14 @@ public abstract class ListBindingManager implements ObservableListListener {
                 ((ObservableList)this.elements).removeObservableListListener(this);
             }
 
-            if (managers != null) {
-                for (ColumnDescriptionManager manager : managers) {
-                    manager.stopListening();
-                }
+            if (observers != null) {
+                stopObserving();
             }
         }
 
-        managers = null;
         reusableBinding = null;
         this.elements = (elements == null) ? Collections.emptyList() : elements;
+        pagedElements = (elements instanceof PagedList) ? (PagedList<?>)elements : null;
 
         boolean addListeners = false;
 
@@ -68,11 +252,8 @@ public abstract class ListBindingManager implements ObservableListListener {
             reusableBinding = new ReusableBinding(bindings[0]);
         }
 
-        if (addListeners) {
-            managers = createManagers(getColBindings());
-            for (ColumnDescriptionManager manager : managers) {
-                manager.startListening();
-            }
+        if (addListeners && bindings.length != 0) {
+            createObservers(getColBindings());
         }
 
         if (sendAllChanged) {
@@ -92,17 +273,92 @@ public abstract class ListBindingManager implements ObservableListListener {
         return (elements == null) ? 0 : elements.size();
     }
     
+    /*
+     * Returns whether the element at the given index is loaded. If the
+     * elements are loaded a page at a time, asks for the element's page to
+     * be loaded if it isn't; the row is reported as changed when it arrives.
+     */
+    private boolean isLoaded(int row) {
+        if (pagedElements == null) {
+            return true;
+        }
+
+        pagedElements.get(row);
+        return pagedElements.isLoaded(row);
+    }
+
     public final Object valueAt(int row, int column) {
-        if (managers != null) {
+        if (!isLoaded(row)) {
+            return null;
+        }
+
+        RowObserver observer = null;
+        if (observers != null) {
             // Make sure the necessary listeners have been registered
-            for (ColumnDescriptionManager manager : managers) {
-                manager.validateBinding(row);
+            RowList.Node<RowObserver> node = observers.node(row);
+            if (node.value == null) {
+                node.value = new RowObserver(elements.get(row), node);
+            }
+            observer = node.value;
+
+            if (observer.values != null && observer.values[column] != NOT_CACHED) {
+                return observer.values[column];
             }
         }
 
         reusableBinding.setBaseAndSource(bindings[column], elements.get(row));
         Binding.ValueResult result = reusableBinding.getSourceValueForTarget();
-        return result.failed() ? null : result.getValue();
+        Object value = result.failed() ? null : result.getValue();
+
+        if (observer != null && valueCacheSize > 0) {
+            cacheValue(observer, column, value);
+        }
+
+        return value;
+    }
+
+    private void cacheValue(RowObserver observer, int column, Object value) {
+        if (observer.values == null) {
+            if (cachedRows == null) {
+                cachedRows = new LinkedHashSet<RowObserver>();
+            }
+
+            Iterator<RowObserver> oldest = cachedRows.iterator();
+            while (cachedRows.size() >= valueCacheSize) {
+                oldest.next().values = null;
+                oldest.remove();
+            }
+
+            observer.values = new Object[bindings.length];
+            Arrays.fill(observer.values, NOT_CACHED);
+            cachedRows.add(observer);
+        }
+
+        observer.values[column] = value;
+    }
+
+    private void dropValues(RowObserver observer) {
+        if (observer.values != null) {
+            observer.values = null;
+            cachedRows.remove(observer);
+        }
+    }
+
+    /*
+     * Drops the cached values of the given rows.
+     */
+    private void invalidateValues(int index, int length) {
+        if (observers == null) {
+            return;
+        }
+
+        for (int row = index; row < index + length; row++) {
+            RowObserver observer = observers.get(row);
+            if (observer != null) {
+                observer.version++;
+                dropValues(observer);
+            }
+        }
     }
 
     public final int columnCount() {
@@ -114,10 +370,8 @@ public abstract class ListBindingManager implements ObservableListListener {
             return;
         }
 
-        if (managers != null) {
-            for (ColumnDescriptionManager manager : managers) {
-                manager.add(index, length);
-            }
+        if (observers != null) {
+            splice(index, 0, length);
         }
 
         added(index, length);
@@ -128,19 +382,19 @@ public abstract class ListBindingManager implements ObservableListListener {
             return;
         }
 
-        if (managers != null) {
-            for (ColumnDescriptionManager manager : managers) {
-                manager.remove(index, elements.size());
-            }
+        if (observers != null) {
+            splice(index, elements.size(), 0);
         }
 
         removed(index, elements.size());
     }
     
     public final void listElementReplaced(ObservableList list, int index, Object oldElement) {
-        if (managers != null) {
-            for (ColumnDescriptionManager manager : managers) {
-                manager.replaced(index);
+        if (observers != null) {
+            RowList.Node<RowObserver> node = observers.node(index);
+            if (node.value != null) {
+                node.value.stopListening();
+                node.value = null;
             }
         }
 
@@ -148,8 +402,67 @@ public abstract class ListBindingManager implements ObservableListListener {
     }
     
     public final void listElementPropertyChanged(ObservableList list, int index) {
+        invalidateValues(index, 1);
         changed(index);
     }
+
+    public final void listChanged(ListChange change) {
+        List<ListChange.Part> parts = change.getParts();
+        boolean notifyParts = parts.size() <= MAX_CHANGE_PARTS;
+
+        for (ListChange.Part part : parts) {
+            int index = part.getIndex();
+
+            if (part.wasUpdated()) {
+                invalidateValues(index, part.getTo() - index);
+                if (notifyParts) {
+                    changed(index, part.getTo() - index);
+                }
+                continue;
+            }
+
+            if (part.wasPermuted()) {
+                int[] permutation = new int[part.getTo() - index];
+                for (int i = 0; i < permutation.length; i++) {
+                    permutation[i] = part.getPermutation(index + i);
+                }
+
+                if (observers != null) {
+                    observers.permute(index, permutation);
+                }
+
+                if (notifyParts) {
+                    permuted(index, permutation);
+                }
+                continue;
+            }
+
+            int removed = part.getRemovedSize();
+            int added = part.getAddedSize();
+
+            if (observers != null) {
+                splice(index, removed, added);
+            }
+
+            if (notifyParts) {
+                // the replaced rows are reported as changed, and only the
+                // difference in size as added or removed
+                int replaced = Math.min(removed, added);
+                if (replaced != 0) {
+                    changed(index, replaced);
+                }
+                if (removed > replaced) {
+                    removed(index + replaced, removed - replaced);
+                } else if (added > replaced) {
+                    added(index + replaced, added - replaced);
+                }
+            }
+        }
+
+        if (!notifyParts) {
+            allChanged();
+        }
+    }
     
     protected abstract void allChanged();
 
@@ -161,86 +474,215 @@ public abstract class ListBindingManager implements ObservableListListener {
 
     protected abstract void changed(int row);
 
-    private final class ColumnDescriptionManager {
-        private final AbstractColumnBinding columnBinding;
-        private List<EntryWrapper> wrappers;
+    protected void changed(int index, int length) {
+        for (int i = 0; i < length; i++) {
+            changed(index + i);
+        }
+    }
 
-        ColumnDescriptionManager(AbstractColumnBinding columnBinding) {
-            this.columnBinding = columnBinding;
+    /*
+     * The rows from index on were reordered: permutation[i] is the new
+     * index of the row that was at index + i.
+     */
+    protected void permuted(int index, int[] permutation) {
+        changed(index, permutation.length);
+    }
+
+    private void splice(int index, int removed, int added) {
+        for (RowObserver observer : observers.remove(index, index + removed)) {
+            observer.stopListening();
         }
+        observers.insert(index, added);
+    }
 
-        public void startListening() {
-            int size = elements.size();
-            wrappers = new ArrayList<EntryWrapper>(size);
-            for (int i = 0; i < size; i++) {
-                wrappers.add(null);
+    /*
+     * Listens to the source properties of all columns for one row, and
+     * reports a change to the columns of the property that changed.
+     */
+    private final class RowObserver implements PropertyStateListener {
+        private Object source;
+        private final RowList.Node<RowObserver> node;
+        // the cached values of the columns, if any
+        private Object[] values;
+        // whether the values are being computed by a prefetch
+        private boolean prefetching;
+        // incremented on every change to the row, so that values computed
+        // before it are dropped
+        private int version;
+
+        RowObserver(Object source, RowList.Node<RowObserver> node) {
+            this.source = source;
+            this.node = node;
+            for (Property property : properties) {
+                property.addPropertyStateListener(source, this);
+            }
+            observedRows++;
+            if (liveObservers != null) {
+                liveObservers.add(this);
             }
         }
 
         public void stopListening() {
-            for (EntryWrapper wrapper : wrappers) {
-                if (wrapper != null) {
-                    wrapper.stopListening();
-                }
+            for (Property property : properties) {
+                property.removePropertyStateListener(source, this);
+            }
+            source = null;
+            dropValues(this);
+            observedRows--;
+            if (liveObservers != null) {
+                liveObservers.remove(this);
             }
-
-            wrappers = null;
         }
 
-        public void validateBinding(int row) {
-            if (wrappers.get(row) == null) {
-                EntryWrapper wrapper = new EntryWrapper(getElement(row));
-                wrappers.set(row, wrapper);
+        public void propertyStateChanged(PropertyStateEvent pse) {
+            if (!pse.getValueChanged()) {
+                return;
             }
-        }
 
-        void wrapperChanged(EntryWrapper wrapper) {
-            int row = wrappers.indexOf(wrapper);
-            ListBindingManager.this.valueChanged(row, columnBinding.getColumn());
+            version++;
+
+            int row = observers.indexOf(node);
+            if (row == -1) {
+                return;
+            }
+
+            for (int i = 0; i < properties.length; i++) {
+                if (properties[i] == pse.getSourceProperty()) {
+                    for (int column : propertyColumns[i]) {
+                        if (values != null) {
+                            values[column] = NOT_CACHED;
+                        }
+                        valueChanged(row, column);
+                    }
+                    return;
+                }
+            }
         }
+    }
 
-        private void add(int index, int length) {
-            for (int i = 0; i < length; i++) {
-                wrappers.add(index, null);
+    /*
+     * Computes the values of some rows on the executor, with a binding of
+     * its own and copies of the columns' source properties, then publishes
+     * them on the event dispatch thread. The copies don't listen to
+     * anything, so the executor's threads don't share the state that the
+     * properties keep for the rows that are listened to. Columns whose
+     * source property can't be copied are left to be computed when the
+     * rows are rendered.
+     */
+    private final class Prefetch implements Runnable {
+        private final RowObserver[] rows;
+        private final Object[] sources;
+        private final int[] versions;
+        private final AbstractColumnBinding[] bindings;
+        private final Property[] properties;
+
+        Prefetch(RowObserver[] rows) {
+            this.rows = rows;
+            this.sources = new Object[rows.length];
+            this.versions = new int[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                sources[i] = rows[i].source;
+                versions[i] = rows[i].version;
+            }
+            this.bindings = ListBindingManager.this.bindings;
+            this.properties = new Property[bindings.length];
+            for (int column = 0; column < bindings.length; column++) {
+                properties[column] = copyOf(bindings[column].getSourceProperty());
             }
         }
 
-        private void remove(int index, int length) {
-            while (length-- > 0) {
-                EntryWrapper wrapper = wrappers.remove(index);
-                if (wrapper != null) {
-                    wrapper.stopListening();
+        public void run() {
+            Object[][] values = null;
+
+            try {
+                ReusableBinding binding = new ReusableBinding(bindings[0]);
+                values = new Object[rows.length][bindings.length];
+                for (int i = 0; i < rows.length; i++) {
+                    for (int column = 0; column < bindings.length; column++) {
+                        if (properties[column] == null) {
+                            values[i][column] = NOT_CACHED;
+                            continue;
+                        }
+
+                        binding.setBaseAndSource(bindings[column], properties[column], sources[i]);
+                        Binding.ValueResult result = binding.getSourceValueForTarget();
+                        values[i][column] = result.failed() ? null : result.getValue();
+                    }
                 }
+            } catch (RuntimeException e) {
+                // the rows are computed again when they're rendered
+                values = null;
+            } finally {
+                final Object[][] computed = values;
+                SwingUtilities.invokeLater(new Runnable() {
+                    public void run() {
+                        publish(computed);
+                    }
+                });
             }
         }
 
-        private void replaced(int index) {
-            EntryWrapper wrapper = wrappers.get(index);
-            if (wrapper != null) {
-                wrapper.stopListening();
+        private void publish(Object[][] values) {
+            for (RowObserver observer : rows) {
+                observer.prefetching = false;
             }
-            wrappers.set(index, null);
-        }
 
-        private final class EntryWrapper implements PropertyStateListener {
-            private Object source;
+            if (values == null) {
+                return;
+            }
 
-            EntryWrapper(Object source) {
-                this.source = source;
-                columnBinding.getSourceProperty().addPropertyStateListener(source, this);
+            for (int i = 0; i < rows.length; i++) {
+                RowObserver observer = rows[i];
+                // skip the rows that stopped being listened to, or changed
+                if (observer.source != sources[i] || observer.version != versions[i]) {
+                    continue;
+                }
+
+                for (int column = 0; column < values[i].length; column++) {
+                    if (values[i][column] != NOT_CACHED
+                            && (observer.values == null || observer.values[column] == NOT_CACHED)) {
+                        cacheValue(observer, column, values[i][column]);
+                    }
+                }
             }
-            
-            public void stopListening() {
-                columnBinding.getSourceProperty().removePropertyStateListener(source, this);
-                source = null;
+        }
+    }
+
+    /*
+     * Returns a copy of a source property that listens to nothing, or null
+     * if the property isn't one that can be copied.
+     */
+    private static Property copyOf(Property property) {
+        if (property instanceof ObjectProperty) {
+            // keeps no state
+            return property;
+        }
+
+        if (property instanceof BeanProperty) {
+            BeanProperty beanProperty = (BeanProperty)property;
+            Property base = beanProperty.getBaseProperty();
+            if (base != null) {
+                base = copyOf(base);
+                if (base == null) {
+                    return null;
+                }
             }
+            return BeanProperty.create(base, beanProperty.getPath());
+        }
 
-            public void propertyStateChanged(PropertyStateEvent pse) {
-                if (pse.getValueChanged()) {
-                    wrapperChanged(this);
+        if (property instanceof ELProperty) {
+            ELProperty elProperty = (ELProperty)property;
+            Property base = elProperty.getBaseProperty();
+            if (base != null) {
+                base = copyOf(base);
+                if (base == null) {
+                    return null;
                 }
             }
+            return ELProperty.create(base, elProperty.getExpression());
         }
+
+        return null;
     }
 
     private final class ReusableBinding extends Binding {
@@ -249,7 +691,11 @@ public abstract class ListBindingManager implements ObservableListListener {
         }
 
         public void setBaseAndSource(AbstractColumnBinding base, Object source) {
-            setSourceProperty(base.getSourceProperty());
+            setBaseAndSource(base, base.getSourceProperty(), source);
+        }
+
+        public void setBaseAndSource(AbstractColumnBinding base, Property sourceProperty, Object source) {
+            setSourceProperty(sourceProperty);
             setTargetProperty(base.getTargetProperty());
             setSourceObject(source);
             setConverter(base.getConverter());
@@ -0,0 +1,273 @@
+package org.jdesktop.swingbinding.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A list of per-row values that knows the index of each of its nodes.
+ * <p>
+ * Rows are the nodes of an implicit treap: a binary tree ordered by
+ * position, balanced by random priorities, where each node knows the size
+ * of its subtree and its parent. Whoever holds a node can find its current
+ * index in O(log n), however many rows were inserted or removed before it,
+ * and ranges of rows are inserted, removed and permuted in
+ * O(k + log n). Values are {@code null} until they're set.
+ */
+final class RowList<E> {
+    static final class Node<E> {
+        private Node<E> left;
+        private Node<E> right;
+        private Node<E> parent;
+        private final int priority;
+        private int size = 1;
+        E value;
+
+        private Node(int priority) {
+            this.priority = priority;
+        }
+    }
+
+    private Node<E> root;
+    private int seed = 0x2545F491;
+
+    // results of split
+    private Node<E> splitLeft;
+    private Node<E> splitRight;
+
+    int size() {
+        return size(root);
+    }
+
+    /*
+     * Returns the node of the row at the given index.
+     */
+    Node<E> node(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+
+        Node<E> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    E get(int index) {
+        return node(index).value;
+    }
+
+    /*
+     * Returns the index of the given node, or -1 if its row has been
+     * removed.
+     */
+    int indexOf(Node<E> node) {
+        int index = size(node.left);
+        Node<E> n = node;
+        for (; n.parent != null; n = n.parent) {
+            if (n == n.parent.right) {
+                index += size(n.parent.left) + 1;
+            }
+        }
+        return n == root ? index : -1;
+    }
+
+    /*
+     * Inserts count rows, with null values, at the given index.
+     */
+    void insert(int index, int count) {
+        if (index < 0 || index > size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+
+        if (count == 0) {
+            return;
+        }
+
+        List<Node<E>> nodes = new ArrayList<Node<E>>(count);
+        for (int i = 0; i < count; i++) {
+            nodes.add(new Node<E>(nextPriority()));
+        }
+
+        split(root, index);
+        Node<E> right = splitRight;
+        setRoot(merge(merge(splitLeft, build(nodes)), right));
+    }
+
+    /*
+     * Removes the rows from index from, inclusive, to index to, exclusive,
+     * and returns their non-null values, in order.
+     */
+    List<E> remove(int from, int to) {
+        Node<E> range = cut(from, to);
+        List<E> values = new ArrayList<E>();
+        if (range != null) {
+            List<Node<E>> nodes = new ArrayList<Node<E>>(range.size);
+            collect(range, nodes);
+            for (Node<E> node : nodes) {
+                if (node.value != null) {
+                    values.add(node.value);
+                }
+            }
+        }
+        return values;
+    }
+
+    /*
+     * Reorders the rows from the given index on: permutation[i] is the new
+     * index of the row at index + i. Nodes keep their values.
+     */
+    @SuppressWarnings("unchecked")
+    void permute(int index, int[] permutation) {
+        Node<E> range = cut(index, index + permutation.length);
+        List<Node<E>> nodes = new ArrayList<Node<E>>(permutation.length);
+        collect(range, nodes);
+
+        Node<E>[] permuted = new Node[permutation.length];
+        for (int i = 0; i < permuted.length; i++) {
+            permuted[permutation[i] - index] = nodes.get(i);
+        }
+        for (Node<E> node : permuted) {
+            node.left = node.right = node.parent = null;
+        }
+
+        split(root, index);
+        Node<E> right = splitRight;
+        setRoot(merge(merge(splitLeft, build(Arrays.asList(permuted))), right));
+    }
+
+    /*
+     * Takes the given range out of the tree, and returns it as a tree of
+     * its own.
+     */
+    private Node<E> cut(int from, int to) {
+        if (from < 0 || to > size() || from > to) {
+            throw new IndexOutOfBoundsException("from " + from + ", to " + to + ", size " + size());
+        }
+
+        split(root, to);
+        Node<E> right = splitRight;
+        split(splitLeft, from);
+        Node<E> range = splitRight;
+        setRoot(merge(splitLeft, right));
+        if (range != null) {
+            range.parent = null;
+        }
+        return range;
+    }
+
+    private void setRoot(Node<E> node) {
+        root = node;
+        if (node != null) {
+            node.parent = null;
+        }
+    }
+
+    /*
+     * Splits t into a tree of its first k nodes, left in splitLeft, and a
+     * tree of the rest, left in splitRight.
+     */
+    private void split(Node<E> t, int k) {
+        if (t == null) {
+            splitLeft = splitRight = null;
+        } else if (size(t.left) >= k) {
+            split(t.left, k);
+            t.left = splitRight;
+            update(t);
+            splitRight = t;
+        } else {
+            split(t.right, k - size(t.left) - 1);
+            t.right = splitLeft;
+            update(t);
+            splitLeft = t;
+        }
+    }
+
+    private Node<E> merge(Node<E> a, Node<E> b) {
+        if (a == null) {
+            return b;
+        } else if (b == null) {
+            return a;
+        } else if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        } else {
+            b.left = merge(a, b.left);
+            update(b);
+            return b;
+        }
+    }
+
+    /*
+     * Builds a tree of the given detached nodes, in order, in linear time:
+     * the stack holds the right spine of the tree built so far, and a
+     * node's subtree is complete when it's popped.
+     */
+    private Node<E> build(List<Node<E>> nodes) {
+        List<Node<E>> stack = new ArrayList<Node<E>>();
+        for (Node<E> node : nodes) {
+            Node<E> last = null;
+            while (!stack.isEmpty() && stack.get(stack.size() - 1).priority < node.priority) {
+                last = stack.remove(stack.size() - 1);
+                update(last);
+            }
+
+            node.left = last;
+            if (!stack.isEmpty()) {
+                stack.get(stack.size() - 1).right = node;
+            }
+            stack.add(node);
+        }
+
+        for (int i = stack.size() - 1; i >= 0; i--) {
+            update(stack.get(i));
+        }
+
+        return stack.isEmpty() ? null : stack.get(0);
+    }
+
+    private static <E> void collect(Node<E> node, List<Node<E>> nodes) {
+        List<Node<E>> stack = new ArrayList<Node<E>>();
+        while (node != null || !stack.isEmpty()) {
+            while (node != null) {
+                stack.add(node);
+                node = node.left;
+            }
+            node = stack.remove(stack.size() - 1);
+            nodes.add(node);
+            node = node.right;
+        }
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static <E> void update(Node<E> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        if (node.left != null) {
+            node.left.parent = node;
+        }
+        if (node.right != null) {
+            node.right.parent = node;
+        }
+    }
+
+    private int nextPriority() {
+        // xorshift
+        int x = seed;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        return seed = x;
+    }
+}
@@ -0,0 +1,95 @@
+package org.jdesktop.beansbinding;
+
+import junit.framework.TestCase;
+import org.jdesktop.beansbinding.BindingTest.BoundBean;
+
+/**
+ * Tests that a {@code BindingGraphProfiler} finds repeated syncs and cycles
+ * for the change that caused them.
+ */
+public class BindingGraphProfilerTest extends TestCase {
+
+    private static final Property<BoundBean, Object> VALUE = BeanProperty.create("value");
+
+    private final BindingGraphProfiler profiler = new BindingGraphProfiler();
+
+    protected void setUp() {
+        BindingMetrics.install(profiler);
+    }
+
+    protected void tearDown() {
+        BindingMetrics.install(null);
+    }
+
+    private static AutoBinding<BoundBean, Object, BoundBean, Object> bind(BoundBean source, BoundBean target, String name) {
+        AutoBinding<BoundBean, Object, BoundBean, Object> binding =
+                Bindings.createAutoBinding(AutoBinding.UpdateStrategy.READ,
+                                           source, VALUE, target, VALUE, name);
+        binding.bind();
+        return binding;
+    }
+
+    public void testDiamondRefreshesTwice() {
+        BoundBean a = new BoundBean();
+        BoundBean b = new BoundBean();
+        BoundBean c = new BoundBean();
+        BoundBean d = new BoundBean();
+        BoundBean e = new BoundBean();
+        bind(a, b, "x");
+        bind(a, c, "y");
+        bind(b, d, "z1");
+        AutoBinding<BoundBean, Object, BoundBean, Object> z2 =
+                Bindings.createAutoBinding(AutoBinding.UpdateStrategy.READ, c, VALUE, d, VALUE, "z2");
+        // so that d changes again
+        z2.setConverter(new Converter<Object, Object>() {
+            public Object convertForward(Object value) {
+                return (Integer)value + 100;
+            }
+
+            public Object convertReverse(Object value) {
+                return (Integer)value - 100;
+            }
+        });
+        z2.bind();
+        bind(d, e, "w");
+        profiler.reset();
+
+        a.setValue(1);
+
+        assertEquals(1, profiler.getCauseCount());
+        assertEquals(Long.valueOf(1), profiler.getRepeatedSyncs().get("w"));
+        assertEquals(1, profiler.getRepeatedSyncs().size());
+        assertEquals(Integer.valueOf(5), profiler.getMaxFanOut().get(VALUE.toString()));
+        assertTrue(profiler.getCycles().isEmpty());
+
+        BindingGraphProfiler.Event root = profiler.getRecentCauses().get(0);
+        assertNull(root.getOperation());
+        assertEquals(2, root.getChildren().size());
+        assertEquals("x", root.getChildren().get(0).getName());
+        assertEquals(BindingMetrics.Operation.SOURCE_CHANGED, root.getChildren().get(0).getOperation());
+    }
+
+    public void testFeedbackIsACycle() {
+        final BoundBean a = new BoundBean();
+        BoundBean b = new BoundBean();
+        a.setValue(0);
+        AutoBinding<BoundBean, Object, BoundBean, Object> x = bind(a, b, "x");
+        x.addBindingListener(new AbstractBindingListener() {
+            public void synced(Binding binding) {
+                int value = (Integer)a.getValue();
+                if (value < 3) {
+                    a.setValue(value + 1);
+                }
+            }
+        });
+        profiler.reset();
+
+        a.setValue(1);
+
+        assertEquals(1, profiler.getCauseCount());
+        assertEquals(Integer.valueOf(2), profiler.getCycles().get("x -> x"));
+        assertEquals(Long.valueOf(2), profiler.getRepeatedSyncs().get("x"));
+        assertEquals(3, profiler.getHistogram("x", BindingMetrics.Operation.REFRESH).getCount());
+        assertTrue(profiler.dump().contains("2x x -> x"));
+    }
+}
@@ -0,0 +1,152 @@
+package org.jdesktop.beansbinding;
+
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.TestCase;
+import org.jdesktop.beansbinding.BindingTest.BoundBean;
+
+/**
+ * Tests bulk updates on {@code BindingGroup}.
+ */
+public class BindingGroupTest extends TestCase {
+
+    private static final Property<BoundBean, Object> VALUE = BeanProperty.create("value");
+
+    private static class Counter extends AbstractBindingListener {
+        int synced;
+        int sourceChanged;
+
+        public void synced(Binding binding) {
+            synced++;
+        }
+
+        public void sourceChanged(Binding binding, PropertyStateEvent event) {
+            sourceChanged++;
+        }
+    }
+
+    public void testBulkUpdate() {
+        BoundBean[] sources = new BoundBean[3];
+        BoundBean[] targets = new BoundBean[3];
+        BindingGroup group = new BindingGroup();
+        Counter counter = new Counter();
+        group.addBindingListener(counter);
+
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = new BoundBean();
+            targets[i] = new BoundBean();
+            group.addBinding(Bindings.createAutoBinding(AutoBinding.UpdateStrategy.READ_WRITE,
+                    sources[i], VALUE, targets[i], VALUE));
+        }
+        group.bind();
+        assertEquals(3, counter.synced);
+
+        group.beginUpdate();
+        group.beginUpdate();
+        assertTrue(group.isUpdating());
+        for (int round = 0; round < 100; round++) {
+            sources[0].setValue(round);
+            sources[1].setValue(round);
+        }
+        group.endUpdate();
+        assertTrue(group.isUpdating());
+        assertNull(targets[0].getValue());
+        assertEquals(0, counter.sourceChanged);
+        assertEquals(3, counter.synced);
+
+        group.endUpdate();
+        assertFalse(group.isUpdating());
+        assertEquals(99, targets[0].getValue());
+        assertEquals(99, targets[1].getValue());
+        assertNull(targets[2].getValue());
+        assertEquals(5, counter.synced);
+
+        sources[2].setValue("now");
+        assertEquals("now", targets[2].getValue());
+        assertEquals(1, counter.sourceChanged);
+
+        try {
+            group.endUpdate();
+            fail();
+        } catch (IllegalStateException ise) {
+        }
+    }
+
+    public void testTargetChangesDuringBulkUpdate() {
+        BoundBean readSource = new BoundBean();
+        BoundBean readTarget = new BoundBean();
+        BoundBean writeSource = new BoundBean();
+        BoundBean writeTarget = new BoundBean();
+        BindingGroup group = new BindingGroup();
+        group.addBinding(Bindings.createAutoBinding(AutoBinding.UpdateStrategy.READ,
+                readSource, VALUE, readTarget, VALUE));
+        group.addBinding(Bindings.createAutoBinding(AutoBinding.UpdateStrategy.READ_WRITE,
+                writeSource, VALUE, writeTarget, VALUE));
+        group.bind();
+
+        group.beginUpdate();
+        readTarget.setValue("edited");
+        writeTarget.setValue("edited");
+        group.endUpdate();
+
+        // a READ binding ignores target changes, and a READ_WRITE one saves them
+        assertEquals("edited", readTarget.getValue());
+        assertNull(readSource.getValue());
+        assertEquals("edited", writeSource.getValue());
+        assertEquals("edited", writeTarget.getValue());
+
+        // a change to the source wins
+        group.beginUpdate();
+        writeTarget.setValue("target");
+        writeSource.setValue("source");
+        group.endUpdate();
+        assertEquals("source", writeTarget.getValue());
+    }
+
+    public void testCustomBindingReplaysChanges() {
+        BoundBean source = new BoundBean();
+        BoundBean target = new BoundBean();
+        final List<PropertyStateEvent> events = new ArrayList<PropertyStateEvent>();
+        Binding<BoundBean, Object, BoundBean, Object> binding =
+                new Binding<BoundBean, Object, BoundBean, Object>(source, VALUE, target, VALUE, null) {
+            protected void bindImpl() {
+            }
+
+            protected void unbindImpl() {
+            }
+
+            protected void sourceChangedImpl(PropertyStateEvent pse) {
+                events.add(pse);
+            }
+        };
+        BindingGroup group = new BindingGroup();
+        group.addBinding(binding);
+        group.bind();
+
+        group.beginUpdate();
+        source.setValue("a");
+        source.setValue("b");
+        assertTrue(events.isEmpty());
+        group.endUpdate();
+
+        assertEquals(1, events.size());
+        assertNull(events.get(0).getOldValue());
+        assertEquals("b", events.get(0).getNewValue());
+    }
+
+    public void testRemovedBindingIsSynced() {
+        BoundBean source = new BoundBean();
+        BoundBean target = new BoundBean();
+        BindingGroup group = new BindingGroup();
+        Binding binding = Bindings.createAutoBinding(AutoBinding.UpdateStrategy.READ,
+                source, VALUE, target, VALUE);
+        group.addBinding(binding);
+        group.bind();
+
+        group.beginUpdate();
+        source.setValue("changed");
+        group.removeBinding(binding);
+        assertEquals("changed", target.getValue());
+        group.endUpdate();
+    }
+}
@@ -0,0 +1,75 @@
+package org.jdesktop.beansbinding;
+
+import junit.framework.TestCase;
+import org.jdesktop.beansbinding.BindingMetrics.Operation;
+import org.jdesktop.beansbinding.BindingTest.BoundBean;
+
+/**
+ * Tests that an installed {@code InMemoryBindingMetrics} is told of the
+ * operations of bindings and properties.
+ */
+public class BindingMetricsTest extends TestCase {
+
+    private static final Property<BoundBean, Object> VALUE = BeanProperty.create("value");
+
+    private final InMemoryBindingMetrics metrics = new InMemoryBindingMetrics();
+
+    protected void setUp() {
+        BindingMetrics.install(metrics);
+    }
+
+    protected void tearDown() {
+        BindingMetrics.install(null);
+    }
+
+    public void testBindingOperationsAreMeasured() {
+        BoundBean source = new BoundBean();
+        BoundBean target = new BoundBean();
+        AutoBinding<BoundBean, Object, BoundBean, Object> binding =
+                Bindings.createAutoBinding(AutoBinding.UpdateStrategy.READ_WRITE,
+                                           source, VALUE, target, VALUE, "value");
+        binding.setValidator(new Validator<Object>() {
+            public Result validate(Object value) {
+                return "bad".equals(value) ? new Result(null, "bad") : null;
+            }
+        });
+        binding.bind();
+
+        for (int i = 0; i < 3; i++) {
+            source.setValue(i);
+        }
+        target.setValue("bad");
+
+        InMemoryBindingMetrics.Histogram refresh = metrics.getHistogram("value", Operation.REFRESH);
+        assertEquals(4, refresh.getCount());
+        assertEquals(0, refresh.getFailureCount());
+        assertEquals(3, metrics.getHistogram("value", Operation.SOURCE_CHANGED).getCount());
+        // the null value of the first refresh isn't converted
+        assertEquals(3, metrics.getHistogram("value", Operation.CONVERT_FORWARD).getCount());
+
+        InMemoryBindingMetrics.Histogram save = metrics.getHistogram("value", Operation.SAVE);
+        assertEquals(1, save.getCount());
+        assertEquals(1, save.getFailureCount());
+        assertEquals(1, metrics.getHistogram("value", Operation.VALIDATE).getFailureCount());
+        assertTrue(refresh.getPercentileNanos(50) <= refresh.getMaxNanos());
+
+        assertEquals("value", metrics.getSlowestBindings(10).get(0));
+        assertTrue(metrics.report(10).contains("value"));
+
+        String path = VALUE.toString();
+        assertTrue(metrics.getCacheUpdateHistogram(path).getCount() > 0);
+        assertTrue(metrics.getStateChangeHistogram(path).getCount() >= 4);
+    }
+
+    public void testNothingIsMeasuredWhenUninstalled() {
+        BindingMetrics.install(null);
+        BoundBean source = new BoundBean();
+        BoundBean target = new BoundBean();
+        Bindings.createAutoBinding(AutoBinding.UpdateStrategy.READ,
+                                   source, VALUE, target, VALUE, "value").bind();
+        source.setValue(1);
+
+        assertTrue(metrics.getBindingNames().isEmpty());
+        assertTrue(metrics.getPropertyPaths().isEmpty());
+    }
+}
@@ -367,6 +367,37 @@ public class BindingTest extends TestCase {
         }
         assertTrue(caught);
     }
+
+    /*
+     * A binding that unbinds another one, that listens to the same source,
+     * while they're notified of a change.
+     */
+    public void testUnbindDuringNotification() {
+        BoundBean source = new BoundBean();
+        BoundBean target1 = new BoundBean();
+        BoundBean target2 = new BoundBean();
+        BeanProperty<BoundBean, Object> value = BeanProperty.create("value");
+        final Binding first = Bindings.createAutoBinding(AutoBinding.UpdateStrategy.READ, source, value, target1, value);
+        final Binding second = Bindings.createAutoBinding(AutoBinding.UpdateStrategy.READ, source, value, target2, value);
+        first.addBindingListener(new AbstractBindingListener() {
+            public void synced(Binding binding) {
+                if (second.isBound()) {
+                    second.unbind();
+                }
+            }
+        });
+        first.bind();
+        second.bind();
+
+        source.setValue("x");
+        assertEquals("x", target1.getValue());
+        assertFalse(second.isBound());
+        assertFalse(value.isListening(target2));
+
+        source.setValue("y");
+        assertEquals("y", target1.getValue());
+        assertEquals("x", target2.getValue());
+    }
     
     /*
      * Test Binding.getTargetValueForSource()
@@ -587,6 +618,36 @@ public class BindingTest extends TestCase {
             pcs.firePropertyChange(MYSTERY_PROP_NAME, oldVal, newValue);
         }
     }
+
+    /*
+     * A bean with a bound property, unlike TestBean. Shared by the tests
+     * that need one.
+     */
+    public static class BoundBean {
+        private final PropertyChangeSupport pcs = new PropertyChangeSupport(this);
+        private Object value;
+        // the number of calls to setValue
+        int writes;
+
+        public Object getValue() {
+            return value;
+        }
+
+        public void setValue(Object value) {
+            writes++;
+            Object oldVal = this.value;
+            this.value = value;
+            pcs.firePropertyChange("value", oldVal, value);
+        }
+
+        public void addPropertyChangeListener(PropertyChangeListener l) {
+            pcs.addPropertyChangeListener(l);
+        }
+
+        public void removePropertyChangeListener(PropertyChangeListener l) {
+            pcs.removePropertyChangeListener(l);
+        }
+    }
     
     private static class ObjStringConverter extends Converter {
         final static String PREFIX = "CONVERTED:";
@@ -0,0 +1,165 @@
+package org.jdesktop.beansbinding;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import junit.framework.TestCase;
+import org.jdesktop.el.impl.lang.ExpressionCompiler;
+
+/**
+ * Tests that {@code ELProperty} only re-reads, and only re-listens to, the
+ * parts of an expression that a change affects.
+ */
+public class ELPropertyTest extends TestCase {
+
+    public static class Node {
+        private final PropertyChangeSupport support = new PropertyChangeSupport(this);
+        private Node next;
+        private int value;
+        private boolean flag;
+        // reads of value
+        int reads;
+
+        public Node getNext() {
+            return next;
+        }
+
+        public void setNext(Node next) {
+            Node old = this.next;
+            this.next = next;
+            support.firePropertyChange("next", old, next);
+        }
+
+        public int getValue() {
+            reads++;
+            return value;
+        }
+
+        public void setValue(int value) {
+            int old = this.value;
+            this.value = value;
+            support.firePropertyChange("value", old, value);
+        }
+
+        public boolean isFlag() {
+            return flag;
+        }
+
+        public void setFlag(boolean flag) {
+            boolean old = this.flag;
+            this.flag = flag;
+            support.firePropertyChange("flag", old, flag);
+        }
+
+        public void addPropertyChangeListener(PropertyChangeListener l) {
+            support.addPropertyChangeListener(l);
+        }
+
+        public void removePropertyChangeListener(PropertyChangeListener l) {
+            support.removePropertyChangeListener(l);
+        }
+
+        int getListenerCount() {
+            return support.getPropertyChangeListeners().length;
+        }
+    }
+
+    private static class Recorder implements PropertyStateListener {
+        int events;
+        Object value;
+
+        public void propertyStateChanged(PropertyStateEvent pse) {
+            events++;
+            value = pse.getNewValue();
+        }
+    }
+
+    private static Node chain(int value) {
+        Node node = new Node();
+        node.next = new Node();
+        node.next.value = value;
+        return node;
+    }
+
+    public void testOnlyAffectedPathIsReevaluated() {
+        Node a = chain(1);
+        Node x = chain(10);
+        Node inner = new Node();
+        inner.value = 100;
+        inner.next = a;
+        Node holder = new Node();
+        holder.next = inner;
+
+        Property<Node, Object> p = ELProperty.create("${next.next.next.value + next.value}");
+        Recorder recorder = new Recorder();
+        p.addPropertyStateListener(holder, recorder);
+        assertEquals(101L, p.getValue(holder));
+
+        int innerReads = inner.reads;
+        a.next.setValue(2);
+        assertEquals(1, recorder.events);
+        assertEquals(102L, recorder.value);
+        if (ExpressionCompiler.isEnabled()) {
+            // the other path wasn't read again
+            assertEquals(innerReads, inner.reads);
+        }
+
+        // moving a path moves its listeners, and only those
+        Node old = a.next;
+        assertEquals(1, old.getListenerCount());
+        a.setNext(x.next);
+        assertEquals(110L, recorder.value);
+        assertEquals(0, old.getListenerCount());
+        assertEquals(1, x.next.getListenerCount());
+        assertEquals(1, holder.getListenerCount());
+        assertEquals(2, inner.getListenerCount());
+
+        p.removePropertyStateListener(holder, recorder);
+        assertEquals(0, x.next.getListenerCount());
+        assertEquals(0, inner.getListenerCount());
+        assertEquals(0, holder.getListenerCount());
+        assertEquals(0, a.getListenerCount());
+    }
+
+    public void testSkippedBranchesStopListening() {
+        Node root = new Node();
+        root.next = chain(1);
+        Node other = chain(2);
+        root.next.next.next = other;
+
+        Property<Node, Object> p = ELProperty.create("${flag ? next.next.value : next.next.next.next.value}");
+        Recorder recorder = new Recorder();
+        p.addPropertyStateListener(root, recorder);
+        assertEquals(2, p.getValue(root));
+        assertEquals(1, other.next.getListenerCount());
+
+        root.setFlag(true);
+        assertEquals(1, recorder.value);
+        assertEquals(0, other.next.getListenerCount());
+
+        other.next.setValue(5);
+        root.setFlag(false);
+        assertEquals(5, recorder.value);
+        assertEquals(1, other.next.getListenerCount());
+
+        p.removePropertyStateListener(root, recorder);
+        assertEquals(0, root.getListenerCount());
+    }
+
+    public void testSetValueWithListener() {
+        Node root = chain(1);
+
+        Property<Node, Object> p = ELProperty.create("${next.value}");
+        Recorder recorder = new Recorder();
+        p.addPropertyStateListener(root, recorder);
+        assertEquals(1, p.getValue(root));
+
+        p.setValue(root, 3);
+        assertEquals(3, root.next.value);
+        assertEquals(3, p.getValue(root));
+        assertEquals(1, recorder.events);
+        assertEquals(3, recorder.value);
+
+        p.removePropertyStateListener(root, recorder);
+        assertEquals(0, root.next.getListenerCount());
+    }
+}
@@ -0,0 +1,192 @@
+package org.jdesktop.beansbinding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import junit.framework.TestCase;
+import org.jdesktop.beansbinding.BindingTest.BoundBean;
+
+/**
+ * Tests that {@code AutoBindings} with an {@code UpdateCoalescer} sync once
+ * per flush, with the last value.
+ */
+public class UpdateCoalescerTest extends TestCase {
+
+    private static class Recorder extends AbstractBindingListener {
+        int synced;
+        List<Binding.SyncFailure> failures = new ArrayList<Binding.SyncFailure>();
+
+        public void synced(Binding binding) {
+            synced++;
+        }
+
+        public void syncFailed(Binding binding, Binding.SyncFailure failure) {
+            failures.add(failure);
+        }
+    }
+
+    private static final Property<BoundBean, Object> VALUE = BeanProperty.create("value");
+    private static final Property<BoundBean, Object> NESTED = BeanProperty.create("value.value");
+
+    public void testLastValueWins() {
+        BoundBean source = new BoundBean();
+        BoundBean target = new BoundBean();
+        UpdateCoalescer coalescer = new UpdateCoalescer();
+        AutoBinding<BoundBean, Object, BoundBean, Object> binding =
+                Bindings.createAutoBinding(AutoBinding.UpdateStrategy.READ, source, VALUE, target, VALUE);
+        binding.setUpdateCoalescer(coalescer);
+        binding.bind();
+        int writes = target.writes;
+
+        for (int i = 0; i < 10000; i++) {
+            source.setValue(i);
+        }
+
+        assertEquals(writes, target.writes);
+        assertTrue(coalescer.isPending());
+        coalescer.flush();
+        assertFalse(coalescer.isPending());
+        assertEquals(writes + 1, target.writes);
+        assertEquals(9999, target.getValue());
+
+        source.setValue("x");
+        binding.unbind();
+        coalescer.flush();
+        assertEquals(9999, target.getValue());
+    }
+
+    public void testFailuresAreReported() {
+        BoundBean source = new BoundBean();
+        BoundBean target = new BoundBean();
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        UpdateCoalescer coalescer = new UpdateCoalescer(new Executor() {
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        });
+
+        BoundBean inner = new BoundBean();
+        source.setValue(inner);
+        AutoBinding<BoundBean, Object, BoundBean, Object> binding =
+                Bindings.createAutoBinding(AutoBinding.UpdateStrategy.READ, source, NESTED, target, VALUE);
+        binding.setUpdateCoalescer(coalescer);
+        Recorder recorder = new Recorder();
+        binding.addBindingListener(recorder);
+        binding.bind();
+        assertEquals(1, recorder.synced);
+
+        inner.setValue("good");
+        source.setValue(null);
+        assertEquals(1, tasks.size());
+        tasks.remove(0).run();
+        assertEquals(1, recorder.synced);
+        assertEquals(1, recorder.failures.size());
+        assertEquals(Binding.SyncFailureType.SOURCE_UNREADABLE, recorder.failures.get(0).getType());
+
+        // a new batch schedules a new flush
+        inner.setValue("ok");
+        source.setValue(inner);
+        assertEquals(1, tasks.size());
+        tasks.remove(0).run();
+        assertEquals(2, recorder.synced);
+        assertEquals("ok", target.getValue());
+    }
+
+    public void testRejectedFlushIsRescheduled() {
+        BoundBean source = new BoundBean();
+        BoundBean target = new BoundBean();
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        final boolean[] reject = {true};
+        UpdateCoalescer coalescer = new UpdateCoalescer(new Executor() {
+            public void execute(Runnable command) {
+                if (reject[0]) {
+                    throw new RejectedExecutionException();
+                }
+                tasks.add(command);
+            }
+        });
+
+        AutoBinding<BoundBean, Object, BoundBean, Object> binding =
+                Bindings.createAutoBinding(AutoBinding.UpdateStrategy.READ, source, VALUE, target, VALUE);
+        binding.setUpdateCoalescer(coalescer);
+        binding.bind();
+
+        // the failure is reported once, not thrown into the setter
+        final List<Throwable> reported = new ArrayList<Throwable>();
+        Thread thread = Thread.currentThread();
+        Thread.UncaughtExceptionHandler handler = thread.getUncaughtExceptionHandler();
+        thread.setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+            public void uncaughtException(Thread t, Throwable e) {
+                reported.add(e);
+            }
+        });
+        try {
+            source.setValue(1);
+            source.setValue(2);
+        } finally {
+            thread.setUncaughtExceptionHandler(handler);
+        }
+        assertEquals(1, reported.size());
+        assertTrue(reported.get(0) instanceof RejectedExecutionException);
+        assertTrue(coalescer.isPending());
+
+        // the binding is still pending, and is synced by the next flush
+        reject[0] = false;
+        BoundBean other = new BoundBean();
+        AutoBinding<BoundBean, Object, BoundBean, Object> second =
+                Bindings.createAutoBinding(AutoBinding.UpdateStrategy.READ, other, VALUE, new BoundBean(), VALUE);
+        second.setUpdateCoalescer(coalescer);
+        second.bind();
+        other.setValue(2);
+        assertEquals(1, tasks.size());
+        tasks.remove(0).run();
+        assertEquals(2, target.getValue());
+        assertFalse(coalescer.isPending());
+    }
+
+    public void testFailedSyncKeepsRest() {
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        UpdateCoalescer coalescer = new UpdateCoalescer(new Executor() {
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        });
+
+        BoundBean source = new BoundBean();
+        BoundBean failing = new BoundBean() {
+            public void setValue(Object value) {
+                if ("boom".equals(value)) {
+                    throw new IllegalStateException();
+                }
+                super.setValue(value);
+            }
+        };
+        BoundBean other = new BoundBean();
+        BoundBean target = new BoundBean();
+        AutoBinding<BoundBean, Object, BoundBean, Object> first =
+                Bindings.createAutoBinding(AutoBinding.UpdateStrategy.READ, source, VALUE, failing, VALUE);
+        AutoBinding<BoundBean, Object, BoundBean, Object> second =
+                Bindings.createAutoBinding(AutoBinding.UpdateStrategy.READ, other, VALUE, target, VALUE);
+        first.setUpdateCoalescer(coalescer);
+        second.setUpdateCoalescer(coalescer);
+        first.bind();
+        second.bind();
+
+        source.setValue("boom");
+        other.setValue("ok");
+        assertEquals(1, tasks.size());
+        try {
+            tasks.remove(0).run();
+            fail();
+        } catch (RuntimeException e) {
+        }
+
+        // the binding after the failed one is rescheduled
+        assertTrue(coalescer.isPending());
+        assertEquals(1, tasks.size());
+        tasks.remove(0).run();
+        assertEquals("ok", target.getValue());
+        assertFalse(coalescer.isPending());
+    }
+}
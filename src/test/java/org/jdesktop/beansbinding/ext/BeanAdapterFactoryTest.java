@@ -0,0 +1,119 @@
+package org.jdesktop.beansbinding.ext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
+import javax.swing.JList;
+import javax.swing.JSlider;
+import javax.swing.JSpinner;
+import javax.swing.JTable;
+import javax.swing.JTextField;
+import junit.framework.TestCase;
+
+public class BeanAdapterFactoryTest extends TestCase {
+
+    public void testNoAdapterForPlainBean() {
+        assertNull(BeanAdapterFactory.getAdapter(new Object(), "text"));
+        assertFalse(BeanAdapterFactory.providesAdapter(String.class, "text"));
+        assertTrue(BeanAdapterFactory.providesAdapter(JTextField.class, "text"));
+        assertFalse(BeanAdapterFactory.providesAdapter(JTextField.class, "value"));
+    }
+
+    public void testNoAdapterResultIsCached() {
+        class Plain {
+        }
+
+        long hits = BeanAdapterFactory.getNegativeCacheHits();
+        long misses = BeanAdapterFactory.getNegativeCacheMisses();
+
+        // the providers are asked once about a plain class
+        assertNull(BeanAdapterFactory.getAdapter(new Plain(), "value"));
+        assertEquals(hits, BeanAdapterFactory.getNegativeCacheHits());
+        assertEquals(misses + 1, BeanAdapterFactory.getNegativeCacheMisses());
+        assertNull(BeanAdapterFactory.getAdapter(new Plain(), "value"));
+        assertEquals(hits + 1, BeanAdapterFactory.getNegativeCacheHits());
+        assertEquals(misses + 1, BeanAdapterFactory.getNegativeCacheMisses());
+
+        // and once about a property they don't adapt
+        String property = "foreground" + System.nanoTime();
+        assertNull(BeanAdapterFactory.getAdapter(new JTextField(), property));
+        assertEquals(hits + 1, BeanAdapterFactory.getNegativeCacheHits());
+        assertEquals(misses + 2, BeanAdapterFactory.getNegativeCacheMisses());
+
+        assertNull(BeanAdapterFactory.getAdapter(new JTextField(), property));
+        assertFalse(BeanAdapterFactory.providesAdapter(JTextField.class, property));
+        assertEquals(hits + 3, BeanAdapterFactory.getNegativeCacheHits());
+        assertEquals(misses + 2, BeanAdapterFactory.getNegativeCacheMisses());
+
+        // a property that some provider adapts isn't counted
+        BeanAdapterFactory.getAdapter(new JTextField(), "text");
+        assertEquals(hits + 3, BeanAdapterFactory.getNegativeCacheHits());
+        assertEquals(misses + 2, BeanAdapterFactory.getNegativeCacheMisses());
+    }
+
+    public void testAdapterIsVendedOnce() {
+        JTextField field = new JTextField();
+        Object adapter = BeanAdapterFactory.getAdapter(field, "text");
+        assertNotNull(adapter);
+        // properties are compared by value, not identity
+        assertSame(adapter, BeanAdapterFactory.getAdapter(field, new String("text")));
+        assertNotSame(adapter, BeanAdapterFactory.getAdapter(new JTextField(), "text"));
+        assertNotNull(BeanAdapterFactory.getAdapter(new JSlider(), "value"));
+    }
+
+    public void testBuiltInProviders() {
+        assertAdapter(new JCheckBox(), "selected");
+        assertAdapter(new JComboBox(), "selectedItem");
+        assertAdapter(new JList(), "selectedElement");
+        assertAdapter(new JList(), "selectedElements_IGNORE_ADJUSTING");
+        assertAdapter(new JSlider(), "value");
+        assertAdapter(new JSpinner(), "value");
+        assertAdapter(new JTable(), "selectedElement");
+        assertAdapter(new JTextField(), "text_ON_FOCUS_LOST");
+    }
+
+    private static void assertAdapter(Object source, String property) {
+        // not interned, as properties built at runtime aren't
+        property = new String(property);
+        assertTrue(BeanAdapterFactory.providesAdapter(source.getClass(), property));
+        assertNotNull(BeanAdapterFactory.getAdapter(source, property));
+    }
+
+    public void testConcurrentLookups() throws Exception {
+        final JTextField[] fields = new JTextField[64];
+        final Object[] adapters = new Object[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = new JTextField();
+            adapters[i] = BeanAdapterFactory.getAdapter(fields[i], "text");
+        }
+
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread() {
+                public void run() {
+                    try {
+                        for (int round = 0; round < 1000; round++) {
+                            int i = round % fields.length;
+                            assertSame(adapters[i], BeanAdapterFactory.getAdapter(fields[i], "text"));
+                            assertNull(BeanAdapterFactory.getAdapter(this, "text"));
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+    }
+}
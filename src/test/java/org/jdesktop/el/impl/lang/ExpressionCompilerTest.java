@@ -0,0 +1,200 @@
+package org.jdesktop.el.impl.lang;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import junit.framework.TestCase;
+import org.jdesktop.el.BeanELResolver;
+import org.jdesktop.el.CompositeELResolver;
+import org.jdesktop.el.ELContext;
+import org.jdesktop.el.ELResolver;
+import org.jdesktop.el.FunctionMapper;
+import org.jdesktop.el.MapELResolver;
+import org.jdesktop.el.VariableMapper;
+import org.jdesktop.el.impl.ValueExpressionImpl;
+import org.jdesktop.el.impl.parser.Node;
+
+/**
+ * Tests that compiled expressions evaluate to the same values, and resolve
+ * the same properties, as interpreted ones.
+ */
+public class ExpressionCompilerTest extends TestCase {
+
+    private static final String[] EXPRESSIONS = {
+        "${i}", "${m.i}", "${m['s']}", "${m.missing.i}", "${missing}",
+        "${i + j}", "${i - d}", "${i * f}", "${i / j}", "${i % j}", "${d % j}",
+        "${i + s}", "${i + n}", "${n + n}", "${i + big}", "${-i}",
+        "${i == j}", "${i != 7}", "${i > j}", "${i >= d}", "${i < f}", "${i <= 7}",
+        "${n > i}", "${i < n}", "${n >= n}", "${s == '7'}", "${s < 'z'}",
+        "${t && i > 1}", "${!t || n == null}", "${t ? s : m.s}", "${i > 100 ? s : m.i}",
+        "${empty s}", "${empty m}", "${empty n}", "${empty list}",
+        "Hello ${s} and ${m.s}", "plain text", "${1 + 2.5}", "${'a' == \"a\"}",
+    };
+
+    public static class Point {
+        public int getX() {
+            return 1;
+        }
+    }
+
+    public static class Point3D extends Point {
+        public int getX() {
+            return 3;
+        }
+    }
+
+    private Map<String, Object> source;
+    private ELContext context;
+    private int resolverLookups;
+
+    protected void setUp() {
+        Map<String, Object> m = new HashMap<String, Object>();
+        m.put("i", 3);
+        m.put("s", "inner");
+
+        source = new HashMap<String, Object>();
+        source.put("i", 7);
+        source.put("j", 2L);
+        source.put("d", 1.5);
+        source.put("f", 2.5f);
+        source.put("s", "7");
+        source.put("n", null);
+        source.put("t", Boolean.TRUE);
+        source.put("big", new BigDecimal("10.25"));
+        source.put("m", m);
+        source.put("list", new ArrayList<Object>());
+
+        final CompositeELResolver resolver = new CompositeELResolver() {
+            public Object getValue(ELContext context, Object base, Object property) {
+                resolverLookups++;
+                return super.getValue(context, base, property);
+            }
+        };
+        resolver.add(new MapELResolver());
+        resolver.add(new BeanELResolver());
+        final FunctionMapper functionMapper = new FunctionMapperImpl();
+        final VariableMapper variableMapper = new VariableMapperImpl();
+
+        context = new ELContext() {
+            public ELResolver getELResolver() {
+                return resolver;
+            }
+
+            public FunctionMapper getFunctionMapper() {
+                return functionMapper;
+            }
+
+            public VariableMapper getVariableMapper() {
+                return variableMapper;
+            }
+        };
+    }
+
+    private List<Object> interpret(String expression) {
+        Node node = ExpressionBuilder.createNode(expression);
+        EvaluationContext ctx = newContext(expression, node);
+        return result(node.getValue(ctx), ctx);
+    }
+
+    private List<Object> evaluate(ExpressionCompiler.CompiledNode compiled, String expression) {
+        Node node = ExpressionBuilder.createNode(expression);
+        EvaluationContext ctx = newContext(expression, node);
+        return result(compiled.getValue(ctx), ctx);
+    }
+
+    private EvaluationContext newContext(String expression, Node node) {
+        ValueExpressionImpl ve = new ValueExpressionImpl(expression, node, null, null, Object.class);
+        ve.setSource(source);
+        return new EvaluationContext(context, null, null, ve, true);
+    }
+
+    private static List<Object> result(Object value, EvaluationContext ctx) {
+        List<Object> result = new ArrayList<Object>();
+        result.add(value);
+        result.add(ctx.getResolvedProperties());
+        return result;
+    }
+
+    public void testSameResults() {
+        for (String expression : EXPRESSIONS) {
+            ExpressionCompiler.CompiledNode compiled =
+                    ExpressionCompiler.compile(ExpressionBuilder.createNode(expression));
+            // twice: the first evaluation specializes, the second uses it
+            assertEquals(expression, interpret(expression), evaluate(compiled, expression));
+            assertEquals(expression, interpret(expression), evaluate(compiled, expression));
+        }
+    }
+
+    public void testGuardFailure() {
+        String expression = "${x + y}";
+        ExpressionCompiler.CompiledNode compiled =
+                ExpressionCompiler.compile(ExpressionBuilder.createNode(expression));
+
+        Object[][] operands = {
+            {1, 2}, {3L, (short)4}, {1.5, 2}, {5, 6}, {"2", 3}, {null, 4}, {7, 8}, {2.5f, 1},
+        };
+
+        for (Object[] pair : operands) {
+            source.put("x", pair[0]);
+            source.put("y", pair[1]);
+            assertEquals(interpret(expression), evaluate(compiled, expression));
+        }
+    }
+
+    public void testInlineCaches() {
+        String expression = "${p.x + m.i}";
+        ExpressionCompiler.CompiledNode compiled =
+                ExpressionCompiler.compile(ExpressionBuilder.createNode(expression));
+
+        Object[] points = {new Point(), new Point3D(), new Point(), new Point3D()};
+        for (Object point : points) {
+            source.put("p", point);
+            List<Object> expected = interpret(expression);
+            resolverLookups = 0;
+            assertEquals(expected, evaluate(compiled, expression));
+            assertEquals(0, resolverLookups);
+        }
+
+        // more classes than the cache holds
+        Object[] bases = {
+            new Point(), new Point3D(), new HashMap<String, Object>(), new ArrayList<Object>(),
+            new Point() {}, new Point3D() {}, new Point(),
+        };
+        expression = "${p.x}";
+        compiled = ExpressionCompiler.compile(ExpressionBuilder.createNode(expression));
+        for (Object base : bases) {
+            source.put("p", base);
+            assertEquals(interpret(expression), evaluate(compiled, expression));
+        }
+    }
+
+    public void testCopiesShareCompiledForm() {
+        String expression = "${m.i + i}";
+        ValueExpressionImpl template =
+                new ValueExpressionImpl(expression, ExpressionBuilder.createNode(expression), null, null, Object.class);
+        ValueExpressionImpl first = template.copy();
+        ValueExpressionImpl second = template.copy();
+
+        Map<String, Object> other = new HashMap<String, Object>(source);
+        other.put("i", 100);
+        first.setSource(source);
+        second.setSource(other);
+
+        assertEquals(10L, first.getValue(context));
+        assertEquals(103L, second.getValue(context));
+        assertNull(template.getSource());
+        assertEquals(template, first);
+    }
+
+    public void testDivisionByZero() {
+        ExpressionCompiler.CompiledNode compiled =
+                ExpressionCompiler.compile(ExpressionBuilder.createNode("${i % 0}"));
+        try {
+            evaluate(compiled, "${i % 0}");
+            fail();
+        } catch (ArithmeticException ae) {
+        }
+    }
+}
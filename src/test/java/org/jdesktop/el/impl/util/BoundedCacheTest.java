@@ -0,0 +1,108 @@
+package org.jdesktop.el.impl.util;
+
+import java.util.concurrent.atomic.AtomicReference;
+import junit.framework.TestCase;
+
+/**
+ * Tests the size bound, eviction policy and statistics of {@code BoundedCache}.
+ */
+public class BoundedCacheTest extends TestCase {
+
+    public void testGetAndPut() {
+        BoundedCache<String, Integer> cache = new BoundedCache<String, Integer>(10);
+        assertNull(cache.get("a"));
+        assertEquals(Integer.valueOf(1), cache.putIfAbsent("a", 1));
+        assertEquals(Integer.valueOf(1), cache.putIfAbsent("a", 2));
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+
+        BoundedCache.Statistics stats = cache.getStatistics();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(0, stats.getEvictionCount());
+        assertEquals(0.5, stats.getHitRate());
+
+        assertEquals(Integer.valueOf(1), cache.remove("a"));
+        assertNull(cache.remove("a"));
+        assertEquals(0, cache.size());
+    }
+
+    public void testBounded() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<Integer, Integer>(100);
+        for (int i = 0; i < 1000; i++) {
+            cache.putIfAbsent(i, i);
+            assertTrue(cache.size() <= 100);
+        }
+        assertEquals(100, cache.size());
+        assertEquals(900, cache.getStatistics().getEvictionCount());
+
+        cache.setMaximumSize(10);
+        assertEquals(10, cache.size());
+        assertEquals(10, cache.getMaximumSize());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        cache.putIfAbsent(1, 1);
+        assertEquals(Integer.valueOf(1), cache.get(1));
+    }
+
+    public void testFrequentEntriesSurviveScan() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<Integer, Integer>(100);
+        for (int i = 0; i < 50; i++) {
+            cache.putIfAbsent(i, i);
+        }
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 50; i++) {
+                assertNotNull(cache.get(i));
+            }
+        }
+
+        // a long run of keys that are only used once
+        for (int i = 1000; i < 11000; i++) {
+            cache.putIfAbsent(i, i);
+        }
+
+        int survivors = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get(i) != null) {
+                survivors++;
+            }
+        }
+        assertTrue("only " + survivors + " survived", survivors >= 45);
+    }
+
+    public void testConcurrentUse() throws Exception {
+        final BoundedCache<Integer, Integer> cache = new BoundedCache<Integer, Integer>(64);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        Thread[] threads = new Thread[4];
+
+        for (int t = 0; t < threads.length; t++) {
+            final int seed = t;
+            threads[t] = new Thread() {
+                public void run() {
+                    try {
+                        for (int i = 0; i < 20000; i++) {
+                            int key = (i * 31 + seed) % 200;
+                            Integer value = cache.get(key);
+                            if (value == null) {
+                                value = cache.putIfAbsent(key, key);
+                            }
+                            if (value.intValue() != key) {
+                                throw new AssertionError(key + " -> " + value);
+                            }
+                        }
+                    } catch (Throwable t) {
+                        failure.set(t);
+                    }
+                }
+            };
+            threads[t].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertNull(failure.get());
+        assertTrue(cache.size() <= 64);
+    }
+}
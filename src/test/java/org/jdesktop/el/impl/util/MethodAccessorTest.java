@@ -0,0 +1,112 @@
+package org.jdesktop.el.impl.util;
+
+import java.lang.reflect.InvocationTargetException;
+import junit.framework.TestCase;
+
+/**
+ * Tests that {@code MethodAccessor} behaves like {@code Method.invoke},
+ * whichever way the accessor is implemented.
+ */
+public class MethodAccessorTest extends TestCase {
+
+    public static class Bean {
+        private int count;
+        private String name;
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public String getName() {
+            if (name == null) {
+                throw new IllegalStateException("no name");
+            }
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    private static MethodAccessor accessor(String name, Class<?>... params) throws Exception {
+        return MethodAccessor.create(Bean.class.getMethod(name, params));
+    }
+
+    public void testGenerated() throws Exception {
+        assertFalse(accessor("getCount").toString().startsWith("Reflective"));
+        assertFalse(accessor("setName", String.class).toString().startsWith("Reflective"));
+    }
+
+    public void testReadWrite() throws Exception {
+        Bean bean = new Bean();
+        accessor("setCount", int.class).invoke(bean, 5);
+        assertEquals(5, accessor("getCount").invoke(bean));
+
+        accessor("setName", String.class).invoke(bean, "duke");
+        assertEquals("duke", accessor("getName").invoke(bean));
+    }
+
+    public void testWidening() throws Exception {
+        Bean bean = new Bean();
+        accessor("setCount", int.class).invoke(bean, Short.valueOf((short)3));
+        assertEquals(3, bean.getCount());
+    }
+
+    public void testFailures() throws Exception {
+        Bean bean = new Bean();
+
+        try {
+            accessor("getName").invoke(bean);
+            fail();
+        } catch (InvocationTargetException ite) {
+            assertTrue(ite.getCause() instanceof IllegalStateException);
+        }
+
+        try {
+            accessor("setCount", int.class).invoke(bean, null);
+            fail();
+        } catch (IllegalArgumentException iae) {
+        }
+
+        try {
+            accessor("setName", String.class).invoke(bean, Integer.valueOf(1));
+            fail();
+        } catch (IllegalArgumentException iae) {
+        }
+
+        try {
+            accessor("getCount").invoke(bean, "extra");
+            fail();
+        } catch (IllegalArgumentException iae) {
+        }
+
+        try {
+            accessor("getCount").invoke(null);
+            fail();
+        } catch (NullPointerException npe) {
+        }
+
+        try {
+            accessor("setName", String.class).invoke(null, "duke");
+            fail();
+        } catch (NullPointerException npe) {
+        }
+
+        try {
+            accessor("getCount").invoke("not a bean");
+            fail();
+        } catch (IllegalArgumentException iae) {
+        }
+
+        try {
+            accessor("setName", String.class).invoke("not a bean", "duke");
+            fail();
+        } catch (IllegalArgumentException iae) {
+        }
+    }
+}
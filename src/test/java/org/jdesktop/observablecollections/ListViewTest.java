@@ -0,0 +1,280 @@
+package org.jdesktop.observablecollections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import junit.framework.TestCase;
+
+/**
+ * Tests that sorted and filtered views follow their source, and that the
+ * changes they report turn their old contents into their new contents.
+ */
+public class ListViewTest extends TestCase {
+
+    private static class Item {
+        int value;
+
+        Item(int value) {
+            this.value = value;
+        }
+
+        public String toString() {
+            return String.valueOf(value);
+        }
+    }
+
+    private static final Comparator<Item> BY_VALUE = new Comparator<Item>() {
+        public int compare(Item i1, Item i2) {
+            return Integer.compare(i1.value, i2.value);
+        }
+    };
+
+    private static Predicate<Item> multipleOf(final int n) {
+        return new Predicate<Item>() {
+            public boolean test(Item item) {
+                return item.value % n == 0;
+            }
+        };
+    }
+
+    /**
+     * Applies each change it's notified of to a copy of the view.
+     */
+    private static class Replayer implements ObservableListChangeListener {
+        private static final Object ADDED = new Object();
+        final List<Object> copy;
+        int changes;
+
+        Replayer(List<?> view) {
+            copy = new ArrayList<Object>(view);
+        }
+
+        public void listChanged(ListChange change) {
+            changes++;
+            for (ListChange.Part part : change.getParts()) {
+                int index = part.getIndex();
+                if (part.wasPermuted()) {
+                    List<Object> old = new ArrayList<Object>(copy.subList(index, part.getTo()));
+                    for (int i = 0; i < old.size(); i++) {
+                        copy.set(part.getPermutation(index + i), old.get(i));
+                    }
+                } else if (!part.wasUpdated()) {
+                    List<Object> removed = copy.subList(index, index + part.getRemovedSize());
+                    assertEquals(part.getRemoved(), removed);
+                    removed.clear();
+                    copy.addAll(index, Collections.nCopies(part.getAddedSize(), ADDED));
+                }
+            }
+
+            List<?> view = change.getList();
+            for (int i = 0; i < copy.size(); i++) {
+                if (copy.get(i) == ADDED) {
+                    copy.set(i, view.get(i));
+                }
+            }
+        }
+
+        public void listElementsAdded(ObservableList list, int index, int length) {
+            fail();
+        }
+
+        public void listElementsRemoved(ObservableList list, int index, List oldElements) {
+            fail();
+        }
+
+        public void listElementReplaced(ObservableList list, int index, Object oldElement) {
+            fail();
+        }
+
+        public void listElementPropertyChanged(ObservableList list, int index) {
+            fail();
+        }
+    }
+
+    private ObservableCollections.ObservableListHelper<Item> helper;
+    private ObservableList<Item> source;
+
+    protected void setUp() {
+        helper = ObservableCollections.observableListHelper(new ArrayList<Item>());
+        source = helper.getObservableList();
+        for (int i = 0; i < 20; i++) {
+            source.add(new Item(i));
+        }
+    }
+
+    public void testFilteredFollowsSource() {
+        FilteredList<Item> view = ObservableCollections.filtered(source, multipleOf(2));
+        Replayer replayer = new Replayer(view);
+        view.addObservableListListener(replayer);
+
+        source.add(3, new Item(8));
+        source.remove(4);
+        source.set(0, new Item(1));
+        assertEquals("[2, 8, 4, 6, 8, 10, 12, 14, 16, 18]", view.toString());
+        // removing an odd element doesn't change the view
+        assertEquals(2, replayer.changes);
+
+        source.get(4).value = 7;
+        helper.fireElementChanged(4);
+        source.get(1).value = 4;
+        helper.fireElementChanged(1);
+        assertEquals("[4, 2, 8, 6, 8, 10, 12, 14, 16, 18]", view.toString());
+        assertEquals(4, replayer.changes);
+        assertEquals(Arrays.asList(view.toArray()), replayer.copy);
+    }
+
+    public void testSetPredicateReportsDifference() {
+        FilteredList<Item> view = ObservableCollections.filtered(source, multipleOf(2));
+        Replayer replayer = new Replayer(view);
+        view.addObservableListListener(replayer);
+
+        view.setPredicate(multipleOf(4));
+        assertEquals("[0, 4, 8, 12, 16]", view.toString());
+        assertEquals(1, replayer.changes);
+        assertEquals(Arrays.asList(view.toArray()), replayer.copy);
+
+        view.setPredicate(multipleOf(4));
+        assertEquals(1, replayer.changes);
+    }
+
+    public void testSortedFollowsSource() {
+        Collections.shuffle(source, new Random(1));
+        SortedList<Item> view = ObservableCollections.sorted(source, BY_VALUE);
+        assertEquals(20, view.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, view.get(i).value);
+        }
+
+        Replayer replayer = new Replayer(view);
+        view.addObservableListListener(replayer);
+
+        // moving an element is a permutation, not a removal and an addition
+        int index = source.indexOf(view.get(3));
+        source.get(index).value = 30;
+        helper.fireElementChanged(index);
+        assertEquals(30, view.get(19).value);
+        assertEquals(Arrays.asList(view.toArray()), replayer.copy);
+        assertEquals(1, replayer.changes);
+    }
+
+    public void testSortedMovesUpdatedElements() {
+        SortedList<Item> view = ObservableCollections.sorted(source, BY_VALUE);
+        Replayer replayer = new Replayer(view);
+        view.addObservableListListener(replayer);
+
+        source.get(0).value = 26;
+        source.get(1).value = 25;
+        source.get(10).value = 10;
+        helper.fireElementsChanged(0, 11);
+        assertEquals(25, view.get(18).value);
+        assertEquals(26, view.get(19).value);
+        assertSame(source.get(2), view.get(0));
+        assertEquals(Arrays.asList(view.toArray()), replayer.copy);
+        assertEquals(1, replayer.changes);
+    }
+
+    public void testRandomChanges() {
+        final Random random = new Random(42);
+        FilteredList<Item> filtered = ObservableCollections.filtered(source, multipleOf(3));
+        SortedList<Item> sorted = ObservableCollections.sorted(source, BY_VALUE);
+        SortedList<Item> sortedFiltered = ObservableCollections.sorted(filtered, BY_VALUE);
+        Replayer filteredReplayer = new Replayer(filtered);
+        Replayer sortedReplayer = new Replayer(sorted);
+        Replayer sortedFilteredReplayer = new Replayer(sortedFiltered);
+        filtered.addObservableListListener(filteredReplayer);
+        sorted.addObservableListListener(sortedReplayer);
+        sortedFiltered.addObservableListListener(sortedFilteredReplayer);
+
+        for (int round = 0; round < 2000; round++) {
+            switch (random.nextInt(9)) {
+                case 0:
+                    source.add(random.nextInt(source.size() + 1), new Item(random.nextInt(50)));
+                    break;
+                case 1:
+                    if (!source.isEmpty()) {
+                        source.remove(random.nextInt(source.size()));
+                    }
+                    break;
+                case 2:
+                    if (!source.isEmpty()) {
+                        source.set(random.nextInt(source.size()), new Item(random.nextInt(50)));
+                    }
+                    break;
+                case 3:
+                    if (!source.isEmpty()) {
+                        int i = random.nextInt(source.size());
+                        source.get(i).value = random.nextInt(50);
+                        helper.fireElementChanged(i);
+                    }
+                    break;
+                case 4:
+                    if (source.size() > 1) {
+                        int from = random.nextInt(source.size());
+                        int to = from + random.nextInt(source.size() - from);
+                        for (int i = from; i < to; i++) {
+                            source.get(i).value = random.nextInt(50);
+                        }
+                        helper.fireElementsChanged(from, to);
+                    }
+                    break;
+                case 5:
+                    source.sort(random.nextBoolean() ? BY_VALUE : Collections.reverseOrder(BY_VALUE));
+                    break;
+                case 6:
+                    source.applyBatch(new Consumer<List<Item>>() {
+                        public void accept(List<Item> list) {
+                            for (int i = 0; i < 5; i++) {
+                                list.add(random.nextInt(list.size() + 1), new Item(random.nextInt(50)));
+                                if (list.size() > 2) {
+                                    list.remove(random.nextInt(list.size()));
+                                }
+                            }
+                        }
+                    });
+                    break;
+                case 7:
+                    filtered.setPredicate(multipleOf(2 + random.nextInt(3)));
+                    break;
+                default:
+                    if (source.size() > 60) {
+                        source.remove(0, 30);
+                    } else {
+                        List<Item> items = new ArrayList<Item>();
+                        for (int i = 0; i < 10; i++) {
+                            items.add(new Item(random.nextInt(50)));
+                        }
+                        source.addAll(random.nextInt(source.size() + 1), items);
+                    }
+                    break;
+            }
+
+            checkFiltered(filtered);
+            checkSorted(sorted, source);
+            checkSorted(sortedFiltered, filtered);
+            assertEquals(Arrays.asList(filtered.toArray()), filteredReplayer.copy);
+            assertEquals(Arrays.asList(sorted.toArray()), sortedReplayer.copy);
+            assertEquals(Arrays.asList(sortedFiltered.toArray()), sortedFilteredReplayer.copy);
+        }
+    }
+
+    private void checkFiltered(FilteredList<Item> view) {
+        List<Item> expected = new ArrayList<Item>();
+        for (Item item : source) {
+            if (view.getPredicate().test(item)) {
+                expected.add(item);
+            }
+        }
+        assertEquals(expected, view);
+    }
+
+    private void checkSorted(SortedList<Item> view, List<Item> list) {
+        List<Item> expected = new ArrayList<Item>(list);
+        Collections.sort(expected, BY_VALUE);
+        assertEquals(expected, view);
+    }
+}
@@ -0,0 +1,88 @@
+package org.jdesktop.observablecollections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import junit.framework.TestCase;
+
+/**
+ * Tests that iterating over a {@code ListenerList} sees the listeners as
+ * they were when the iteration started.
+ */
+public class ListenerListTest extends TestCase {
+
+    private static List<String> contents(ListenerList<String> list) {
+        List<String> contents = new ArrayList<String>();
+        for (String listener : list) {
+            contents.add(listener);
+        }
+        return contents;
+    }
+
+    public void testAddAndRemove() {
+        ListenerList<String> list = new ListenerList<String>();
+        assertTrue(list.isEmpty());
+        list.add(null);
+        assertTrue(list.isEmpty());
+
+        list.add("a");
+        assertEquals(Arrays.asList("a"), contents(list));
+        for (String s : new String[] {"b", "a", "c", "d", "e"}) {
+            list.add(s);
+        }
+        assertEquals(6, list.size());
+
+        // the first occurrence is removed
+        assertTrue(list.remove("a"));
+        assertFalse(list.remove("x"));
+        assertEquals(Arrays.asList("b", "a", "c", "d", "e"), contents(list));
+        assertEquals("[b, a, c, d, e]", Arrays.toString(list.toArray(new String[0])));
+
+        for (String s : new String[] {"b", "a", "c", "d", "e"}) {
+            assertTrue(list.remove(s));
+        }
+        assertTrue(list.isEmpty());
+        assertEquals(0, contents(list).size());
+    }
+
+    public void testChangesDuringIteration() {
+        ListenerList<String> list = new ListenerList<String>();
+        list.add("a");
+        List<String> seen = new ArrayList<String>();
+        for (String listener : list) {
+            seen.add(listener);
+            list.remove("a");
+            list.add("b");
+            list.add("c");
+        }
+        assertEquals(Arrays.asList("a"), seen);
+        assertEquals(Arrays.asList("b", "c"), contents(list));
+
+        list.add("d");
+        seen.clear();
+        for (String listener : list) {
+            seen.add(listener);
+            if (listener.equals("b")) {
+                list.remove("c");
+                list.add("e");
+                list.remove("b");
+            }
+        }
+        assertEquals(Arrays.asList("b", "c", "d"), seen);
+        assertEquals(Arrays.asList("d", "e"), contents(list));
+
+        // changes after an iteration don't affect it
+        seen.clear();
+        for (String listener : list) {
+            if (seen.isEmpty()) {
+                for (int i = 0; i < 10; i++) {
+                    list.add("f" + i);
+                }
+                list.remove("e");
+            }
+            seen.add(listener);
+        }
+        assertEquals(Arrays.asList("d", "e"), seen);
+        assertEquals(11, list.size());
+    }
+}
@@ -0,0 +1,181 @@
+package org.jdesktop.observablecollections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import junit.framework.TestCase;
+
+/**
+ * Tests that the batch operations of {@code ObservableList} are reported
+ * as single changes.
+ */
+public class ObservableListBatchTest extends TestCase {
+
+    static class Recorder implements ObservableListChangeListener {
+        List<ListChange> changes = new ArrayList<ListChange>();
+        int individual;
+
+        public void listChanged(ListChange change) {
+            changes.add(change);
+        }
+
+        public void listElementsAdded(ObservableList list, int index, int length) {
+            individual++;
+        }
+
+        public void listElementsRemoved(ObservableList list, int index, List oldElements) {
+            individual++;
+        }
+
+        public void listElementReplaced(ObservableList list, int index, Object oldElement) {
+            individual++;
+        }
+
+        public void listElementPropertyChanged(ObservableList list, int index) {
+            individual++;
+        }
+    }
+
+    private static class Legacy implements ObservableListListener {
+        List<String> calls = new ArrayList<String>();
+
+        public void listElementsAdded(ObservableList list, int index, int length) {
+            calls.add("added " + index + " " + length);
+        }
+
+        public void listElementsRemoved(ObservableList list, int index, List oldElements) {
+            calls.add("removed " + index + " " + oldElements);
+        }
+
+        public void listElementReplaced(ObservableList list, int index, Object oldElement) {
+            calls.add("replaced " + index + " " + oldElement);
+        }
+
+        public void listElementPropertyChanged(ObservableList list, int index) {
+            calls.add("changed " + index);
+        }
+    }
+
+    private ObservableList<Integer> list;
+    private Recorder recorder;
+    private Legacy legacy;
+
+    protected void setUp() {
+        List<Integer> contents = new ArrayList<Integer>();
+        for (int i = 0; i < 10; i++) {
+            contents.add(i);
+        }
+        list = ObservableCollections.observableList(contents);
+        recorder = new Recorder();
+        legacy = new Legacy();
+        list.addObservableListListener(recorder);
+        list.addObservableListListener(legacy);
+    }
+
+    private ListChange.Part onlyPart() {
+        assertEquals(1, recorder.changes.size());
+        List<ListChange.Part> parts = recorder.changes.get(0).getParts();
+        assertEquals(1, parts.size());
+        return parts.get(0);
+    }
+
+    public void testSetAll() {
+        list.setAll(Arrays.asList(7, 8, 9));
+        assertEquals(Arrays.asList(7, 8, 9), list);
+        ListChange.Part part = onlyPart();
+        assertEquals(0, part.getIndex());
+        assertEquals(10, part.getRemovedSize());
+        assertEquals(3, part.getAddedSize());
+        assertEquals(0, recorder.individual);
+        assertEquals(Arrays.asList("removed 0 " + Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), "added 0 3"),
+                legacy.calls);
+    }
+
+    public void testRemoveRange() {
+        list.subList(2, 5).clear();
+        assertEquals(Arrays.asList(0, 1, 5, 6, 7, 8, 9), list);
+        ListChange.Part part = onlyPart();
+        assertEquals(2, part.getIndex());
+        assertEquals(Arrays.asList(2, 3, 4), part.getRemoved());
+        assertEquals(0, part.getAddedSize());
+    }
+
+    public void testRemoveIf() {
+        assertTrue(list.removeAll(Arrays.asList(1, 2, 5, 9)));
+        assertEquals(Arrays.asList(0, 3, 4, 6, 7, 8), list);
+        assertEquals(1, recorder.changes.size());
+        List<ListChange.Part> parts = recorder.changes.get(0).getParts();
+        assertEquals(3, parts.size());
+        assertEquals(1, parts.get(0).getIndex());
+        assertEquals(Arrays.asList(1, 2), parts.get(0).getRemoved());
+        assertEquals(3, parts.get(1).getIndex());
+        assertEquals(Arrays.asList(5), parts.get(1).getRemoved());
+        assertEquals(6, parts.get(2).getIndex());
+        assertEquals(Arrays.asList(9), parts.get(2).getRemoved());
+
+        assertFalse(list.retainAll(list));
+        assertEquals(1, recorder.changes.size());
+    }
+
+    public void testApplyBatch() {
+        list.applyBatch(new Consumer<List<Integer>>() {
+            public void accept(List<Integer> l) {
+                l.set(3, 30);
+                l.remove(6);
+                l.add(5, 50);
+            }
+        });
+        assertEquals(Arrays.asList(0, 1, 2, 30, 4, 50, 5, 7, 8, 9), list);
+        ListChange.Part part = onlyPart();
+        assertEquals(3, part.getIndex());
+        assertEquals(Arrays.asList(3, 4, 5, 6), part.getRemoved());
+        assertEquals(4, part.getAddedSize());
+
+        list.applyBatch(new Consumer<List<Integer>>() {
+            public void accept(List<Integer> l) {
+            }
+        });
+        assertEquals(1, recorder.changes.size());
+    }
+
+    public void testSortIsPermutation() {
+        list.set(2, 20);
+        list.set(6, 1);
+        recorder.changes.clear();
+        recorder.individual = 0;
+        legacy.calls.clear();
+
+        // 0 1 20 3 4 5 1 7 8 9 -> 0 1 1 3 4 5 7 8 9 20
+        list.sort(null);
+        assertEquals(Arrays.asList(0, 1, 1, 3, 4, 5, 7, 8, 9, 20), list);
+        ListChange.Part part = onlyPart();
+        assertTrue(part.wasPermuted());
+        assertEquals(2, part.getIndex());
+        assertEquals(10, part.getTo());
+        assertEquals(9, part.getPermutation(2));
+        assertEquals(3, part.getPermutation(3));
+        assertEquals(2, part.getPermutation(6));
+        assertEquals(6, part.getPermutation(7));
+        assertEquals(0, recorder.individual);
+        assertEquals(Arrays.asList("removed 2 " + Arrays.asList(20, 3, 4, 5, 1, 7, 8, 9), "added 2 8"),
+                legacy.calls);
+
+        list.sort(null);
+        assertEquals(1, recorder.changes.size());
+    }
+
+    public void testElementsChanged() {
+        ObservableCollections.ObservableListHelper<Integer> helper =
+                ObservableCollections.observableListHelper(new ArrayList<Integer>(list));
+        helper.getObservableList().addObservableListListener(recorder);
+        helper.getObservableList().addObservableListListener(legacy);
+
+        helper.fireElementsChanged(3, 6);
+        ListChange.Part part = onlyPart();
+        assertTrue(part.wasUpdated());
+        assertEquals(3, part.getIndex());
+        assertEquals(6, part.getTo());
+        assertEquals(Arrays.asList("changed 3", "changed 4", "changed 5"), legacy.calls);
+    }
+}
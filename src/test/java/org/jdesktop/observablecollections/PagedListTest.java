@@ -0,0 +1,141 @@
+package org.jdesktop.observablecollections;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import junit.framework.TestCase;
+
+public class PagedListTest extends TestCase {
+
+    /**
+     * Stands in for a store: loads the elements of a list, and records the
+     * ranges it's asked for.
+     */
+    public static class ListLoader<E> implements PageLoader<E> {
+        private final List<E> store;
+        List<String> loads = new ArrayList<String>();
+
+        public ListLoader(List<E> store) {
+            this.store = store;
+        }
+
+        public int size() {
+            return store.size();
+        }
+
+        public List<E> load(int from, int to) {
+            loads.add(from + "-" + to);
+            return new ArrayList<E>(store.subList(from, to));
+        }
+    }
+
+    private static class Tasks implements Executor {
+        List<Runnable> tasks = new ArrayList<Runnable>();
+
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            List<Runnable> run = new ArrayList<Runnable>(tasks);
+            tasks.clear();
+            for (Runnable task : run) {
+                task.run();
+            }
+        }
+    }
+
+    private ListLoader<Integer> loader;
+
+    protected void setUp() {
+        List<Integer> store = new ArrayList<Integer>();
+        for (int i = 0; i < 95; i++) {
+            store.add(i);
+        }
+        loader = new ListLoader<Integer>(store);
+    }
+
+    public void testLoadsPagesOnDemand() {
+        PagedList<Integer> list = new PagedList<Integer>(loader, 10, 2);
+        assertEquals(95, list.size());
+        assertTrue(loader.loads.isEmpty());
+
+        assertEquals(Integer.valueOf(15), list.get(15));
+        assertEquals(Integer.valueOf(19), list.get(19));
+        assertEquals(Integer.valueOf(94), list.get(94));
+        assertEquals("[10-20, 90-95]", loader.loads.toString());
+
+        // page 1 was accessed last, so page 9 is dropped
+        list.get(10);
+        list.get(0);
+        assertEquals(2, list.getLoadedPageCount());
+        assertTrue(list.isLoaded(10));
+        assertFalse(list.isLoaded(90));
+
+        list.get(93);
+        assertEquals("[10-20, 90-95, 0-10, 90-95]", loader.loads.toString());
+    }
+
+    public void testLoadsPagesInBackground() {
+        Tasks loads = new Tasks();
+        Tasks events = new Tasks();
+        PagedList<Integer> list = new PagedList<Integer>(loader, 10, 4, loads, events);
+        ObservableListBatchTest.Recorder recorder = new ObservableListBatchTest.Recorder();
+        list.addObservableListListener(recorder);
+
+        assertNull(list.get(25));
+        assertNull(list.get(26));
+        assertFalse(list.isLoaded(25));
+        assertEquals(1, loads.tasks.size());
+
+        loads.runAll();
+        assertFalse(list.isLoaded(25));
+        assertTrue(recorder.changes.isEmpty());
+
+        events.runAll();
+        assertTrue(list.isLoaded(25));
+        assertEquals(Integer.valueOf(25), list.get(25));
+        assertEquals(1, recorder.changes.size());
+        ListChange.Part part = recorder.changes.get(0).getParts().get(0);
+        assertEquals(20, part.getIndex());
+        assertEquals(10, part.getRemovedSize());
+        assertEquals(10, part.getAddedSize());
+        assertEquals(0, recorder.individual);
+    }
+
+    public void testDroppedPagesAreReported() {
+        Tasks loads = new Tasks();
+        Tasks events = new Tasks();
+        PagedList<Integer> list = new PagedList<Integer>(loader, 10, 2, loads, events);
+        ObservableListBatchTest.Recorder recorder = new ObservableListBatchTest.Recorder();
+        list.addObservableListListener(recorder);
+
+        list.get(0);
+        list.get(10);
+        loads.runAll();
+        events.runAll();
+        list.get(20);
+        loads.runAll();
+        events.runAll();
+        assertEquals(2, list.getLoadedPageCount());
+        assertFalse(list.isLoaded(0));
+
+        // page 0 was dropped after page 2 arrived, and its elements are
+        // reported as replaced by placeholders
+        assertEquals(4, recorder.changes.size());
+        ListChange.Part dropped = recorder.changes.get(3).getParts().get(0);
+        assertEquals(0, dropped.getIndex());
+        assertEquals(10, dropped.getAddedSize());
+        assertEquals(Integer.valueOf(3), dropped.getRemoved().get(3));
+
+        // so loading it again replaces placeholders
+        assertNull(list.get(0));
+        loads.runAll();
+        events.runAll();
+        assertEquals(6, recorder.changes.size());
+        ListChange.Part reloaded = recorder.changes.get(4).getParts().get(0);
+        assertEquals(0, reloaded.getIndex());
+        assertNull(reloaded.getRemoved().get(3));
+        assertEquals(10, recorder.changes.get(5).getParts().get(0).getIndex());
+    }
+}
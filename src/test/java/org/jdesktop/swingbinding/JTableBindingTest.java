@@ -0,0 +1,534 @@
+package org.jdesktop.swingbinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.awt.EventQueue;
+import java.awt.Point;
+import java.lang.reflect.InvocationTargetException;
+import javax.swing.JTable;
+import javax.swing.JViewport;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import junit.framework.TestCase;
+import org.jdesktop.beansbinding.AutoBinding;
+import org.jdesktop.beansbinding.BeanProperty;
+import org.jdesktop.beansbinding.BindingTest.BoundBean;
+import org.jdesktop.beansbinding.Converter;
+import org.jdesktop.beansbinding.ObjectProperty;
+import org.jdesktop.beansbinding.Property;
+import org.jdesktop.beansbinding.PropertyHelper;
+import org.jdesktop.observablecollections.ListChange;
+import org.jdesktop.observablecollections.ObservableCollections;
+import org.jdesktop.observablecollections.ObservableList;
+import org.jdesktop.observablecollections.PagedList;
+import org.jdesktop.observablecollections.PagedListTest;
+import org.jdesktop.swingbinding.impl.ListBindingManager;
+
+/**
+ * Tests the table model events of {@code JTableBinding}.
+ */
+public class JTableBindingTest extends TestCase {
+
+    private static class Recorder implements TableModelListener {
+        List<TableModelEvent> events = new ArrayList<TableModelEvent>();
+
+        public void tableChanged(TableModelEvent e) {
+            events.add(e);
+        }
+    }
+
+    private ObservableList<String> list;
+    private JTable table;
+    private Recorder recorder;
+
+    protected void setUp() {
+        list = ObservableCollections.observableList(new ArrayList<String>());
+        for (int i = 0; i < 1000; i++) {
+            list.add("row" + i);
+        }
+
+        table = new JTable();
+        JTableBinding<String, List<String>, JTable> binding =
+                SwingBindings.createJTableBinding(AutoBinding.UpdateStrategy.READ, list, table);
+        binding.addColumnBinding(ObjectProperty.<String>create());
+        binding.bind();
+
+        recorder = new Recorder();
+        table.getModel().addTableModelListener(recorder);
+    }
+
+    public void testSetAllFiresOneEvent() {
+        List<String> contents = new ArrayList<String>();
+        for (int i = 0; i < 1000; i++) {
+            contents.add("new" + i);
+        }
+
+        list.setAll(contents);
+        assertEquals(1, recorder.events.size());
+        TableModelEvent e = recorder.events.get(0);
+        assertEquals(TableModelEvent.UPDATE, e.getType());
+        assertEquals(0, e.getFirstRow());
+        assertEquals(999, e.getLastRow());
+        assertEquals("new5", table.getValueAt(5, 0));
+    }
+
+    public void testShrinkingReplaceKeepsRowCountInSync() {
+        list.replaceRange(10, 20, Arrays.asList("a", "b"));
+        assertEquals(2, recorder.events.size());
+        assertEquals(TableModelEvent.UPDATE, recorder.events.get(0).getType());
+        assertEquals(TableModelEvent.DELETE, recorder.events.get(1).getType());
+        assertEquals(12, recorder.events.get(1).getFirstRow());
+        assertEquals(19, recorder.events.get(1).getLastRow());
+        assertEquals(992, table.getRowCount());
+        assertEquals("b", table.getValueAt(11, 0));
+    }
+
+    public void testSortKeepsSelection() {
+        table.getSelectionModel().setSelectionInterval(2, 3);
+        table.getSelectionModel().addSelectionInterval(500, 500);
+
+        list.sort(Collections.<String>reverseOrder());
+        assertEquals(1, recorder.events.size());
+        assertEquals(TableModelEvent.UPDATE, recorder.events.get(0).getType());
+        assertEquals(1000, table.getRowCount());
+
+        assertEquals(3, table.getSelectedRowCount());
+        for (int row : table.getSelectedRows()) {
+            String value = (String)table.getValueAt(row, 0);
+            assertTrue(value, value.equals("row2") || value.equals("row3") || value.equals("row500"));
+        }
+        assertEquals("row500", table.getValueAt(table.getSelectionModel().getLeadSelectionIndex(), 0));
+    }
+
+    public void testPropertyChangeReachesAllColumnsOfRow() {
+        List<BoundBean> beans = ObservableCollections.observableList(new ArrayList<BoundBean>());
+        for (int i = 0; i < 10; i++) {
+            BoundBean bean = new BoundBean();
+            bean.setValue(i);
+            beans.add(bean);
+        }
+
+        JTable table = new JTable();
+        JTableBinding<BoundBean, List<BoundBean>, JTable> binding =
+                SwingBindings.createJTableBinding(AutoBinding.UpdateStrategy.READ, beans, table);
+        Property<BoundBean, Object> value = BeanProperty.create("value");
+        binding.addColumnBinding(value);
+        binding.addColumnBinding(ObjectProperty.<BoundBean>create());
+        binding.addColumnBinding(value);
+        binding.bind();
+        Recorder recorder = new Recorder();
+        table.getModel().addTableModelListener(recorder);
+
+        for (int row = 0; row < 10; row++) {
+            table.getValueAt(row, 0);
+        }
+        beans.add(0, new BoundBean());
+        recorder.events.clear();
+
+        beans.get(6).setValue("six");
+        assertEquals(2, recorder.events.size());
+        assertEquals(6, recorder.events.get(0).getFirstRow());
+        assertEquals(0, recorder.events.get(0).getColumn());
+        assertEquals(6, recorder.events.get(1).getFirstRow());
+        assertEquals(2, recorder.events.get(1).getColumn());
+
+        BoundBean removed = beans.remove(6);
+        recorder.events.clear();
+        removed.setValue("gone");
+        assertEquals(0, recorder.events.size());
+        binding.unbind();
+    }
+
+    public void testViewportMarginReleasesHiddenRows() throws Exception {
+        List<BoundBean> beans = new ArrayList<BoundBean>();
+        for (int i = 0; i < 1000; i++) {
+            beans.add(new BoundBean());
+        }
+
+        JTable table = new JTable();
+        JTableBinding<BoundBean, List<BoundBean>, JTable> binding =
+                SwingBindings.createJTableBinding(AutoBinding.UpdateStrategy.READ, beans, table);
+        binding.addColumnBinding(BeanProperty.<BoundBean, Object>create("value"));
+        binding.setViewportMargin(5);
+        binding.bind();
+        ListBindingManager model = (ListBindingManager)table.getModel();
+
+        JViewport viewport = new JViewport();
+        viewport.setView(table);
+        table.setSize(table.getPreferredSize());
+        viewport.setSize(300, table.getRowHeight() * 10);
+        // the resize releases rows on the event dispatch thread
+        flushEventQueue();
+
+        for (int row = 0; row < 100; row++) {
+            table.getValueAt(row, 0);
+        }
+        assertEquals(100, model.getObservedRowCount());
+
+        viewport.setViewPosition(new Point(0, table.getRowHeight() * 50));
+        flushEventQueue();
+        assertEquals(20, model.getObservedRowCount());
+
+        binding.unbind();
+        assertEquals(0, model.getObservedRowCount());
+    }
+
+    public void testCoalescedUpdates() throws Exception {
+        List<BoundBean> beans = ObservableCollections.observableList(new ArrayList<BoundBean>());
+        for (int i = 0; i < 100; i++) {
+            beans.add(new BoundBean());
+        }
+
+        JTable table = new JTable();
+        JTableBinding<BoundBean, List<BoundBean>, JTable> binding =
+                SwingBindings.createJTableBinding(AutoBinding.UpdateStrategy.READ, beans, table);
+        binding.addColumnBinding(BeanProperty.<BoundBean, Object>create("value"));
+        binding.addColumnBinding(ObjectProperty.<BoundBean>create());
+        binding.setCoalescingLatency(0);
+        binding.bind();
+        Recorder recorder = new Recorder();
+        table.getModel().addTableModelListener(recorder);
+        for (int row = 0; row < 100; row++) {
+            table.getValueAt(row, 0);
+        }
+
+        // changes are made on the event dispatch thread, which flushes
+        // after the current event
+        final List<BoundBean> source = beans;
+        onEventQueue(new Runnable() {
+            public void run() {
+                for (int round = 0; round < 50; round++) {
+                    source.get(10).setValue(round);
+                    source.get(40).setValue(round);
+                    source.get(20).setValue(round);
+                }
+            }
+        });
+        flushEventQueue();
+        assertEquals(1, recorder.events.size());
+        TableModelEvent e = recorder.events.get(0);
+        assertEquals(10, e.getFirstRow());
+        assertEquals(40, e.getLastRow());
+        assertEquals(0, e.getColumn());
+
+        // a structural change sends the waiting updates first
+        recorder.events.clear();
+        final List<TableModelEvent> before = new ArrayList<TableModelEvent>();
+        final Recorder structural = recorder;
+        onEventQueue(new Runnable() {
+            public void run() {
+                source.get(5).setValue("x");
+                before.addAll(structural.events);
+                source.add(0, new BoundBean());
+            }
+        });
+        assertEquals(0, before.size());
+        assertEquals(2, recorder.events.size());
+        assertEquals(5, recorder.events.get(0).getFirstRow());
+        assertEquals(TableModelEvent.INSERT, recorder.events.get(1).getType());
+        flushEventQueue();
+        assertEquals(2, recorder.events.size());
+        binding.unbind();
+    }
+
+    private static void onEventQueue(Runnable runnable) throws Exception {
+        try {
+            EventQueue.invokeAndWait(runnable);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof Error) {
+                throw (Error)e.getCause();
+            }
+            throw (Exception)e.getCause();
+        }
+    }
+
+    private static void flushEventQueue() throws Exception {
+        EventQueue.invokeAndWait(new Runnable() {
+            public void run() {
+            }
+        });
+    }
+
+    private static class CountingConverter extends Converter<Object, Object> {
+        int conversions;
+
+        public Object convertForward(Object value) {
+            conversions++;
+            return value;
+        }
+
+        public Object convertReverse(Object value) {
+            return value;
+        }
+    }
+
+    public void testValueCache() {
+        List<BoundBean> beans = new ArrayList<BoundBean>();
+        for (int i = 0; i < 10; i++) {
+            BoundBean bean = new BoundBean();
+            bean.setValue(i);
+            beans.add(bean);
+        }
+
+        JTable table = new JTable();
+        JTableBinding<BoundBean, List<BoundBean>, JTable> binding =
+                SwingBindings.createJTableBinding(AutoBinding.UpdateStrategy.READ, beans, table);
+        CountingConverter converter = new CountingConverter();
+        binding.addColumnBinding(BeanProperty.<BoundBean, Object>create("value")).setConverter(converter);
+        binding.setValueCacheSize(5);
+        binding.bind();
+
+        for (int paint = 0; paint < 3; paint++) {
+            for (int row = 0; row < 5; row++) {
+                assertEquals(row, table.getValueAt(row, 0));
+            }
+        }
+        assertEquals(5, converter.conversions);
+
+        beans.get(2).setValue("two");
+        assertEquals("two", table.getValueAt(2, 0));
+        assertEquals(6, converter.conversions);
+
+        // row 5 takes the place of the row that was cached first
+        table.getValueAt(5, 0);
+        table.getValueAt(1, 0);
+        table.getValueAt(0, 0);
+        assertEquals(8, converter.conversions);
+        binding.unbind();
+    }
+
+    public void testValueCacheSizeAfterUpdates() {
+        ObservableList<BoundBean> beans = ObservableCollections.observableList(new ArrayList<BoundBean>());
+        for (int i = 0; i < 10; i++) {
+            BoundBean bean = new BoundBean();
+            bean.setValue(i);
+            beans.add(bean);
+        }
+
+        JTable table = new JTable();
+        JTableBinding<BoundBean, List<BoundBean>, JTable> binding =
+                SwingBindings.createJTableBinding(AutoBinding.UpdateStrategy.READ, beans, table);
+        CountingConverter converter = new CountingConverter();
+        binding.addColumnBinding(BeanProperty.<BoundBean, Object>create("value")).setConverter(converter);
+        binding.setValueCacheSize(5);
+        binding.bind();
+        ListBindingManager model = (ListBindingManager)table.getModel();
+
+        for (int row = 0; row < 5; row++) {
+            table.getValueAt(row, 0);
+        }
+        assertEquals(5, converter.conversions);
+
+        for (int update = 0; update < 3; update++) {
+            model.listChanged(new ListChange.Builder(beans).updated(2, 3).build());
+            for (int paint = 0; paint < 2; paint++) {
+                for (int row = 0; row < 5; row++) {
+                    table.getValueAt(row, 0);
+                }
+            }
+            assertEquals(5, model.getCachedRowCount());
+        }
+        // only the updated row was converted again
+        assertEquals(8, converter.conversions);
+
+        // a replaced row's values are dropped with its listener
+        beans.set(4, new BoundBean());
+        assertEquals(4, model.getCachedRowCount());
+        binding.unbind();
+    }
+
+    public void testPrefetch() throws Exception {
+        List<BoundBean> beans = new ArrayList<BoundBean>();
+        for (int i = 0; i < 1000; i++) {
+            BoundBean bean = new BoundBean();
+            bean.setValue(i);
+            beans.add(bean);
+        }
+
+        JTable table = new JTable();
+        JTableBinding<BoundBean, List<BoundBean>, JTable> binding =
+                SwingBindings.createJTableBinding(AutoBinding.UpdateStrategy.READ, beans, table);
+        CountingConverter converter = new CountingConverter();
+        binding.addColumnBinding(BeanProperty.<BoundBean, Object>create("value")).setConverter(converter);
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        binding.setPrefetchExecutor(new Executor() {
+            public void execute(Runnable task) {
+                tasks.add(task);
+            }
+        });
+        binding.setValueCacheSize(100);
+        binding.bind();
+
+        JViewport viewport = new JViewport();
+        viewport.setView(table);
+        table.setSize(table.getPreferredSize());
+        viewport.setSize(300, table.getRowHeight() * 10);
+        flushEventQueue();
+        runAll(tasks);
+        flushEventQueue();
+        converter.conversions = 0;
+
+        // rows 50 to 59 are visible, so 40 to 49 and 60 to 69 are prefetched
+        viewport.setViewPosition(new Point(0, table.getRowHeight() * 50));
+        flushEventQueue();
+        assertFalse(tasks.isEmpty());
+        runAll(tasks);
+        flushEventQueue();
+        assertEquals(20, converter.conversions);
+
+        for (int row = 40; row < 70; row++) {
+            assertEquals(row, table.getValueAt(row, 0));
+        }
+        assertEquals(30, converter.conversions);
+
+        // values computed before a change to their row are dropped
+        viewport.setViewPosition(new Point(0, table.getRowHeight() * 200));
+        flushEventQueue();
+        beans.get(215).setValue("changed");
+        runAll(tasks);
+        flushEventQueue();
+        assertEquals(50, converter.conversions);
+        assertEquals("changed", table.getValueAt(215, 0));
+        assertEquals(211, table.getValueAt(211, 0));
+        assertEquals(51, converter.conversions);
+
+        binding.unbind();
+    }
+
+    private static class ThreadRecordingProperty extends PropertyHelper<BoundBean, Object> {
+        final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+
+        public Class<? extends Object> getWriteType(BoundBean source) {
+            return Object.class;
+        }
+
+        public Object getValue(BoundBean source) {
+            threads.add(Thread.currentThread());
+            return source.getValue();
+        }
+
+        public void setValue(BoundBean source, Object value) {
+            throw new UnsupportedOperationException();
+        }
+
+        public boolean isReadable(BoundBean source) {
+            return true;
+        }
+
+        public boolean isWriteable(BoundBean source) {
+            return false;
+        }
+    }
+
+    public void testPrefetchOnlyReadsCopiedProperties() throws Exception {
+        List<BoundBean> beans = new ArrayList<BoundBean>();
+        for (int i = 0; i < 1000; i++) {
+            BoundBean bean = new BoundBean();
+            bean.setValue(i);
+            beans.add(bean);
+        }
+
+        JTable table = new JTable();
+        JTableBinding<BoundBean, List<BoundBean>, JTable> binding =
+                SwingBindings.createJTableBinding(AutoBinding.UpdateStrategy.READ, beans, table);
+        binding.addColumnBinding(BeanProperty.<BoundBean, Object>create("value"));
+        ThreadRecordingProperty custom = new ThreadRecordingProperty();
+        binding.addColumnBinding(custom);
+        final List<Thread> workers = Collections.synchronizedList(new ArrayList<Thread>());
+        ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable task) {
+                Thread worker = new Thread(task);
+                workers.add(worker);
+                return worker;
+            }
+        });
+        binding.setPrefetchExecutor(executor);
+        binding.setValueCacheSize(100);
+        binding.bind();
+
+        JViewport viewport = new JViewport();
+        viewport.setView(table);
+        table.setSize(table.getPreferredSize());
+        viewport.setSize(300, table.getRowHeight() * 10);
+        viewport.setViewPosition(new Point(0, table.getRowHeight() * 50));
+        flushEventQueue();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        flushEventQueue();
+
+        // the bean property column was prefetched through a copy, and the
+        // custom one is left to the event dispatch thread
+        ListBindingManager model = (ListBindingManager)table.getModel();
+        assertEquals(1, workers.size());
+        assertTrue(model.getCachedRowCount() >= 20);
+        assertFalse(custom.threads.contains(workers.get(0)));
+        assertEquals(65, table.getValueAt(65, 0));
+        assertEquals(65, table.getValueAt(65, 1));
+        assertTrue(custom.threads.contains(Thread.currentThread()));
+        binding.unbind();
+    }
+
+    public void testPagedElements() throws Exception {
+        List<BoundBean> store = new ArrayList<BoundBean>();
+        for (int i = 0; i < 1000; i++) {
+            BoundBean bean = new BoundBean();
+            bean.setValue(i);
+            store.add(bean);
+        }
+
+        final List<Runnable> loads = new ArrayList<Runnable>();
+        PagedList<BoundBean> beans = new PagedList<BoundBean>(new PagedListTest.ListLoader<BoundBean>(store), 100, 3,
+            new Executor() {
+                public void execute(Runnable task) {
+                    loads.add(task);
+                }
+            },
+            new Executor() {
+                public void execute(Runnable task) {
+                    EventQueue.invokeLater(task);
+                }
+            });
+
+        JTable table = new JTable();
+        JTableBinding<BoundBean, List<BoundBean>, JTable> binding =
+                SwingBindings.createJTableBinding(AutoBinding.UpdateStrategy.READ, beans, table);
+        binding.addColumnBinding(BeanProperty.<BoundBean, Object>create("value"));
+        binding.bind();
+        ListBindingManager model = (ListBindingManager)table.getModel();
+        Recorder recorder = new Recorder();
+        table.getModel().addTableModelListener(recorder);
+
+        assertEquals(1000, table.getRowCount());
+        assertNull(table.getValueAt(250, 0));
+        assertEquals(0, model.getObservedRowCount());
+
+        runAll(loads);
+        flushEventQueue();
+        assertEquals(1, recorder.events.size());
+        TableModelEvent e = recorder.events.get(0);
+        assertEquals(TableModelEvent.UPDATE, e.getType());
+        assertEquals(200, e.getFirstRow());
+        assertEquals(299, e.getLastRow());
+
+        assertEquals(250, table.getValueAt(250, 0));
+        store.get(250).setValue("changed");
+        assertEquals("changed", table.getValueAt(250, 0));
+        binding.unbind();
+    }
+
+    private static void runAll(List<Runnable> tasks) {
+        for (Runnable task : tasks) {
+            task.run();
+        }
+        tasks.clear();
+    }
+}
@@ -0,0 +1,87 @@
+package org.jdesktop.swingbinding.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * Tests {@code RowList} against an {@code ArrayList} doing the same
+ * operations.
+ */
+public class RowListTest extends TestCase {
+
+    private RowList<Integer> rows;
+    private List<RowList.Node<Integer>> expected;
+
+    protected void setUp() {
+        rows = new RowList<Integer>();
+        expected = new ArrayList<RowList.Node<Integer>>();
+    }
+
+    private void insert(int index, int count) {
+        rows.insert(index, count);
+        for (int i = 0; i < count; i++) {
+            RowList.Node<Integer> node = rows.node(index + i);
+            assertNull(node.value);
+            node.value = System.identityHashCode(node);
+            expected.add(index + i, node);
+        }
+    }
+
+    private void check() {
+        assertEquals(expected.size(), rows.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), rows.node(i));
+            assertEquals(i, rows.indexOf(expected.get(i)));
+        }
+    }
+
+    public void testRandomOperations() {
+        Random random = new Random(7);
+        insert(0, 100);
+        check();
+
+        for (int round = 0; round < 500; round++) {
+            int size = expected.size();
+            int from = random.nextInt(size + 1);
+            int to = from + random.nextInt(size - from + 1);
+
+            switch (random.nextInt(3)) {
+                case 0:
+                    insert(from, random.nextInt(20));
+                    break;
+                case 1:
+                    List<RowList.Node<Integer>> range = expected.subList(from, to);
+                    List<Integer> values = new ArrayList<Integer>();
+                    for (RowList.Node<Integer> node : range) {
+                        values.add(node.value);
+                    }
+                    List<RowList.Node<Integer>> removed = new ArrayList<RowList.Node<Integer>>(range);
+                    assertEquals(values, rows.remove(from, to));
+                    range.clear();
+                    for (RowList.Node<Integer> node : removed) {
+                        assertEquals(-1, rows.indexOf(node));
+                    }
+                    break;
+                default:
+                    List<Integer> order = new ArrayList<Integer>();
+                    for (int i = from; i < to; i++) {
+                        order.add(i);
+                    }
+                    Collections.shuffle(order, random);
+                    int[] permutation = new int[order.size()];
+                    List<RowList.Node<Integer>> old = new ArrayList<RowList.Node<Integer>>(expected.subList(from, to));
+                    for (int i = 0; i < permutation.length; i++) {
+                        permutation[i] = order.get(i);
+                        expected.set(order.get(i), old.get(i));
+                    }
+                    rows.permute(from, permutation);
+                    break;
+            }
+
+            check();
+        }
+    }
+}